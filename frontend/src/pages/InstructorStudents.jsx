@@ -9,7 +9,8 @@ import {
     Search,
     Filter,
     MoreHorizontal,
-    Mail
+    Mail,
+    Download
 } from 'lucide-react';
 import InstructorSidebar from '../components/InstructorSidebar';
 import DashboardNavbar from '../components/DashboardNavbar';
@@ -85,6 +86,13 @@ const InstructorStudents = () => {
                             <Filter size={20} />
                             <span>Filter</span>
                         </button>
+                        <a
+                            href={`http://localhost:8080/api/instructors/${user.id}/students/export?format=xlsx`}
+                            className="bg-white border border-slate-200 text-slate-700 px-6 py-4 rounded-2xl font-bold hover:bg-slate-50 transition-all flex items-center gap-2 shadow-sm"
+                        >
+                            <Download size={20} />
+                            <span>Export</span>
+                        </a>
                     </div>
 
                     {/* Students Table */}
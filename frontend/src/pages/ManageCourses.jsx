@@ -29,7 +29,9 @@ import {
 import InstructorSidebar from '../components/InstructorSidebar';
 import DashboardNavbar from '../components/DashboardNavbar';
 import StatCard from '../components/StatCard';
-import api from '../utils/api';
+import api, { getPage } from '../utils/api';
+
+const PAGE_SIZE = 24;
 
 /* ───── mock enrichment (fields backend doesn't provide yet) ───── */
 const CATEGORIES = ['Agriculture', 'Technology', 'Environment', 'Finance', 'Business', 'Health'];
@@ -85,7 +87,10 @@ const ManageCourses = () => {
     const navigate = useNavigate();
     /* ── core state ── */
     const [courses, setCourses] = useState([]);
+    const [nextCursor, setNextCursor] = useState(null);
+    const [courseStats, setCourseStats] = useState({});
     const [loading, setLoading] = useState(true);
+    const [loadingMore, setLoadingMore] = useState(false);
     const [search, setSearch] = useState('');
     const [filter, setFilter] = useState('All');
     const [sort, setSort] = useState('Newest');
@@ -104,42 +109,74 @@ const ManageCourses = () => {
 
 
 
-    /* ── fetch courses ── */
+    /* ── fetch courses: one page (newest first), filtered by status on the server ── */
+    const currentUser = () => {
+        const userStr = localStorage.getItem('user');
+        const user = userStr ? JSON.parse(userStr) : null;
+        if (!user?.id) {
+            localStorage.clear();
+            navigate('/login');
+            return null;
+        }
+        return user;
+    };
+
+    const coursePage = (user, cursor) => getPage(`/instructors/${user.id}/courses`, {
+        status: filter !== 'All' ? filter : undefined,
+        limit: PAGE_SIZE,
+        cursor: cursor || undefined,
+    });
+
+    const fetchStats = async (user) => {
+        try {
+            const res = await api.get(`/instructors/${user.id}/dashboard-stats`);
+            setCourseStats(res.data || {});
+        } catch (err) {
+            console.error('Failed to load course stats:', err);
+        }
+    };
+
     const fetchCourses = useCallback(async () => {
         setLoading(true);
         try {
-            const userStr = localStorage.getItem('user');
-            if (!userStr) {
-                navigate('/login');
-                return;
-            }
-            
-            const user = JSON.parse(userStr);
-            if (!user.id) {
-                localStorage.clear();
-                navigate('/login');
-                return;
-            }
-            
-            const res = await api.get(`/instructors/${user.id}/courses`);
-            const enriched = (res.data || []).map((c, i) => enrichCourse(c, i));
-            setCourses(enriched);
+            const user = currentUser();
+            if (!user) return;
+            const [page] = await Promise.all([coursePage(user), fetchStats(user)]);
+            setCourses(page.items.map((c, i) => enrichCourse(c, i)));
+            setNextCursor(page.nextCursor);
         } catch (err) {
             console.error('Failed to load courses:', err);
             showToast('Failed to load courses: ' + (err.response?.data?.message || err.message), 'error');
             setCourses([]);
+            setNextCursor(null);
         } finally {
             setLoading(false);
         }
-    }, [navigate]);
+    }, [navigate, filter]);
 
     useEffect(() => { fetchCourses(); }, [fetchCourses]);
 
-    /* ── computed stats ── */
-    const totalCourses = courses.length;
-    const published = courses.filter(c => c.status === 'Published').length;
-    const drafts = courses.filter(c => c.status === 'Draft').length;
-    const totalEnrollments = courses.reduce((s, c) => s + (c.students || 0), 0);
+    const loadMore = async () => {
+        setLoadingMore(true);
+        try {
+            const user = currentUser();
+            if (!user) return;
+            const page = await coursePage(user, nextCursor);
+            setCourses(prev => [...prev, ...page.items.map((c, i) => enrichCourse(c, prev.length + i))]);
+            setNextCursor(page.nextCursor);
+        } catch (err) {
+            console.error('Failed to load more courses:', err);
+            showToast('Failed to load more courses: ' + (err.response?.data?.message || err.message), 'error');
+        } finally {
+            setLoadingMore(false);
+        }
+    };
+
+    /* ── stats for all the instructor's courses, not just the pages loaded ── */
+    const totalCourses = courseStats.totalCourses ?? courses.length;
+    const published = courseStats.publishedCourses ?? 0;
+    const drafts = courseStats.draftCourses ?? 0;
+    const totalEnrollments = courseStats.totalStudents ?? 0;
 
     const stats = [
         { title: 'Total Courses', value: totalCourses, icon: BookOpen, trend: `${published} live` },
@@ -151,7 +188,6 @@ const ManageCourses = () => {
     /* ── filtered + sorted list ── */
     const visible = courses
         .filter(c => {
-            if (filter !== 'All' && c.status !== filter) return false;
             if (search && !c.title.toLowerCase().includes(search.toLowerCase())) return false;
             return true;
         })
@@ -194,6 +230,8 @@ const ManageCourses = () => {
         try {
             await api.delete(`/courses/${id}/delete`);
             setCourses(prev => prev.filter(c => c.id !== id));
+            const user = currentUser();
+            if (user) fetchStats(user);
             setDeleteConfirm({ open: false, course: null });
             showToast('Course deleted successfully!');
         } catch (err) {
@@ -316,7 +354,7 @@ const ManageCourses = () => {
                     )}
 
                     {/* ─── Empty State ─── */}
-                    {!loading && courses.length === 0 && (
+                    {!loading && courses.length === 0 && filter === 'All' && (
                         <motion.div
                             initial={{ opacity: 0, scale: 0.95 }} animate={{ opacity: 1, scale: 1 }}
                             className="flex flex-col items-center justify-center py-24 bg-white rounded-[2.5rem] border border-slate-100 shadow-sm"
@@ -336,7 +374,7 @@ const ManageCourses = () => {
                     )}
 
                     {/* ─── Courses Grid ─── */}
-                    {!loading && courses.length > 0 && (
+                    {!loading && (courses.length > 0 || filter !== 'All') && (
                         <motion.div variants={container} initial="hidden" animate="show"
                             className="grid grid-cols-1 lg:grid-cols-2 gap-8"
                         >
@@ -428,6 +466,18 @@ const ManageCourses = () => {
                                     <p className="text-slate-400 text-sm mt-1">Try changing your search term or filter.</p>
                                 </div>
                             )}
+
+                            {/* search and sort apply to the courses loaded so far */}
+                            {nextCursor && (
+                                <div className="col-span-full flex justify-center">
+                                    <button onClick={loadMore} disabled={loadingMore}
+                                        className="bg-white border border-slate-200 text-slate-600 px-8 py-3 rounded-xl font-semibold hover:border-indigo-400 hover:text-indigo-600 disabled:opacity-50 transition-all flex items-center gap-2"
+                                    >
+                                        {loadingMore && <Loader2 size={18} className="animate-spin" />}
+                                        <span>{loadingMore ? 'Loading…' : 'Load more courses'}</span>
+                                    </button>
+                                </div>
+                            )}
                         </motion.div>
                     )}
 
@@ -12,13 +12,17 @@ import {
 import { useNavigate } from 'react-router-dom';
 import Sidebar from '../components/Sidebar';
 import DashboardNavbar from '../components/DashboardNavbar';
-import api from '../utils/api';
+import api, { getPage } from '../utils/api';
+
+const AVAILABLE_PAGE_SIZE = 6;
 
 const StudentDashboard = () => {
     const navigate = useNavigate();
     const [user, setUser] = useState({ name: "Student" });
     const [enrolledCourses, setEnrolledCourses] = useState([]);
     const [availableCourses, setAvailableCourses] = useState([]);
+    const [availableCursor, setAvailableCursor] = useState(null);
+    const [loadingMore, setLoadingMore] = useState(false);
     const [isLoading, setIsLoading] = useState(true);
 
     useEffect(() => {
@@ -27,7 +31,7 @@ const StudentDashboard = () => {
             try {
                 const parsedUser = JSON.parse(storedUser);
                 setUser({ ...parsedUser, name: parsedUser.name || "Student" });
-                fetchData(parsedUser.id);
+                fetchData(parsedUser);
             } catch (e) {
                 console.error("Failed to parse user from localStorage", e);
                 setIsLoading(false);
@@ -37,14 +41,23 @@ const StudentDashboard = () => {
         }
     }, []);
 
-    const fetchData = async (studentId) => {
+    // Published courses for the student's class, one small page at a time
+    const availableParams = (student, cursor) => ({
+        status: 'Published',
+        classLevel: student.classLevel || undefined,
+        limit: AVAILABLE_PAGE_SIZE,
+        cursor: cursor || undefined
+    });
+
+    const fetchData = async (student) => {
         try {
-            const [coursesRes, allCoursesRes] = await Promise.all([
-                api.get(`/students/${studentId}/my-courses`),
-                api.get('/courses')
+            const [coursesRes, available] = await Promise.all([
+                api.get(`/students/${student.id}/my-courses`),
+                getPage('/courses', availableParams(student))
             ]);
             setEnrolledCourses(coursesRes.data || []);
-            setAvailableCourses(allCoursesRes.data || []);
+            setAvailableCourses(available.items);
+            setAvailableCursor(available.nextCursor);
         } catch (err) {
             console.error('Error fetching dashboard data:', err);
         } finally {
@@ -52,6 +65,19 @@ const StudentDashboard = () => {
         }
     };
 
+    const loadMoreCourses = async () => {
+        setLoadingMore(true);
+        try {
+            const next = await getPage('/courses', availableParams(user, availableCursor));
+            setAvailableCourses(prev => [...prev, ...next.items]);
+            setAvailableCursor(next.nextCursor);
+        } catch (err) {
+            console.error('Error loading more courses:', err);
+        } finally {
+            setLoadingMore(false);
+        }
+    };
+
     // Compute real stats
     const totalEnrolled = enrolledCourses.length;
     const completedCount = enrolledCourses.filter(c => c.status === 'COMPLETED').length;
@@ -235,17 +261,7 @@ const StudentDashboard = () => {
 
                                     {availableCourses.length > 0 ? (
                                         <div className="flex flex-col gap-4">
-                                            {availableCourses
-                                                .filter(course => course.status === 'Published')
-                                                .sort((a, b) => {
-                                                    // Prioritize matching class level
-                                                    const aMatch = String(a.classLevel) === String(user.classLevel);
-                                                    const bMatch = String(b.classLevel) === String(user.classLevel);
-                                                    if (aMatch && !bMatch) return -1;
-                                                    if (!aMatch && bMatch) return 1;
-                                                    return 0;
-                                                })
-                                                .slice(0, 6).map((course) => (
+                                            {availableCourses.map((course) => (
                                                     <motion.div
                                                         key={course.id}
                                                         initial={{ opacity: 0, x: 20 }}
@@ -272,6 +288,15 @@ const StudentDashboard = () => {
                                                         </div>
                                                     </motion.div>
                                                 ))}
+                                            {availableCursor && (
+                                                <button
+                                                    onClick={loadMoreCourses}
+                                                    disabled={loadingMore}
+                                                    className="w-full py-3 bg-slate-800 hover:bg-purple-600 disabled:opacity-50 rounded-xl font-bold text-sm text-white transition-all duration-300"
+                                                >
+                                                    {loadingMore ? 'Loading…' : 'More courses'}
+                                                </button>
+                                            )}
                                         </div>
                                     ) : (
                                         <div className="text-center py-8 bg-slate-900/30 border border-dashed border-slate-800 rounded-2xl">
@@ -48,7 +48,9 @@ const ViewCourse = () => {
     useEffect(() => {
         const fetchCourse = async () => {
             try {
-                const res = await api.get(`/courses/${id}`);
+                const user = JSON.parse(localStorage.getItem('user') || '{}');
+                const params = user.role === 'STUDENT' && user.id ? { studentId: user.id } : {};
+                const res = await api.get(`/courses/${id}/detail`, { params });
                 setCourse(res.data);
                 // auto-select first video
                 if (res.data.videos && res.data.videos.length > 0) {
@@ -7,4 +7,10 @@ const api = axios.create({
     },
 });
 
+// Lists like /courses come a page at a time: one page, and the cursor for the next (null after the last)
+export const getPage = async (url, params = {}) => {
+    const res = await api.get(url, { params });
+    return { items: res.data || [], nextCursor: res.headers['x-next-cursor'] || null };
+};
+
 export default api;
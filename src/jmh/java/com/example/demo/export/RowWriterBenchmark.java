@@ -0,0 +1,76 @@
+package com.example.demo.export;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to write a roster of 10k, 100k and 1M rows as CSV and XLSX into a
+ * sink that only counts bytes, with the same columns the roster export
+ * writes. The heap is capped well below what a buffered 1M-row file would
+ * need, so a writer that starts holding rows fails here rather than in
+ * production; -prof gc shows the allocation per row.
+ *
+ * <pre>mvn -Pjmh test-compile exec:exec -Djmh.args="RowWriterBenchmark -prof gc"</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx64m")
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class RowWriterBenchmark {
+
+    private static final Object[] HEADER = { "Enrollment ID", "Student ID", "Student Name", "Student Email",
+            "Village", "Student Class", "Course ID", "Course Title", "Course Class", "Category", "Enrolled On",
+            "Last Updated", "Progress %", "Status" };
+
+    @Param({ "10000", "100000", "1000000" })
+    public int rows;
+
+    @Param({ "csv", "xlsx" })
+    public String format;
+
+    @Benchmark
+    public long write() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        RowWriter writer = "xlsx".equals(format) ? new XlsxRowWriter(out, "Roster") : new CsvRowWriter(out);
+        writer.writeRow(HEADER);
+        LocalDateTime enrolled = LocalDateTime.of(2024, 6, 1, 9, 30);
+        for (int i = 0; i < rows; i++) {
+            long studentId = 100_000L + i;
+            writer.writeRow((long) i, studentId, "Student " + studentId, "student" + studentId + "@example.com",
+                    "Village " + (i % 300), "Class " + (6 + i % 5), (long) (i % 40), "Course " + (i % 40),
+                    "Class " + (6 + i % 5), "Mathematics", enrolled, enrolled.plusDays(i % 90),
+                    (double) (i % 101), i % 7 == 0 ? "COMPLETED" : "ENROLLED");
+        }
+        writer.finish();
+        return out.count;
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
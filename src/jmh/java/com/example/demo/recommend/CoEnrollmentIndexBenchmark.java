@@ -0,0 +1,101 @@
+package com.example.demo.recommend;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full rebuild of the co-enrollment index and the top-k lookup behind
+ * "students who took this also took", on a synthetic catalog where course
+ * popularity falls off like a power law (a few courses every class takes,
+ * a long tail of electives).
+ *
+ * <pre>mvn -Pjmh test-compile exec:exec -Djmh.args="CoEnrollmentIndexBenchmark -prof gc"</pre>
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class CoEnrollmentIndexBenchmark {
+
+    @Param({ "10000", "100000", "1000000" })
+    public int students;
+
+    @Param({ "2000" })
+    public int courses;
+
+    @Param({ "8" })
+    public int coursesPerStudent;
+
+    @Param({ "6" })
+    public int k;
+
+    private long[] studentIds;
+    private long[] courseIds;
+    private CoEnrollmentIndex index;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        Random random = new Random(42);
+        // Cumulative weights 1/rank: course 1 is twice as popular as course 2, and so on
+        double[] cumulative = new double[courses];
+        double total = 0;
+        for (int c = 0; c < courses; c++) {
+            total += 1.0 / (c + 1);
+            cumulative[c] = total;
+        }
+        int pairs = students * coursesPerStudent;
+        studentIds = new long[pairs];
+        courseIds = new long[pairs];
+        for (int i = 0; i < pairs; i++) {
+            studentIds[i] = i / coursesPerStudent + 1;
+            courseIds[i] = pick(cumulative, random.nextDouble() * total) + 1;
+        }
+        index = CoEnrollmentIndex.build(studentIds, courseIds, ForkJoinPool.commonPool());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public CoEnrollmentIndex build() {
+        return CoEnrollmentIndex.build(studentIds, courseIds, ForkJoinPool.commonPool());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long[] topK() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long courseId = random.nextInt(courses) + 1;
+        long studentId = random.nextInt(students) + 1;
+        return index.topK(courseId, k, studentId);
+    }
+
+    private static int pick(double[] cumulative, double target) {
+        int low = 0;
+        int high = cumulative.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (cumulative[middle] < target) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.demo.search;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query latency of the search index at 10k and 100k documents, sampled so
+ * the report has percentiles: the target is p0.99 under 5 ms at 100k. Words
+ * follow a power law like real titles and descriptions, and a third of the
+ * queries end in a partly typed word, which expands as a prefix.
+ *
+ * <pre>mvn -Pjmh test-compile exec:exec -Djmh.args="InvertedIndexBenchmark -prof gc"</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class InvertedIndexBenchmark {
+
+    private static final int QUERIES = 4096;
+
+    @Param({ "10000", "100000" })
+    public int documents;
+
+    @Param({ "20000" })
+    public int vocabulary;
+
+    @Param({ "30" })
+    public int termsPerDocument;
+
+    @Param({ "20" })
+    public int limit;
+
+    private InvertedIndex index;
+    private List<List<String>> queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        Random random = new Random(42);
+        String[] words = new String[vocabulary];
+        for (int i = 0; i < vocabulary; i++) {
+            words[i] = word(random, 4 + random.nextInt(6));
+        }
+        // Cumulative weights 1/rank: word 1 is twice as common as word 2, and so on
+        double[] cumulative = new double[vocabulary];
+        double total = 0;
+        for (int i = 0; i < vocabulary; i++) {
+            total += 1.0 / (i + 1);
+            cumulative[i] = total;
+        }
+
+        index = new InvertedIndex();
+        for (int d = 0; d < documents; d++) {
+            Map<String, Integer> frequencies = new HashMap<>();
+            for (int t = 0; t < termsPerDocument; t++) {
+                frequencies.merge(words[pick(cumulative, random.nextDouble() * total)], 1 + random.nextInt(3),
+                        Integer::sum);
+            }
+            index.add(frequencies);
+        }
+
+        queries = new ArrayList<>(QUERIES);
+        for (int q = 0; q < QUERIES; q++) {
+            int length = 1 + random.nextInt(3);
+            List<String> terms = new ArrayList<>(length);
+            for (int t = 0; t < length; t++) {
+                terms.add(words[pick(cumulative, random.nextDouble() * total)]);
+            }
+            if (q % 3 == 0) {
+                String last = terms.get(length - 1);
+                terms.set(length - 1, last.substring(0, Math.min(last.length(), 3 + random.nextInt(3))));
+            }
+            queries.add(terms);
+        }
+    }
+
+    @Benchmark
+    public List<InvertedIndex.Hit> search() {
+        List<String> terms = queries.get(next++ & (QUERIES - 1));
+        return index.search(terms, limit, docId -> true);
+    }
+
+    private static String word(Random random, int length) {
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(26)));
+        }
+        return word.toString();
+    }
+
+    private static int pick(double[] cumulative, double target) {
+        int low = 0;
+        int high = cumulative.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (cumulative[middle] < target) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
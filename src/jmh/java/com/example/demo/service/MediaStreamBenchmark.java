@@ -0,0 +1,155 @@
+package com.example.demo.service;
+
+import com.example.demo.storage.FileSystemContentStore;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.catalina.Context;
+import org.apache.catalina.startup.Tomcat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 50 clients seeking through one video with Range requests, served either by
+ * Spring's static resource handler (what /uploads/** used before) or by
+ * {@link MediaStreamService}, both in the same embedded Tomcat. Client work
+ * is identical in both cases, so the difference in "gc.alloc.rate.norm" under
+ * -prof gc is the server's heap churn per request.
+ *
+ * <pre>mvn -Pjmh test-compile exec:exec -Djmh.args="MediaStreamBenchmark -prof gc"</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(50)
+@Fork(value = 1, jvmArgsAppend = "-Xmx512m")
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+public class MediaStreamBenchmark {
+
+    private static final String FILE_NAME = "video.mp4";
+
+    @Param({ "static", "stream" })
+    public String handler;
+
+    @Param({ "300" })
+    public int fileMegabytes;
+
+    @Param({ "262144" })
+    public int rangeBytes;
+
+    private Path root;
+    private Tomcat tomcat;
+    private HttpClient client;
+    private URI uri;
+    private long fileSize;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        root = Files.createTempDirectory("media-bench");
+        fileSize = (long) fileMegabytes * 1024 * 1024;
+        byte[] block = new byte[1024 * 1024];
+        try (OutputStream out = Files.newOutputStream(root.resolve(FILE_NAME))) {
+            for (int i = 0; i < fileMegabytes; i++) {
+                ThreadLocalRandom.current().nextBytes(block);
+                out.write(block);
+            }
+        }
+
+        tomcat = new Tomcat();
+        tomcat.setBaseDir(root.resolve("tomcat").toString());
+        tomcat.setPort(0);
+        Context context = tomcat.addContext("", null);
+        Tomcat.addServlet(context, "media", "static".equals(handler) ? staticServlet() : streamServlet());
+        context.addServletMappingDecoded("/*", "media");
+        tomcat.getConnector();
+        tomcat.start();
+
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        uri = URI.create("http://localhost:" + tomcat.getConnector().getLocalPort() + "/" + FILE_NAME);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws Exception {
+        tomcat.stop();
+        tomcat.destroy();
+        try (Stream<Path> files = Files.walk(root)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public long seek() throws Exception {
+        long start = ThreadLocalRandom.current().nextLong(fileSize - rangeBytes);
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("Range", "bytes=" + start + "-" + (start + rangeBytes - 1))
+                .build();
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 206) {
+            throw new IllegalStateException("Expected 206, got " + response.statusCode());
+        }
+        return start;
+    }
+
+    private HttpServlet staticServlet() throws Exception {
+        ResourceHttpRequestHandler resources = new ResourceHttpRequestHandler();
+        resources.setLocations(List.of(new FileSystemResource(root.toString() + "/")));
+        resources.afterPropertiesSet();
+        return new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE,
+                        request.getRequestURI().substring(1));
+                try {
+                    resources.handleRequest(request, response);
+                } catch (ServletException e) {
+                    throw new IOException(e);
+                }
+            }
+        };
+    }
+
+    private HttpServlet streamServlet() {
+        MediaStreamService streams = new MediaStreamService(new FileSystemContentStore(root));
+        MediaType videoType = MediaType.parseMediaType("video/mp4");
+        return new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                streams.serve(request.getRequestURI().substring(1), videoType, request, response);
+            }
+        };
+    }
+}
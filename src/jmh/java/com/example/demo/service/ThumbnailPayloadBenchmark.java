@@ -0,0 +1,137 @@
+package com.example.demo.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What the course list costs on the wire for a catalog of 200 courses: one
+ * original upload per card before, one derivative (or just the inline
+ * placeholder) now. The byte counts are printed once at setup; the benchmark
+ * itself times one derivative job, three sizes plus the placeholder, per
+ * original. Originals are synthetic 8 MP camera-like JPEGs; 20 distinct
+ * photos are each shared by 10 courses.
+ *
+ * <pre>mvn -Pjmh test-compile exec:exec -Djmh.args="ThumbnailPayloadBenchmark -prof gc"</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx1g", "-Djava.awt.headless=true" })
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+public class ThumbnailPayloadBenchmark {
+
+    private static final int COURSES = 200;
+    private static final int DISTINCT_PHOTOS = 20;
+    private static final int CAMERA_WIDTH = 3264;
+    private static final int CAMERA_HEIGHT = 2448;
+
+    private final ThumbnailService thumbnails = new ThumbnailService(null, null, null, null);
+    private byte[][] originals;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        Random random = new Random(42);
+        originals = new byte[DISTINCT_PHOTOS][];
+        long original = 0;
+        long small = 0;
+        long medium = 0;
+        long large = 0;
+        long placeholders = 0;
+        int largestPlaceholder = 0;
+        for (int i = 0; i < DISTINCT_PHOTOS; i++) {
+            ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+            ImageIO.write(cameraImage(random), "jpg", encoded);
+            originals[i] = encoded.toByteArray();
+            original += originals[i].length;
+
+            BufferedImage source = decode(originals[i]);
+            small += thumbnails.encodeJpeg(thumbnails.scaleToWidth(source, ThumbnailService.SMALL_WIDTH)).length;
+            medium += thumbnails.encodeJpeg(thumbnails.scaleToWidth(source, ThumbnailService.MEDIUM_WIDTH)).length;
+            large += thumbnails.encodeJpeg(thumbnails.scaleToWidth(source, ThumbnailService.LARGE_WIDTH)).length;
+            int placeholder = thumbnails.placeholder(source).length();
+            placeholders += placeholder;
+            largestPlaceholder = Math.max(largestPlaceholder, placeholder);
+        }
+        int share = COURSES / DISTINCT_PHOTOS;
+        original *= share;
+        small *= share;
+        medium *= share;
+        large *= share;
+        placeholders *= share;
+
+        System.out.printf("%nCatalog of %d courses, thumbnail bytes per list view:%n", COURSES);
+        System.out.printf("  originals     %,12d%n", original);
+        System.out.printf("  lg (640px)    %,12d  %5.2f%%%n", large, 100.0 * large / original);
+        System.out.printf("  md (320px)    %,12d  %5.2f%%%n", medium, 100.0 * medium / original);
+        System.out.printf("  sm (160px)    %,12d  %5.2f%%%n", small, 100.0 * small / original);
+        System.out.printf("  placeholders  %,12d  %5.2f%% (inline in the JSON, largest %d)%n", placeholders,
+                100.0 * placeholders / original, largestPlaceholder);
+    }
+
+    @Benchmark
+    public String derivatives() throws IOException {
+        BufferedImage source = decode(originals[next++ % DISTINCT_PHOTOS]);
+        for (int width : new int[] { ThumbnailService.SMALL_WIDTH, ThumbnailService.MEDIUM_WIDTH,
+                ThumbnailService.LARGE_WIDTH }) {
+            thumbnails.encodeJpeg(thumbnails.scaleToWidth(source, width));
+        }
+        return thumbnails.placeholder(source);
+    }
+
+    private BufferedImage decode(byte[] original) throws IOException {
+        return thumbnails.decode(new ByteArrayInputStream(original), ThumbnailService.LARGE_WIDTH * 2);
+    }
+
+    // Smooth gradient, a few shapes and sensor-like noise: compresses about as badly as a phone photo
+    private static BufferedImage cameraImage(Random random) {
+        BufferedImage image = new BufferedImage(CAMERA_WIDTH, CAMERA_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setPaint(new GradientPaint(0, 0, new Color(random.nextInt()), CAMERA_WIDTH, CAMERA_HEIGHT,
+                    new Color(random.nextInt())));
+            g.fillRect(0, 0, CAMERA_WIDTH, CAMERA_HEIGHT);
+            for (int i = 0; i < 12; i++) {
+                g.setColor(new Color(random.nextInt()));
+                g.fillOval(random.nextInt(CAMERA_WIDTH), random.nextInt(CAMERA_HEIGHT), 200 + random.nextInt(1200),
+                        200 + random.nextInt(1200));
+            }
+        } finally {
+            g.dispose();
+        }
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        for (int i = 0; i < pixels.length; i++) {
+            int noise = random.nextInt(17) - 8;
+            int rgb = pixels[i];
+            pixels[i] = (clamp(((rgb >> 16) & 0xFF) + noise) << 16) | (clamp(((rgb >> 8) & 0xFF) + noise) << 8)
+                    | clamp((rgb & 0xFF) + noise);
+        }
+        return image;
+    }
+
+    private static int clamp(int value) {
+        return Math.max(0, Math.min(255, value));
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.demo.cache;
+
+/**
+ * Carries cache invalidations to every app node. A null key means the whole
+ * cache, a null cache every cache. Delivery to the publishing node itself is allowed; listeners must
+ * treat invalidations as idempotent.
+ */
+public interface CacheInvalidationBus {
+
+    void publish(String cache, String key);
+
+    void subscribe(Listener listener);
+
+    @FunctionalInterface
+    interface Listener {
+        void invalidate(String cache, String key);
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.demo.cache;
+
+import com.example.demo.model.CacheInvalidation;
+import com.example.demo.repository.CacheInvalidationRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Shares invalidations between nodes through the cache_invalidations table:
+ * publishing inserts a row, and every node polls for rows written by the
+ * others. Remote caches are therefore stale for at most one poll interval.
+ * Rows are kept for a few minutes, long enough for a node that missed some
+ * polls to catch up.
+ */
+public class DatabaseCacheInvalidationBus implements CacheInvalidationBus {
+
+    // Concurrent inserts can become visible out of id order, so each poll looks a little way back
+    private static final long ID_OVERLAP = 64;
+    private static final int MAX_REMEMBERED_IDS = 4096;
+    private static final int RETENTION_MINUTES = 10;
+    private static final int POLLS_BETWEEN_PRUNES = 60;
+
+    private final CacheInvalidationRepository cacheInvalidationRepository;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final Set<Long> delivered = new LinkedHashSet<>();
+    private Long lastSeenId;
+    private int polls;
+
+    public DatabaseCacheInvalidationBus(CacheInvalidationRepository cacheInvalidationRepository) {
+        this.cacheInvalidationRepository = cacheInvalidationRepository;
+    }
+
+    // Publishing happens after the caller's transaction commits, so it needs one of its own
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void publish(String cache, String key) {
+        CacheInvalidation invalidation = new CacheInvalidation();
+        invalidation.setNodeId(nodeId);
+        invalidation.setCacheName(cache != null ? cache : "*");
+        invalidation.setCacheKey(key);
+        cacheInvalidationRepository.save(invalidation);
+    }
+
+    @Override
+    public void subscribe(Listener listener) {
+        listeners.add(listener);
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.cache.invalidation.poll-interval-ms:1000}")
+    public synchronized void poll() {
+        try {
+            if (lastSeenId == null) {
+                lastSeenId = cacheInvalidationRepository.findMaxId();
+                // Whatever was cached before the first poll may have missed invalidations
+                deliver(null, null);
+                return;
+            }
+            for (CacheInvalidation invalidation : cacheInvalidationRepository
+                    .findByIdGreaterThanOrderByIdAsc(Math.max(0, lastSeenId - ID_OVERLAP))) {
+                lastSeenId = Math.max(lastSeenId, invalidation.getId());
+                if (!delivered.add(invalidation.getId()) || nodeId.equals(invalidation.getNodeId())) {
+                    continue; // Own invalidations were applied locally when published
+                }
+                deliver("*".equals(invalidation.getCacheName()) ? null : invalidation.getCacheName(),
+                        invalidation.getCacheKey());
+            }
+            trimDelivered();
+            if (++polls % POLLS_BETWEEN_PRUNES == 0) {
+                cacheInvalidationRepository.deleteOlderThan(LocalDateTime.now().minusMinutes(RETENTION_MINUTES));
+            }
+        } catch (RuntimeException e) {
+            System.out.println("DEBUG_CACHE: Invalidation poll failed: " + e.getMessage());
+        }
+    }
+
+    private void deliver(String cache, String key) {
+        for (Listener listener : listeners) {
+            listener.invalidate(cache, key);
+        }
+    }
+
+    private void trimDelivered() {
+        Iterator<Long> oldest = delivered.iterator();
+        while (delivered.size() > MAX_REMEMBERED_IDS && oldest.hasNext()) {
+            oldest.next();
+            oldest.remove();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.demo.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Delivers invalidations synchronously to subscribers in this JVM. Enough for
+ * a single node, and handing one instance to several caches lets tests stand
+ * in for a multi-node deployment.
+ */
+public class LocalCacheInvalidationBus implements CacheInvalidationBus {
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(String cache, String key) {
+        for (Listener listener : listeners) {
+            listener.invalidate(cache, key);
+        }
+    }
+
+    @Override
+    public void subscribe(Listener listener) {
+        listeners.add(listener);
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.demo.config;
+
+import com.example.demo.cache.CacheInvalidationBus;
+import com.example.demo.cache.DatabaseCacheInvalidationBus;
+import com.example.demo.cache.LocalCacheInvalidationBus;
+import com.example.demo.repository.CacheInvalidationRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class CatalogCacheConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "catalog.cache.invalidation", havingValue = "database", matchIfMissing = true)
+    public CacheInvalidationBus databaseCacheInvalidationBus(CacheInvalidationRepository cacheInvalidationRepository) {
+        return new DatabaseCacheInvalidationBus(cacheInvalidationRepository);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "catalog.cache.invalidation", havingValue = "local")
+    public CacheInvalidationBus localCacheInvalidationBus() {
+        return new LocalCacheInvalidationBus();
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.demo.config;
+
+import com.example.demo.storage.ContentStore;
+import com.example.demo.storage.FileSystemContentStore;
+import com.example.demo.storage.InMemoryContentStore;
+import com.example.demo.storage.S3ContentStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Paths;
+
+@Configuration
+public class ContentStoreConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "media.store.type", havingValue = "filesystem", matchIfMissing = true)
+    public ContentStore fileSystemContentStore(@Value("${media.store.root:uploads}") String root) {
+        return new FileSystemContentStore(Paths.get(root));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "media.store.type", havingValue = "memory")
+    public ContentStore inMemoryContentStore() {
+        return new InMemoryContentStore();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "media.store.type", havingValue = "s3")
+    public ContentStore s3ContentStore(@Value("${media.store.s3.endpoint}") String endpoint,
+            @Value("${media.store.s3.bucket}") String bucket,
+            @Value("${media.store.s3.region:us-east-1}") String region,
+            @Value("${media.store.s3.access-key}") String accessKey,
+            @Value("${media.store.s3.secret-key}") String secretKey) {
+        return new S3ContentStore(endpoint, bucket, region, accessKey, secretKey);
+    }
+}
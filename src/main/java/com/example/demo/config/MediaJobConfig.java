@@ -0,0 +1,26 @@
+package com.example.demo.config;
+
+import com.example.demo.media.FakeTranscoder;
+import com.example.demo.media.NoOpTranscoder;
+import com.example.demo.media.Transcoder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+public class MediaJobConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "media.transcoder", havingValue = "none", matchIfMissing = true)
+    public Transcoder noOpTranscoder() {
+        return new NoOpTranscoder();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "media.transcoder", havingValue = "fake")
+    public Transcoder fakeTranscoder() {
+        return new FakeTranscoder();
+    }
+}
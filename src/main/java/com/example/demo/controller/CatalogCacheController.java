@@ -0,0 +1,27 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.CatalogCache;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/cache")
+@Tag(name = "Catalog Cache", description = "Statistics of the course catalog cache")
+@RequiredArgsConstructor
+public class CatalogCacheController {
+
+    private final CatalogCache catalogCache;
+
+    @GetMapping("/stats")
+    @Operation(summary = "Get hit, miss and eviction counts of this node's catalog caches")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(catalogCache.stats());
+    }
+}
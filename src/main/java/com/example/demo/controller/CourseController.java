@@ -1,16 +1,44 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.CourseDetailDto;
+import com.example.demo.dto.CourseFacetsDto;
+import com.example.demo.dto.CourseResponseDto;
+import com.example.demo.dto.CursorPage;
+import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.media.StoredZip;
 import com.example.demo.model.Course;
+import com.example.demo.model.EnrollmentJob;
+import com.example.demo.model.Video;
+import com.example.demo.service.BulkEnrollmentService;
+import com.example.demo.service.CourseDetailService;
+import com.example.demo.service.CourseFacetService;
+import com.example.demo.service.CourseRankingService;
+import com.example.demo.service.CourseRecommendationService;
+import com.example.demo.service.CoursePackageService;
 import com.example.demo.service.CourseService;
+import com.example.demo.service.CourseSyncService;
+import com.example.demo.service.MediaStreamService;
+import com.example.demo.service.ThumbnailService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/courses")
@@ -19,6 +47,20 @@ import java.util.List;
 public class CourseController {
 
     private final CourseService courseService;
+    private final ThumbnailService thumbnailService;
+    private final MediaStreamService mediaStreamService;
+    private final CoursePackageService coursePackageService;
+    private final CourseSyncService courseSyncService;
+    private final CourseDetailService courseDetailService;
+    private final CourseFacetService courseFacetService;
+    private final CourseRankingService courseRankingService;
+    private final CourseRecommendationService courseRecommendationService;
+    private final BulkEnrollmentService bulkEnrollmentService;
+    private final AsyncTaskExecutor downloadExecutor;
+
+    // Offline packages are streamed asynchronously and can take hours on slow links
+    @Value("${course.package.download-timeout-ms:21600000}")
+    private long packageDownloadTimeoutMs;
 
     @PostMapping(value = "/create-with-videos", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @Operation(summary = "Create a course with thumbnail and videos")
@@ -39,10 +81,39 @@ public class CourseController {
     }
 
     @GetMapping
-    @Operation(summary = "Get all courses")
-    public ResponseEntity<List<Course>> getAllCourses() {
-        List<Course> courses = courseService.getAllCourses();
-        return ResponseEntity.ok(courses);
+    @Operation(summary = "Get courses, newest first, a page at a time (next page cursor in X-Next-Cursor)")
+    public ResponseEntity<List<CourseResponseDto>> getAllCourses(
+            @RequestParam(value = "classLevel", required = false) String classLevel,
+            @RequestParam(value = "category", required = false) String category,
+            @RequestParam(value = "status", required = false) String status,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        return pageResponse(courseService.getCourses(classLevel, category, status, cursor, limit));
+    }
+
+    @GetMapping("/facets")
+    @Operation(summary = "Get course counts per class level, category and status for the catalog filters")
+    public ResponseEntity<CourseFacetsDto> getFacets(
+            @RequestParam(value = "classLevel", required = false) String classLevel,
+            @RequestParam(value = "category", required = false) String category,
+            @RequestParam(value = "status", required = false) String status) {
+        return ResponseEntity.ok(courseFacetService.getFacets(classLevel, category, status));
+    }
+
+    @GetMapping("/popular")
+    @Operation(summary = "Get the most popular published courses, optionally within a class level")
+    public ResponseEntity<List<CourseResponseDto>> getPopularCourses(
+            @RequestParam(value = "classLevel", required = false) String classLevel,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        return ResponseEntity.ok(courseRankingService.getPopular(classLevel, limit));
+    }
+
+    @GetMapping("/trending")
+    @Operation(summary = "Get published courses trending this week, optionally within a class level")
+    public ResponseEntity<List<CourseResponseDto>> getTrendingCourses(
+            @RequestParam(value = "classLevel", required = false) String classLevel,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        return ResponseEntity.ok(courseRankingService.getTrending(classLevel, limit));
     }
 
     @GetMapping("/{courseId}")
@@ -53,6 +124,124 @@ public class CourseController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/{courseId}/detail")
+    @Operation(summary = "Get a course with its lessons, videos, instructor, enrollment count and the student's own enrollment")
+    public ResponseEntity<CourseDetailDto> getCourseDetail(@PathVariable("courseId") Long courseId,
+            @RequestParam(value = "studentId", required = false) Long studentId) {
+        return ResponseEntity.ok(courseDetailService.getCourseDetail(courseId, studentId));
+    }
+
+    @GetMapping("/{courseId}/recommendations")
+    @Operation(summary = "Get published courses that students of this course also took")
+    public ResponseEntity<List<CourseResponseDto>> getRecommendations(@PathVariable("courseId") Long courseId,
+            @RequestParam(value = "studentId", required = false) Long studentId,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        return ResponseEntity.ok(courseRecommendationService.getRecommendations(courseId, studentId, limit));
+    }
+
+    @GetMapping("/{courseId}/auto-enrollment")
+    @Operation(summary = "Get the progress of the latest class auto-enrollment job for a course")
+    public ResponseEntity<EnrollmentJob> getAutoEnrollment(@PathVariable("courseId") Long courseId) {
+        return ResponseEntity.ok(bulkEnrollmentService.getLatestJob(courseId)
+                .orElseThrow(() -> new ResourceNotFoundException("No auto-enrollment job for course " + courseId)));
+    }
+
+    @GetMapping("/{courseId}/thumbnail")
+    @Operation(summary = "Get the course thumbnail at a given size (sm, md, lg or original)")
+    public void getThumbnail(@PathVariable("courseId") Long courseId,
+            @RequestParam(value = "size", defaultValue = "md") String size,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Course course = courseService.getCourseById(courseId)
+                .orElseThrow(() -> new ResourceNotFoundException("Course not found with id " + courseId));
+        String path = thumbnailService.pathForSize(course, size);
+        if (path == null) {
+            throw new ResourceNotFoundException("Course " + courseId + " has no thumbnail");
+        }
+        mediaStreamService.serve(mediaStreamService.keyFor(path), mediaStreamService.contentTypeFor(path),
+                request, response);
+    }
+
+    @GetMapping("/{courseId}/videos")
+    @Operation(summary = "Get a course's videos with their processing status")
+    public ResponseEntity<List<Video>> getCourseVideos(@PathVariable("courseId") Long courseId) {
+        return ResponseEntity.ok(courseService.getCourseVideos(courseId));
+    }
+
+    @GetMapping("/{courseId}/package")
+    @Operation(summary = "Download the course as a ZIP package for offline study (supports Range)")
+    public WebAsyncTask<Void> downloadPackage(@PathVariable("courseId") Long courseId,
+            @RequestHeader HttpHeaders requestHeaders, HttpServletResponse response) {
+        CoursePackageService.CoursePackage coursePackage = coursePackageService.build(courseId);
+        StoredZip zip = coursePackage.getZip();
+        long length = zip.length();
+        String etag = coursePackage.getEtag();
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, MediaStreamService.CACHE_REVALIDATE);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (requestHeaders.getIfNoneMatch().contains(etag)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return null;
+        }
+
+        long start = 0;
+        long end = length - 1;
+        HttpStatus status = HttpStatus.OK;
+        String ifRange = requestHeaders.getFirst(HttpHeaders.IF_RANGE);
+        if (requestHeaders.containsKey(HttpHeaders.RANGE) && (ifRange == null || ifRange.equals(etag))) {
+            List<HttpRange> ranges;
+            try {
+                ranges = requestHeaders.getRange();
+            } catch (IllegalArgumentException e) {
+                ranges = List.of(); // Malformed header, send the whole package
+            }
+            // Resuming clients ask for one range; anything else gets the whole package
+            if (ranges.size() == 1) {
+                try {
+                    start = ranges.get(0).getRangeStart(length);
+                    end = ranges.get(0).getRangeEnd(length);
+                } catch (IllegalArgumentException e) {
+                    response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    return null;
+                }
+                status = HttpStatus.PARTIAL_CONTENT;
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        response.setStatus(status.value());
+        response.setContentType("application/zip");
+        response.setContentLengthLong(end - start + 1);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(coursePackage.getFileName()).build().toString());
+        long from = start;
+        long to = end;
+        // Only this download gets the long timeout; other async responses keep the default
+        return new WebAsyncTask<>(packageDownloadTimeoutMs, downloadExecutor, () -> {
+            zip.write(response.getOutputStream(), from, to);
+            return null;
+        });
+    }
+
+    @GetMapping("/{courseId}/package/manifest")
+    @Operation(summary = "Get the file list and checksums of a course's offline package")
+    public ResponseEntity<Map<String, Object>> getPackageManifest(@PathVariable("courseId") Long courseId) {
+        CoursePackageService.CoursePackage coursePackage = coursePackageService.build(courseId);
+        return ResponseEntity.ok().eTag(coursePackage.getEtag()).body(coursePackage.getManifest());
+    }
+
+    @GetMapping("/{courseId}/sync/manifest")
+    @Operation(summary = "Get block hashes of a course's offline package for delta sync")
+    public ResponseEntity<Map<String, Object>> getSyncManifest(@PathVariable("courseId") Long courseId,
+            @RequestHeader HttpHeaders requestHeaders) {
+        CourseSyncService.SyncManifest syncManifest = courseSyncService.manifest(courseId);
+        if (requestHeaders.getIfNoneMatch().contains(syncManifest.getEtag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(syncManifest.getEtag()).build();
+        }
+        return ResponseEntity.ok().eTag(syncManifest.getEtag()).body(syncManifest.getManifest());
+    }
+
     @PutMapping("/{courseId}/update")
     @Operation(summary = "Update course details")
     public ResponseEntity<Course> updateCourse(@PathVariable("courseId") Long courseId,
@@ -78,12 +267,26 @@ public class CourseController {
 
     @GetMapping("/instructor/{instructorId}")
     @Operation(summary = "Get courses by instructor ID")
-    public ResponseEntity<List<Course>> getCoursesByInstructor(@PathVariable("instructorId") Long instructorId) {
+    public ResponseEntity<List<CourseResponseDto>> getCoursesByInstructor(@PathVariable("instructorId") Long instructorId,
+            @RequestParam(value = "classLevel", required = false) String classLevel,
+            @RequestParam(value = "category", required = false) String category,
+            @RequestParam(value = "status", required = false) String status,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit) {
         System.out.println("DEBUG_COURSE: Fetching courses for instructor ID: " + instructorId);
         System.out.flush();
-        List<Course> courses = courseService.getCoursesByInstructor(instructorId);
-        System.out.println("DEBUG_COURSE: Found " + courses.size() + " courses for ID: " + instructorId);
+        CursorPage<CourseResponseDto> page = courseService.getCoursesByInstructor(instructorId, classLevel, category, status,
+                cursor, limit);
+        System.out.println("DEBUG_COURSE: Found " + page.getItems().size() + " courses for ID: " + instructorId);
         System.out.flush();
-        return ResponseEntity.ok(courses);
+        return pageResponse(page);
+    }
+
+    private ResponseEntity<List<CourseResponseDto>> pageResponse(CursorPage<CourseResponseDto> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(CursorPage.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
     }
 }
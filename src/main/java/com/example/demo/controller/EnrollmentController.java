@@ -1,7 +1,13 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.CursorPage;
+import com.example.demo.dto.EnrollmentResult;
+import com.example.demo.dto.EnrollmentSummaryDto;
+import com.example.demo.dto.ProgressHeartbeatDto;
 import com.example.demo.model.Enrollment;
 import com.example.demo.service.EnrollmentService;
+import com.example.demo.service.LessonProgressService;
+import com.example.demo.service.ProgressHeartbeatService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.Data;
@@ -11,6 +17,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/enrollments")
@@ -19,24 +26,46 @@ import java.util.List;
 public class EnrollmentController {
 
     private final EnrollmentService enrollmentService;
+    private final ProgressHeartbeatService progressHeartbeatService;
+    private final LessonProgressService lessonProgressService;
 
     @PostMapping("/enroll")
-    @Operation(summary = "Enroll student to a course")
+    @Operation(summary = "Enroll student to a course (201 when enrolled now, 200 when already enrolled; "
+            + "a dropped enrollment is reactivated with its progress kept and answers 200)")
     public ResponseEntity<Enrollment> enrollStudent(@RequestBody EnrollmentRequest request) {
-        Enrollment enrollment = enrollmentService.enrollStudent(request.getStudentId(), request.getCourseId());
-        return new ResponseEntity<>(enrollment, HttpStatus.CREATED);
+        EnrollmentResult result = enrollmentService.enrollStudent(request.getStudentId(), request.getCourseId());
+        return new ResponseEntity<>(result.getEnrollment(), result.isCreated() ? HttpStatus.CREATED : HttpStatus.OK);
     }
 
     @PutMapping("/{enrollmentId}/progress")
-    @Operation(summary = "Update progress percentage")
+    @Operation(summary = "Update progress percentage (courses without lessons only; 409 for courses with lessons)")
     public ResponseEntity<Enrollment> updateProgress(@PathVariable("enrollmentId") Long enrollmentId,
             @RequestBody Double progress) {
         Enrollment enrollment = enrollmentService.updateProgress(enrollmentId, progress);
         return ResponseEntity.ok(enrollment);
     }
 
+    @PostMapping("/heartbeats")
+    @Operation(summary = "Report player progress for one or more enrollments; written to the database within seconds")
+    public ResponseEntity<Map<String, Integer>> reportHeartbeats(@RequestBody List<ProgressHeartbeatDto> heartbeats) {
+        return ResponseEntity.accepted().body(Map.of("accepted", progressHeartbeatService.accept(heartbeats)));
+    }
+
+    @PutMapping("/{enrollmentId}/lessons/{lessonId}/complete")
+    @Operation(summary = "Mark a lesson as completed; course progress follows from the lessons completed")
+    public ResponseEntity<Enrollment> completeLesson(@PathVariable("enrollmentId") Long enrollmentId,
+            @PathVariable("lessonId") Long lessonId) {
+        return ResponseEntity.ok(lessonProgressService.completeLesson(enrollmentId, lessonId));
+    }
+
+    @GetMapping("/{enrollmentId}/lessons")
+    @Operation(summary = "Get the ids of the lessons completed in an enrollment")
+    public ResponseEntity<List<Long>> getCompletedLessons(@PathVariable("enrollmentId") Long enrollmentId) {
+        return ResponseEntity.ok(lessonProgressService.getCompletedLessonIds(enrollmentId));
+    }
+
     @PutMapping("/{enrollmentId}/complete")
-    @Operation(summary = "Mark course as COMPLETED")
+    @Operation(summary = "Mark course as COMPLETED (409 while lessons of the course remain uncompleted)")
     public ResponseEntity<Enrollment> completeCourse(@PathVariable("enrollmentId") Long enrollmentId) {
         Enrollment enrollment = enrollmentService.completeCourse(enrollmentId);
         return ResponseEntity.ok(enrollment);
@@ -50,20 +79,27 @@ public class EnrollmentController {
     }
 
     @GetMapping
-    @Operation(summary = "Get all enrollments")
-    public ResponseEntity<List<Enrollment>> getAllEnrollments() {
-        return ResponseEntity.ok(enrollmentService.getAllEnrollments());
+    @Operation(summary = "Get all enrollments in id order, a page at a time (next page cursor in X-Next-Cursor)")
+    public ResponseEntity<List<EnrollmentSummaryDto>> getAllEnrollments(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        CursorPage<EnrollmentSummaryDto> page = enrollmentService.getAllEnrollments(cursor, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(CursorPage.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
     }
 
     @GetMapping({ "/student/{studentId}", "/students/{studentId}" })
     @Operation(summary = "Get all enrollments of a student")
-    public ResponseEntity<List<Enrollment>> getEnrollmentsByStudent(@PathVariable("studentId") Long studentId) {
+    public ResponseEntity<List<EnrollmentSummaryDto>> getEnrollmentsByStudent(@PathVariable("studentId") Long studentId) {
         return ResponseEntity.ok(enrollmentService.getStudentEnrollments(studentId));
     }
 
     @GetMapping("/courses/{courseId}")
     @Operation(summary = "Get all enrollments for a course")
-    public ResponseEntity<List<Enrollment>> getEnrollmentsByCourse(@PathVariable("courseId") Long courseId) {
+    public ResponseEntity<List<EnrollmentSummaryDto>> getEnrollmentsByCourse(@PathVariable("courseId") Long courseId) {
         return ResponseEntity.ok(enrollmentService.getCourseEnrollments(courseId));
     }
 
@@ -1,18 +1,25 @@
 package com.example.demo.controller;
 
-import com.example.demo.model.Course;
+import com.example.demo.dto.CourseResponseDto;
+import com.example.demo.dto.CursorPage;
+import com.example.demo.dto.EnrollmentSummaryDto;
 import com.example.demo.model.Instructor;
-import com.example.demo.model.Enrollment;
 import com.example.demo.service.InstructorService;
+import com.example.demo.service.RosterExportService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
-import com.example.demo.model.Enrollment;
 import java.util.List;
 import java.util.Map;
 
@@ -23,6 +30,11 @@ import java.util.Map;
 public class InstructorController {
 
     private final InstructorService instructorService;
+    private final RosterExportService rosterExportService;
+    private final AsyncTaskExecutor downloadExecutor;
+
+    @Value("${roster.export.timeout-ms:1800000}")
+    private long rosterExportTimeoutMs;
 
     @PostMapping("/register")
     @Operation(summary = "Register a new instructor")
@@ -92,7 +104,7 @@ public class InstructorController {
 
     @GetMapping("/{instructorId}/students")
     @Operation(summary = "Get students enrolled in instructor's courses")
-    public ResponseEntity<List<Enrollment>> getEnrolledStudents(@PathVariable("instructorId") Long instructorId) {
+    public ResponseEntity<List<EnrollmentSummaryDto>> getEnrolledStudents(@PathVariable("instructorId") Long instructorId) {
         try {
             return ResponseEntity.ok(instructorService.getEnrolledStudents(instructorId));
         } catch (RuntimeException e) {
@@ -100,12 +112,41 @@ public class InstructorController {
         }
     }
 
+    @GetMapping("/{instructorId}/students/export")
+    @Operation(summary = "Download the roster of the instructor's courses as CSV or XLSX, streamed row by row")
+    public WebAsyncTask<Void> exportEnrolledStudents(@PathVariable("instructorId") Long instructorId,
+            @RequestParam(value = "format", defaultValue = "csv") String format, HttpServletResponse response) {
+        RosterExportService.Format exportFormat = RosterExportService.Format.of(format);
+        rosterExportService.checkInstructor(instructorId);
+
+        response.setStatus(HttpStatus.OK.value());
+        response.setHeader(HttpHeaders.CONTENT_TYPE, exportFormat.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("roster-instructor-" + instructorId + "." + exportFormat.getExtension()).build().toString());
+        // Large rosters outlast the default async timeout, so the export gets its own
+        return new WebAsyncTask<>(rosterExportTimeoutMs, downloadExecutor, () -> {
+            rosterExportService.exportRoster(instructorId, exportFormat, response.getOutputStream());
+            return null;
+        });
+    }
+
     @GetMapping("/{instructorId}/courses")
     @Operation(summary = "Get courses created by instructor")
-    public ResponseEntity<List<Course>> getInstructorCourses(@PathVariable("instructorId") Long instructorId) {
+    public ResponseEntity<List<CourseResponseDto>> getInstructorCourses(@PathVariable("instructorId") Long instructorId,
+            @RequestParam(value = "classLevel", required = false) String classLevel,
+            @RequestParam(value = "category", required = false) String category,
+            @RequestParam(value = "status", required = false) String status,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit) {
         System.out.println("DEBUG_INSTRUCTOR: Fetching courses for instructorId=" + instructorId);
-        List<Course> courses = instructorService.getCoursesByInstructor(instructorId);
-        System.out.println("DEBUG_INSTRUCTOR: Found " + courses.size() + " courses for instructorId=" + instructorId);
-        return ResponseEntity.ok(courses);
+        CursorPage<CourseResponseDto> page = instructorService.getCoursesByInstructor(instructorId, classLevel, category, status,
+                cursor, limit);
+        System.out.println("DEBUG_INSTRUCTOR: Found " + page.getItems().size() + " courses for instructorId="
+                + instructorId);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(CursorPage.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
     }
 }
@@ -1,6 +1,8 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.LessonCompletionDto;
 import com.example.demo.model.Lesson;
+import com.example.demo.service.LessonProgressService;
 import com.example.demo.service.LessonService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -18,6 +20,7 @@ import java.util.List;
 public class LessonController {
 
     private final LessonService lessonService;
+    private final LessonProgressService lessonProgressService;
 
     @Operation(summary = "Get all lessons")
     @GetMapping("/lessons")
@@ -41,6 +44,12 @@ public class LessonController {
         return ResponseEntity.ok(lessons);
     }
 
+    @Operation(summary = "Get, per lesson of a course, how many enrolled students completed it")
+    @GetMapping("/courses/{courseId}/lessons/completion")
+    public ResponseEntity<List<LessonCompletionDto>> getLessonCompletion(@PathVariable("courseId") Long courseId) {
+        return ResponseEntity.ok(lessonProgressService.getCompletionHistogram(courseId));
+    }
+
     @Operation(summary = "Get a lesson by ID")
     @GetMapping("/lessons/{lessonId}")
     public ResponseEntity<Lesson> getLessonById(@PathVariable("lessonId") Long lessonId) {
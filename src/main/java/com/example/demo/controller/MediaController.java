@@ -0,0 +1,49 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.MediaFingerprintService;
+import com.example.demo.service.MediaStreamService;
+import com.example.demo.storage.ContentKeys;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+@RestController
+@Tag(name = "Media", description = "Serves uploaded thumbnails, videos and lesson files")
+@RequiredArgsConstructor
+public class MediaController {
+
+    private final MediaStreamService mediaStreamService;
+    private final MediaFingerprintService mediaFingerprintService;
+
+    @GetMapping(ContentKeys.PUBLIC_PREFIX + "**")
+    @Operation(summary = "Download an uploaded file with HTTP Range support")
+    public void serveMedia(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String publicPath = request.getRequestURI().substring(request.getContextPath().length());
+        // Path decoding: unlike form decoding, '+' stays a literal plus
+        String decoded = UriUtils.decode(publicPath, StandardCharsets.UTF_8);
+        String key = mediaStreamService.keyFor(decoded);
+        if (ContentKeys.blobHash(key) != null) {
+            // Blob URLs are content hashes, so they never change meaning
+            mediaStreamService.serve(key, mediaStreamService.contentTypeFor(key), MediaStreamService.CACHE_IMMUTABLE,
+                    request, response);
+            return;
+        }
+        Optional<String> alias = mediaFingerprintService.aliasFor(decoded);
+        if (alias.isPresent()) {
+            response.setStatus(HttpServletResponse.SC_MOVED_PERMANENTLY);
+            response.setHeader(HttpHeaders.LOCATION, request.getContextPath() + alias.get());
+            return;
+        }
+        mediaStreamService.serve(key, mediaStreamService.contentTypeFor(key), request, response);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.SearchHitDto;
+import com.example.demo.service.SearchService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/search")
+@Tag(name = "Search", description = "Full-text search over courses and lessons")
+@RequiredArgsConstructor
+public class SearchController {
+
+    private final SearchService searchService;
+
+    @GetMapping
+    @Operation(summary = "Search course titles, descriptions, categories and lesson titles, best match first")
+    public ResponseEntity<List<SearchHitDto>> search(@RequestParam("q") String query,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "status", defaultValue = "Published") String status) {
+        // status=all includes drafts, for instructors searching their own work
+        return ResponseEntity.ok(searchService.search(query, limit, "all".equalsIgnoreCase(status) ? null : status));
+    }
+}
@@ -1,7 +1,7 @@
 package com.example.demo.controller;
 
-import com.example.demo.model.Course;
-import com.example.demo.model.Enrollment;
+import com.example.demo.dto.CourseResponseDto;
+import com.example.demo.dto.EnrollmentSummaryDto;
 import com.example.demo.model.Student;
 import com.example.demo.service.EnrollmentService;
 import com.example.demo.service.StudentService;
@@ -13,7 +13,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/students")
@@ -54,13 +53,11 @@ public class StudentController {
     }
 
     @GetMapping("/{studentId}/courses")
-    @Operation(summary = "Get enrolled courses for a student (returns Course objects)")
-    public ResponseEntity<List<Course>> getEnrolledCoursesByStudent(@PathVariable("studentId") Long studentId) {
+    @Operation(summary = "Get enrolled courses for a student (course summaries)")
+    public ResponseEntity<List<CourseResponseDto>> getEnrolledCoursesByStudent(
+            @PathVariable("studentId") Long studentId) {
         System.out.println("DEBUG_STUDENT: Fetching courses for studentId=" + studentId);
-        List<Course> courses = enrollmentService.getStudentEnrollments(studentId)
-                .stream()
-                .map(Enrollment::getCourse)
-                .collect(Collectors.toList());
+        List<CourseResponseDto> courses = enrollmentService.getStudentCourses(studentId);
         System.out.println("DEBUG_STUDENT: Found " + courses.size() + " courses for studentId=" + studentId);
         return ResponseEntity.ok(courses);
     }
@@ -74,7 +71,7 @@ public class StudentController {
 
     @GetMapping("/{studentId}/enrollments")
     @Operation(summary = "Get all enrollments of a student")
-    public ResponseEntity<List<Enrollment>> getEnrollmentsByStudent(@PathVariable("studentId") Long studentId) {
+    public ResponseEntity<List<EnrollmentSummaryDto>> getEnrollmentsByStudent(@PathVariable("studentId") Long studentId) {
         return ResponseEntity.ok(enrollmentService.getStudentEnrollments(studentId));
     }
 }
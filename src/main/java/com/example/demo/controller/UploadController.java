@@ -0,0 +1,50 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.UploadSessionRequest;
+import com.example.demo.model.UploadSession;
+import com.example.demo.model.Video;
+import com.example.demo.service.UploadSessionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/uploads")
+@Tag(name = "Resumable Uploads", description = "APIs for uploading course videos in resumable chunks")
+@RequiredArgsConstructor
+public class UploadController {
+
+    private final UploadSessionService uploadSessionService;
+
+    @PostMapping
+    @Operation(summary = "Start a resumable upload session for a course video")
+    public ResponseEntity<UploadSession> createSession(@Valid @RequestBody UploadSessionRequest request) {
+        return new ResponseEntity<>(uploadSessionService.createSession(request), HttpStatus.CREATED);
+    }
+
+    @GetMapping("/{sessionId}")
+    @Operation(summary = "Get an upload session and the offset to resume from")
+    public ResponseEntity<UploadSession> getSession(@PathVariable("sessionId") String sessionId) {
+        return ResponseEntity.ok(uploadSessionService.getSession(sessionId));
+    }
+
+    @PutMapping("/{sessionId}")
+    @Operation(summary = "Append a raw chunk at the given offset")
+    public ResponseEntity<UploadSession> appendChunk(@PathVariable("sessionId") String sessionId,
+            @RequestParam("offset") long offset, HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(uploadSessionService.appendChunk(sessionId, offset, request.getInputStream()));
+    }
+
+    @PostMapping("/{sessionId}/finalize")
+    @Operation(summary = "Finish the upload and attach the file to its course as a video")
+    public ResponseEntity<Video> finalizeSession(@PathVariable("sessionId") String sessionId) {
+        return new ResponseEntity<>(uploadSessionService.finalizeSession(sessionId), HttpStatus.CREATED);
+    }
+}
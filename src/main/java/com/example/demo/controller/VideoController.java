@@ -0,0 +1,34 @@
+package com.example.demo.controller;
+
+import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.model.Video;
+import com.example.demo.repository.VideoRepository;
+import com.example.demo.service.MediaStreamService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/videos")
+@Tag(name = "Video Streaming", description = "APIs for streaming course videos")
+@RequiredArgsConstructor
+public class VideoController {
+
+    private final VideoRepository videoRepository;
+    private final MediaStreamService mediaStreamService;
+
+    @GetMapping("/{videoId}/stream")
+    @Operation(summary = "Stream a course video with HTTP Range support")
+    public void streamVideo(@PathVariable("videoId") Long videoId, HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        Video video = videoRepository.findById(videoId)
+                .orElseThrow(() -> new ResourceNotFoundException("Video not found with id: " + videoId));
+        mediaStreamService.serve(mediaStreamService.keyFor(video.getVideoPath()),
+                mediaStreamService.contentTypeFor(video.getFileName()), request, response);
+    }
+}
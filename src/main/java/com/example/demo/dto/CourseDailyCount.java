@@ -0,0 +1,17 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+
+/** Enrollment events of one course on one day, as grouped by the database. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseDailyCount {
+    private Long courseId;
+    private String classLevel;
+    private LocalDate day;
+    private Long count;
+}
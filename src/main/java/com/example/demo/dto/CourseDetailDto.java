@@ -0,0 +1,82 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.ContentType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Everything the course page shows, in one response. The course fields sit at
+ * the top level, as in the course JSON, with the instructor, ordered lessons,
+ * videos, enrollment count and the caller's own enrollment alongside.
+ */
+@Data
+@NoArgsConstructor
+public class CourseDetailDto {
+    private Long id;
+    private String title;
+    private String description;
+    private String duration;
+    private String classLevel;
+    private String category;
+    private String status;
+    private String thumbnailPath;
+    private String thumbnailSmallPath;
+    private String thumbnailMediumPath;
+    private String thumbnailLargePath;
+    private String thumbnailPlaceholder;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private InstructorSummary instructor;
+    private List<LessonItem> lessons;
+    private List<VideoItem> videos;
+    private Long enrollmentCount;
+    private EnrollmentItem enrollment; // null unless a studentId was given and that student is enrolled
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class InstructorSummary {
+        private Long id;
+        private String name;
+        private String email;
+        private String specialization;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LessonItem {
+        private Long id;
+        private String title;
+        private ContentType contentType;
+        private String contentUrl;
+        private Integer orderIndex;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class VideoItem {
+        private Long id;
+        private String fileName;
+        private String videoPath;
+        private Double durationSeconds;
+        private Integer width;
+        private Integer height;
+        private String processingStatus;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class EnrollmentItem {
+        private Long id;
+        private String status;
+        private Double progressPercentage;
+        private LocalDateTime enrollmentDate;
+        private LocalDateTime updatedAt;
+    }
+}
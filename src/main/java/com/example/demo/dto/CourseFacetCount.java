@@ -0,0 +1,16 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Number of courses with one combination of facet values, as grouped by the database. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseFacetCount {
+    private String classLevel;
+    private String category;
+    private String status;
+    private Long count;
+}
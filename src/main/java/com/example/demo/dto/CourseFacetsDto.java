@@ -0,0 +1,22 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Course counts per filter value. Each facet is counted with the other
+ * facets' filters applied but not its own, so every value shows how many
+ * courses picking it would give; total applies all filters.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseFacetsDto {
+    private Long total;
+    private Map<String, Long> classLevel;
+    private Map<String, Long> category;
+    private Map<String, Long> status;
+}
@@ -5,6 +5,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
+// Filled straight from a JPQL constructor expression (see CourseRepository.COURSE_SUMMARY); keep the field order in step
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -17,6 +18,10 @@ public class CourseResponseDto {
     private String category;
     private String status;
     private String thumbnailPath;
+    private String thumbnailSmallPath;
+    private String thumbnailMediumPath;
+    private String thumbnailLargePath;
+    private String thumbnailPlaceholder;
     private Long instructorId;
     private String instructorName;
     private LocalDateTime createdAt;
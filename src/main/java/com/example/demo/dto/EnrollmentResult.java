@@ -0,0 +1,15 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.Enrollment;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** The student's enrollment in the course, and whether this call created it. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EnrollmentResult {
+    private Enrollment enrollment;
+    private boolean created;
+}
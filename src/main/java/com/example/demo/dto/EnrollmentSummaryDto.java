@@ -0,0 +1,57 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Enrollment as returned by list endpoints. Keeps the nested student/course
+ * shape of the entity JSON but only the columns lists need, filled by a JPQL
+ * constructor expression in one query.
+ */
+@Data
+@NoArgsConstructor
+public class EnrollmentSummaryDto {
+    private Long id;
+    private StudentSummary student;
+    private CourseSummary course;
+    private LocalDateTime enrollmentDate;
+    private LocalDateTime updatedAt;
+    private Double progressPercentage;
+    private String status;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StudentSummary {
+        private Long id;
+        private String name;
+        private String email;
+        private String village;
+        private String classLevel;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CourseSummary {
+        private Long id;
+        private String title;
+        private String classLevel;
+        private String category;
+    }
+
+    public EnrollmentSummaryDto(Long id, Long studentId, String studentName, String studentEmail,
+            String studentVillage, String studentClassLevel, Long courseId, String courseTitle,
+            String courseClassLevel, String courseCategory, LocalDateTime enrollmentDate, LocalDateTime updatedAt,
+            Double progressPercentage, String status) {
+        this.id = id;
+        this.student = new StudentSummary(studentId, studentName, studentEmail, studentVillage, studentClassLevel);
+        this.course = new CourseSummary(courseId, courseTitle, courseClassLevel, courseCategory);
+        this.enrollmentDate = enrollmentDate;
+        this.updatedAt = updatedAt;
+        this.progressPercentage = progressPercentage;
+        this.status = status;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** How many of a course's enrolled students completed one of its lessons. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LessonCompletionDto {
+    private Long lessonId;
+    private String title;
+    private Integer orderIndex;
+    private long enrolled;
+    private long completed;
+}
@@ -0,0 +1,16 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** One player heartbeat; lesson and position are optional, progress is a percentage. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProgressHeartbeatDto {
+    private Long enrollmentId;
+    private Long lessonId;
+    private Integer positionSeconds;
+    private Double progress;
+}
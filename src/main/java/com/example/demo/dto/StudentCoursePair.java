@@ -0,0 +1,14 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** One enrollment reduced to its two ids, for building the recommender. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentCoursePair {
+    private Long studentId;
+    private Long courseId;
+}
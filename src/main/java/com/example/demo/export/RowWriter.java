@@ -0,0 +1,15 @@
+package com.example.demo.export;
+
+import java.io.IOException;
+
+/**
+ * Writes tabular rows straight to an output stream, holding no more than a
+ * buffer of them. Values may be strings, numbers, date-times or null.
+ */
+public interface RowWriter {
+
+    void writeRow(Object... values) throws IOException;
+
+    /** Completes the file and flushes it; the underlying stream is left open. */
+    void finish() throws IOException;
+}
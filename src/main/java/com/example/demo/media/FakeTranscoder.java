@@ -0,0 +1,28 @@
+package com.example.demo.media;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Stand-in for tests and local runs: "transcodes" by copying the input to a
+ * new file and remembers which files it saw.
+ */
+public class FakeTranscoder implements Transcoder {
+
+    private final List<String> transcodedFiles = new CopyOnWriteArrayList<>();
+
+    @Override
+    public Path transcode(Path input, String fileName) throws IOException {
+        Path output = input.resolveSibling(input.getFileName() + ".transcoded");
+        Files.copy(input, output);
+        transcodedFiles.add(fileName);
+        return output;
+    }
+
+    public List<String> getTranscodedFiles() {
+        return transcodedFiles;
+    }
+}
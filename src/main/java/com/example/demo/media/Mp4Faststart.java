@@ -0,0 +1,312 @@
+package com.example.demo.media;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves the MP4 "moov" box in front of the media data so players can start
+ * before the whole file has arrived, and reads duration, resolution and
+ * bitrate on the way. Only the moov box is held in memory; the media data is
+ * copied channel-to-channel.
+ */
+public final class Mp4Faststart {
+
+    // Phone recordings have moov boxes of a few hundred KB; anything this large is not worth rewriting
+    private static final long MAX_MOOV_SIZE = 64L * 1024 * 1024;
+    private static final long UINT32_MAX = 0xFFFFFFFFL;
+
+    private Mp4Faststart() {
+    }
+
+    /**
+     * Rewrites the file in place when needed. Returns null when the file is not
+     * a parseable MP4, in which case it is left untouched. A box structure that
+     * is corrupt inside moov is reported as an IOException, never as a runtime
+     * exception.
+     */
+    public static Mp4Info process(Path file) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".faststart");
+        Mp4Info info;
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = in.size();
+            List<Box> boxes = readTopLevelBoxes(in, fileSize);
+            Box moov = boxes == null ? null : find(boxes, "moov");
+            if (moov == null || moov.size > MAX_MOOV_SIZE) {
+                return null;
+            }
+            ByteBuffer moovData = ByteBuffer.allocate((int) moov.size);
+            readFully(in, moovData, moov.offset);
+            moovData.flip();
+
+            Box mdat = find(boxes, "mdat");
+            long insertAt = mdat == null ? -1 : mdat.offset;
+            try {
+                info = readInfo(moovData, fileSize);
+                if (info == null) {
+                    return null;
+                }
+                if (mdat == null || moov.offset < mdat.offset) {
+                    return info; // Already progressive
+                }
+                if (!patchChunkOffsets(moovData, 0, moovData.limit(), insertAt, moov.offset, moov.size)) {
+                    return info;
+                }
+            } catch (IndexOutOfBoundsException | BufferUnderflowException e) {
+                throw new IOException("Malformed MP4 box structure", e);
+            }
+
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                copy(in, 0, insertAt, out);
+                moovData.rewind();
+                while (moovData.hasRemaining()) {
+                    out.write(moovData);
+                }
+                copy(in, insertAt, moov.offset - insertAt, out);
+                long afterMoov = moov.offset + moov.size;
+                copy(in, afterMoov, fileSize - afterMoov, out);
+                out.force(false);
+            } catch (IOException e) {
+                Files.deleteIfExists(temp);
+                throw e;
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        info.setFaststartApplied(true);
+        return info;
+    }
+
+    private static List<Box> readTopLevelBoxes(FileChannel channel, long fileSize) throws IOException {
+        List<Box> boxes = new ArrayList<>();
+        ByteBuffer header = ByteBuffer.allocate(8);
+        long position = 0;
+        while (position + 8 <= fileSize) {
+            header.clear();
+            readFully(channel, header, position);
+            header.flip();
+            long size = header.getInt() & UINT32_MAX;
+            String type = fourcc(header.getInt());
+            int headerSize = 8;
+            if (size == 1) {
+                if (position + 16 > fileSize) {
+                    return null;
+                }
+                header.clear();
+                readFully(channel, header, position + 8);
+                header.flip();
+                size = header.getLong();
+                headerSize = 16;
+            } else if (size == 0) {
+                size = fileSize - position;
+            }
+            if (size < headerSize || size > fileSize - position) {
+                return null;
+            }
+            boxes.add(new Box(type, position, size, headerSize));
+            position += size;
+        }
+        return boxes.isEmpty() || !"ftyp".equals(boxes.get(0).type) ? null : boxes;
+    }
+
+    private static boolean patchChunkOffsets(ByteBuffer buf, int start, int end, long insertAt, long moovOffset,
+            long moovSize) {
+        int position = start;
+        while (position + 8 <= end) {
+            Box box = boxAt(buf, position, end);
+            if (box == null) {
+                return false;
+            }
+            int body = (int) (box.offset + box.headerSize);
+            int boxEnd = (int) (box.offset + box.size);
+            switch (box.type) {
+                case "moov", "trak", "mdia", "minf", "stbl" -> {
+                    if (!patchChunkOffsets(buf, body, boxEnd, insertAt, moovOffset, moovSize)) {
+                        return false;
+                    }
+                }
+                case "cmov" -> {
+                    return false; // Compressed movie header, offsets are not reachable
+                }
+                case "stco" -> {
+                    if (boxEnd - body < 8) {
+                        return false;
+                    }
+                    long count = buf.getInt(body + 4) & UINT32_MAX;
+                    if (body + 8 + count * 4 > boxEnd) {
+                        return false;
+                    }
+                    for (int i = 0; i < count; i++) {
+                        int entry = body + 8 + i * 4;
+                        long shifted = shift(buf.getInt(entry) & UINT32_MAX, insertAt, moovOffset, moovSize);
+                        if (shifted > UINT32_MAX) {
+                            return false; // Would need an stco -> co64 upgrade
+                        }
+                        buf.putInt(entry, (int) shifted);
+                    }
+                }
+                case "co64" -> {
+                    if (boxEnd - body < 8) {
+                        return false;
+                    }
+                    long count = buf.getInt(body + 4) & UINT32_MAX;
+                    if (body + 8 + count * 8 > boxEnd) {
+                        return false;
+                    }
+                    for (int i = 0; i < count; i++) {
+                        int entry = body + 8 + i * 8;
+                        buf.putLong(entry, shift(buf.getLong(entry), insertAt, moovOffset, moovSize));
+                    }
+                }
+                default -> {
+                }
+            }
+            position = boxEnd;
+        }
+        return true;
+    }
+
+    // Data between the insertion point and the old moov position moves back by the size of moov
+    private static long shift(long offset, long insertAt, long moovOffset, long moovSize) {
+        return offset >= insertAt && offset < moovOffset ? offset + moovSize : offset;
+    }
+
+    private static Mp4Info readInfo(ByteBuffer buf, long fileSize) {
+        Box moov = boxAt(buf, 0, buf.limit());
+        if (moov == null || !"moov".equals(moov.type)) {
+            return null;
+        }
+        int moovBody = (int) (moov.offset + moov.headerSize);
+        int moovEnd = (int) (moov.offset + moov.size);
+        Mp4Info info = new Mp4Info();
+
+        Box mvhd = findChild(buf, moovBody, moovEnd, "mvhd");
+        if (mvhd != null && mvhd.size - mvhd.headerSize >= 32) {
+            int body = (int) (mvhd.offset + mvhd.headerSize);
+            boolean v1 = buf.get(body) == 1;
+            long timescale = buf.getInt(body + (v1 ? 20 : 12)) & UINT32_MAX;
+            long duration = v1 ? buf.getLong(body + 24) : buf.getInt(body + 16) & UINT32_MAX;
+            if (timescale > 0 && duration > 0 && duration != UINT32_MAX) {
+                info.setDurationSeconds((double) duration / timescale);
+                info.setBitrate(Math.round(fileSize * 8 / info.getDurationSeconds()));
+            }
+        }
+
+        int position = moovBody;
+        while (position + 8 <= moovEnd) {
+            Box trak = boxAt(buf, position, moovEnd);
+            if (trak == null) {
+                break;
+            }
+            if ("trak".equals(trak.type)) {
+                readVideoTrack(buf, trak, info);
+            }
+            position = (int) (trak.offset + trak.size);
+        }
+        return info;
+    }
+
+    private static void readVideoTrack(ByteBuffer buf, Box trak, Mp4Info info) {
+        int body = (int) (trak.offset + trak.headerSize);
+        int end = (int) (trak.offset + trak.size);
+        Box mdia = findChild(buf, body, end, "mdia");
+        Box hdlr = mdia == null ? null
+                : findChild(buf, (int) (mdia.offset + mdia.headerSize), (int) (mdia.offset + mdia.size), "hdlr");
+        if (hdlr == null || hdlr.size - hdlr.headerSize < 12
+                || !"vide".equals(fourcc(buf.getInt((int) (hdlr.offset + hdlr.headerSize) + 8)))) {
+            return;
+        }
+        Box tkhd = findChild(buf, body, end, "tkhd");
+        if (tkhd == null || tkhd.size == tkhd.headerSize || info.getWidth() != null) {
+            return;
+        }
+        int tkhdBody = (int) (tkhd.offset + tkhd.headerSize);
+        int dimensions = tkhdBody + 4 + (buf.get(tkhdBody) == 1 ? 32 : 20) + 52;
+        if (dimensions + 8 <= tkhd.offset + tkhd.size) {
+            // 16.16 fixed point
+            info.setWidth(buf.getInt(dimensions) >>> 16);
+            info.setHeight(buf.getInt(dimensions + 4) >>> 16);
+        }
+    }
+
+    private static Box findChild(ByteBuffer buf, int start, int end, String type) {
+        int position = start;
+        while (position + 8 <= end) {
+            Box box = boxAt(buf, position, end);
+            if (box == null) {
+                return null;
+            }
+            if (type.equals(box.type)) {
+                return box;
+            }
+            position = (int) (box.offset + box.size);
+        }
+        return null;
+    }
+
+    private static Box boxAt(ByteBuffer buf, int position, int end) {
+        long size = buf.getInt(position) & UINT32_MAX;
+        String type = fourcc(buf.getInt(position + 4));
+        int headerSize = 8;
+        if (size == 1) {
+            if (position + 16 > end) {
+                return null;
+            }
+            size = buf.getLong(position + 8);
+            headerSize = 16;
+        } else if (size == 0) {
+            size = end - position;
+        }
+        if (size < headerSize || size > end - position) {
+            return null;
+        }
+        return new Box(type, position, size, headerSize);
+    }
+
+    private static Box find(List<Box> boxes, String type) {
+        for (Box box : boxes) {
+            if (type.equals(box.type)) {
+                return box;
+            }
+        }
+        return null;
+    }
+
+    private static void copy(FileChannel source, long position, long count, FileChannel target) throws IOException {
+        while (count > 0) {
+            long copied = source.transferTo(position, count, target);
+            if (copied <= 0) {
+                throw new EOFException("Unexpected end of MP4 data");
+            }
+            position += copied;
+            count -= copied;
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) {
+            int read = channel.read(buf, position);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of MP4 data");
+            }
+            position += read;
+        }
+    }
+
+    private static String fourcc(int value) {
+        byte[] bytes = { (byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value };
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    private record Box(String type, long offset, long size, int headerSize) {
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.demo.media;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Mp4Info {
+    private Double durationSeconds;
+    private Integer width;
+    private Integer height;
+    private Long bitrate; // bits per second, averaged over the whole file
+    private boolean faststartApplied;
+}
@@ -0,0 +1,11 @@
+package com.example.demo.media;
+
+import java.nio.file.Path;
+
+public class NoOpTranscoder implements Transcoder {
+
+    @Override
+    public Path transcode(Path input, String fileName) {
+        return input;
+    }
+}
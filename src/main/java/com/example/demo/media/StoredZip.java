@@ -0,0 +1,198 @@
+package com.example.demo.media;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * A ZIP archive of uncompressed (STORED) entries whose layout is fixed up
+ * front: headers are built from known sizes and CRCs, so the total length and
+ * the position of every byte are known before any content is read. The
+ * archive can then be streamed with constant memory, and any byte range of it
+ * can be produced on its own. ZIP64 records are written only when a size or
+ * offset needs them.
+ */
+public class StoredZip {
+
+    @FunctionalInterface
+    public interface RangeSource {
+        void copy(long offset, long length, OutputStream out) throws IOException;
+    }
+
+    private static final long ZIP64_LIMIT = 0xFFFFFFFFL;
+    private static final int ZIP64_ENTRY_LIMIT = 0xFFFF;
+    private static final int UTF8_FLAG = 0x0800;
+    private static final int VERSION_STORED = 10;
+    private static final int VERSION_ZIP64 = 45;
+
+    private final int dosTime;
+    private final int dosDate;
+    private final List<Segment> segments = new ArrayList<>();
+    private final ByteArrayOutputStream centralDirectory = new ByteArrayOutputStream();
+    private int entryCount;
+    private long length;
+    private boolean finished;
+
+    public StoredZip(LocalDateTime modified) {
+        LocalDateTime time = modified == null || modified.getYear() < 1980
+                ? LocalDateTime.of(1980, 1, 1, 0, 0)
+                : modified;
+        dosTime = (time.getHour() << 11) | (time.getMinute() << 5) | (time.getSecond() / 2);
+        dosDate = ((time.getYear() - 1980) << 9) | (time.getMonthValue() << 5) | time.getDayOfMonth();
+    }
+
+    /** Adds an entry held in memory and returns the offset of its data in the archive. */
+    public long addEntry(String name, byte[] data) {
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        long dataOffset = addHeaders(name, data.length, crc.getValue());
+        append(new Segment(dataOffset, data.length, data, null));
+        return dataOffset;
+    }
+
+    /** Adds an entry whose bytes are read from {@code source} when written. */
+    public long addEntry(String name, long size, long crc32, RangeSource source) {
+        long dataOffset = addHeaders(name, size, crc32);
+        append(new Segment(dataOffset, size, null, source));
+        return dataOffset;
+    }
+
+    public void finish() {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        byte[] directory = centralDirectory.toByteArray();
+        long directoryOffset = length;
+        long directorySize = directory.length;
+        append(directory);
+
+        boolean zip64 = entryCount >= ZIP64_ENTRY_LIMIT || directoryOffset >= ZIP64_LIMIT
+                || directorySize >= ZIP64_LIMIT;
+        ByteBuffer end = ByteBuffer.allocate((zip64 ? 56 + 20 : 0) + 22).order(ByteOrder.LITTLE_ENDIAN);
+        if (zip64) {
+            long recordOffset = length;
+            end.putInt(0x06064b50).putLong(44)
+                    .putShort((short) VERSION_ZIP64).putShort((short) VERSION_ZIP64)
+                    .putInt(0).putInt(0)
+                    .putLong(entryCount).putLong(entryCount)
+                    .putLong(directorySize).putLong(directoryOffset);
+            end.putInt(0x07064b50).putInt(0).putLong(recordOffset).putInt(1);
+        }
+        short entries = (short) Math.min(entryCount, ZIP64_ENTRY_LIMIT);
+        end.putInt(0x06054b50).putShort((short) 0).putShort((short) 0)
+                .putShort(entries).putShort(entries)
+                .putInt(clamp(directorySize)).putInt(clamp(directoryOffset))
+                .putShort((short) 0);
+        append(end.array());
+    }
+
+    public long length() {
+        finish();
+        return length;
+    }
+
+    /** Writes archive bytes {@code start} to {@code end}, both inclusive. */
+    public void write(OutputStream out, long start, long end) throws IOException {
+        finish();
+        for (Segment segment : segments) {
+            long segmentEnd = segment.offset + segment.length;
+            if (segmentEnd <= start) {
+                continue;
+            }
+            if (segment.offset > end) {
+                break;
+            }
+            long from = Math.max(start, segment.offset) - segment.offset;
+            long to = Math.min(end + 1, segmentEnd) - segment.offset;
+            if (segment.bytes != null) {
+                out.write(segment.bytes, (int) from, (int) (to - from));
+            } else {
+                segment.source.copy(from, to - from, out);
+            }
+        }
+        out.flush();
+    }
+
+    private long addHeaders(String name, long size, long crc32) {
+        if (finished) {
+            throw new IllegalStateException("Archive is already finished");
+        }
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        boolean zip64Size = size >= ZIP64_LIMIT;
+        long headerOffset = length;
+        boolean zip64Offset = headerOffset >= ZIP64_LIMIT;
+        int version = zip64Size || zip64Offset ? VERSION_ZIP64 : VERSION_STORED;
+
+        ByteBuffer local = ByteBuffer.allocate(30 + nameBytes.length + (zip64Size ? 20 : 0))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        local.putInt(0x04034b50).putShort((short) version).putShort((short) UTF8_FLAG).putShort((short) 0)
+                .putShort((short) dosTime).putShort((short) dosDate).putInt((int) crc32)
+                .putInt(clamp(size)).putInt(clamp(size))
+                .putShort((short) nameBytes.length).putShort((short) (zip64Size ? 20 : 0))
+                .put(nameBytes);
+        if (zip64Size) {
+            local.putShort((short) 0x0001).putShort((short) 16).putLong(size).putLong(size);
+        }
+        append(local.array());
+
+        int extraData = (zip64Size ? 16 : 0) + (zip64Offset ? 8 : 0);
+        int extraLength = extraData > 0 ? 4 + extraData : 0;
+        ByteBuffer central = ByteBuffer.allocate(46 + nameBytes.length + extraLength)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        central.putInt(0x02014b50).putShort((short) VERSION_ZIP64).putShort((short) version)
+                .putShort((short) UTF8_FLAG).putShort((short) 0)
+                .putShort((short) dosTime).putShort((short) dosDate).putInt((int) crc32)
+                .putInt(clamp(size)).putInt(clamp(size))
+                .putShort((short) nameBytes.length).putShort((short) extraLength).putShort((short) 0)
+                .putShort((short) 0).putShort((short) 0).putInt(0)
+                .putInt(clamp(headerOffset))
+                .put(nameBytes);
+        if (extraLength > 0) {
+            central.putShort((short) 0x0001).putShort((short) extraData);
+            if (zip64Size) {
+                central.putLong(size).putLong(size);
+            }
+            if (zip64Offset) {
+                central.putLong(headerOffset);
+            }
+        }
+        centralDirectory.writeBytes(central.array());
+        entryCount++;
+        return length;
+    }
+
+    private void append(byte[] bytes) {
+        append(new Segment(length, bytes.length, bytes, null));
+    }
+
+    private void append(Segment segment) {
+        segments.add(segment);
+        length += segment.length;
+    }
+
+    private static int clamp(long value) {
+        return value >= ZIP64_LIMIT ? -1 : (int) value;
+    }
+
+    private static final class Segment {
+        private final long offset;
+        private final long length;
+        private final byte[] bytes;
+        private final RangeSource source;
+
+        private Segment(long offset, long length, byte[] bytes, RangeSource source) {
+            this.offset = offset;
+            this.length = length;
+            this.bytes = bytes;
+            this.source = source;
+        }
+    }
+}
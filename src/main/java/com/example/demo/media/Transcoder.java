@@ -0,0 +1,17 @@
+package com.example.demo.media;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Optional re-encoding step for uploaded videos, run by the media job
+ * workers before the file is rewritten for faststart and stored.
+ */
+public interface Transcoder {
+
+    /**
+     * Returns the file to keep: either the input itself, or a new file next to
+     * it that replaces the input (the caller deletes the input when they differ).
+     */
+    Path transcode(Path input, String fileName) throws IOException;
+}
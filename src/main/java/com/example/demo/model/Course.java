@@ -12,7 +12,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "courses")
+@Table(name = "courses", indexes = {
+        @Index(name = "idx_courses_created_id", columnList = "created_at, id"),
+        @Index(name = "idx_courses_class_level_created_id", columnList = "class_level, created_at, id"),
+        @Index(name = "idx_courses_instructor_created_id", columnList = "instructor_id, created_at, id") })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -38,8 +41,25 @@ public class Course {
     @Column(columnDefinition = "varchar(255) default 'Draft'")
     private String status;
 
+    @Column(name = "lesson_count")
+    private Integer lessonCount; // kept up to date by LessonService, divides lesson-based progress
+
+    // Completion slots ever handed out to lessons, only ever moved by CourseRepository.incrementCompletionSlots
+    @Column(name = "completion_slots", insertable = false, updatable = false)
+    @JsonIgnore
+    private Integer completionSlots;
+
     private String thumbnailPath;
 
+    private String thumbnailSmallPath;
+
+    private String thumbnailMediumPath;
+
+    private String thumbnailLargePath;
+
+    @Column(length = 2048)
+    private String thumbnailPlaceholder; // tiny blurred PNG as a data: URI, embedded in list responses
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "instructor_id", nullable = false)
     @JsonIgnoreProperties({ "hibernateLazyInitializer", "handler", "courses", "password" })
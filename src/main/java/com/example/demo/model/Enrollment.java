@@ -1,5 +1,6 @@
 package com.example.demo.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -8,24 +9,33 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "enrollments")
+@Table(name = "enrollments", uniqueConstraints = @UniqueConstraint(name = Enrollment.STUDENT_COURSE_KEY,
+        columnNames = { "student_id", "course_id" }))
+// Student and course are lazy; each read path names the plan it needs
+@NamedEntityGraph(name = Enrollment.WITH_STUDENT_AND_COURSE, attributeNodes = {
+        @NamedAttributeNode("student"), @NamedAttributeNode("course") })
+@NamedEntityGraph(name = Enrollment.WITH_COURSE, attributeNodes = @NamedAttributeNode("course"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Enrollment {
 
+    public static final String WITH_STUDENT_AND_COURSE = "Enrollment.withStudentAndCourse";
+    public static final String WITH_COURSE = "Enrollment.withCourse";
+    public static final String STUDENT_COURSE_KEY = "uk_enrollments_student_course";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "student_id", nullable = false)
-    @JsonIgnoreProperties({"password"})
+    @JsonIgnoreProperties({ "password", "hibernateLazyInitializer", "handler" })
     private Student student;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "course_id", nullable = false)
-    @JsonIgnoreProperties({"lessons", "videos", "instructor"})
+    @JsonIgnoreProperties({ "lessons", "videos", "instructor", "hibernateLazyInitializer", "handler" })
     private Course course;
 
     @Column(name = "enrollment_date", nullable = false, updatable = false)
@@ -37,6 +47,21 @@ public class Enrollment {
     @Column(name = "progress_percentage")
     private Double progressPercentage = 0.0;
 
+    // Where the student last was, as reported by the player's heartbeats
+    @Column(name = "last_lesson_id")
+    private Long lastLessonId;
+
+    @Column(name = "last_position_seconds")
+    private Integer lastPositionSeconds;
+
+    // One bit per lesson of the course, at the lesson's completionSlot
+    @Column(name = "lesson_completion", length = 512)
+    @JsonIgnore
+    private byte[] lessonCompletion;
+
+    @Column(name = "completed_lessons")
+    private Integer completedLessons = 0;
+
     @Column(nullable = false)
     private String status = "ENROLLED";
 
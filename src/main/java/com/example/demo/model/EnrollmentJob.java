@@ -0,0 +1,57 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "enrollment_jobs", indexes = {
+        @Index(name = "idx_enrollment_jobs_course", columnList = "courseId"),
+        @Index(name = "idx_enrollment_jobs_status", columnList = "status") })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EnrollmentJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long courseId;
+
+    private String classLevel;
+
+    @Column(nullable = false)
+    private String status = "PENDING"; // PENDING, RUNNING, DONE, FAILED
+
+    private Integer totalStudents;
+
+    private Integer processedStudents = 0;
+
+    private Integer enrolledCount = 0; // students newly enrolled; those already enrolled are skipped
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+        if (status == null)
+            status = "PENDING";
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
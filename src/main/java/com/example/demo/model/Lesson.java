@@ -1,5 +1,6 @@
 package com.example.demo.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
@@ -31,6 +32,11 @@ public class Lesson {
 
     private Integer orderIndex;
 
+    // Bit of this lesson in each enrollment's completion bitset; fixed at creation so reordering never moves it
+    @Column(name = "completion_slot")
+    @JsonIgnore
+    private Integer completionSlot;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
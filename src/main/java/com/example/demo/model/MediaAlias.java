@@ -0,0 +1,30 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "media_aliases")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MediaAlias {
+
+    @Id
+    @Column(length = 512)
+    private String legacyPath; // e.g. /uploads/5/videos/intro.mp4
+
+    @Column(nullable = false)
+    private String targetPath; // fingerprinted /uploads/blobs/... path
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "media_blobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MediaBlob {
+
+    @Id
+    @Column(length = 64)
+    private String hash; // SHA-256, lowercase hex
+
+    private String extension; // e.g. ".mp4", taken from the first upload of this content
+
+    @Column(nullable = false)
+    private Long size;
+
+    @Column(nullable = false)
+    private Integer refCount;
+
+    @Column(nullable = false)
+    private Long crc32; // Of the whole content, computed while storing; ZIP entries of course packages need it
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (refCount == null)
+            refCount = 1;
+    }
+
+    public String getStorageKey() {
+        return "blobs/" + hash.substring(0, 2) + "/" + hash + (extension != null ? extension : "");
+    }
+
+    public String getPublicPath() {
+        return "/uploads/" + getStorageKey();
+    }
+}
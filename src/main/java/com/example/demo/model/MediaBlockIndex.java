@@ -0,0 +1,37 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "media_block_indexes")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MediaBlockIndex {
+
+    @Id
+    @Column(length = 64)
+    private String sha256; // whole-file hash, same as the blob hash for blob-stored media
+
+    @Column(nullable = false)
+    private Integer blockSize;
+
+    @Lob
+    @Column(columnDefinition = "LONGBLOB", nullable = false)
+    private byte[] blockHashes; // SHA-256 of each block, 32 bytes apiece, in file order
+
+    @Column(length = 64, nullable = false)
+    private String root; // Merkle root over the block hashes
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
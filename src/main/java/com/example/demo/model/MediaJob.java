@@ -0,0 +1,68 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "media_jobs", indexes = @Index(name = "idx_media_jobs_status_next_run", columnList = "status, next_run_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MediaJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String type; // PROCESS_VIDEO, GENERATE_THUMBNAILS, FINGERPRINT_LEGACY
+
+    @Column(nullable = false)
+    private String status = "PENDING"; // PENDING, RUNNING, DONE, FAILED
+
+    private Long videoId;
+
+    private Long courseId;
+
+    private String stagedKey; // Content store key of the upload waiting to be processed
+
+    @Column(length = 64)
+    private String blobHash; // Set once the processed video is in the blob store, so retries skip that step
+
+    private String fileName;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @Column(name = "next_run_at", nullable = false)
+    private LocalDateTime nextRunAt;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+        if (nextRunAt == null)
+            nextRunAt = createdAt;
+        if (status == null)
+            status = "PENDING";
+        if (attempts == null)
+            attempts = 0;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -21,8 +21,22 @@ public class Video {
 
     private String fileName;
 
+    private Double durationSeconds;
+
+    private Integer width;
+
+    private Integer height;
+
+    private Long bitrate; // bits per second
+
+    private String processingStatus; // PENDING, PROCESSING, READY, FAILED; null for videos stored before processing jobs
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "course_id", nullable = false)
     @JsonIgnoreProperties({ "videos", "lessons", "instructor", "hibernateLazyInitializer", "handler" })
     private Course course;
+
+    public String getStreamUrl() {
+        return id != null && videoPath != null ? "/api/videos/" + id + "/stream" : null;
+    }
 }
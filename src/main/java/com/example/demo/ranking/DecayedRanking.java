@@ -0,0 +1,153 @@
+package com.example.demo.ranking;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Items ranked by an exponentially time-decayed sum of event weights, kept
+ * per partition in a skip list so the top N is read without sorting.
+ *
+ * Decay is applied lazily: an event is stored as weight * 2^((t - epoch) /
+ * halfLife), which grows with time instead of shrinking every score as the
+ * clock moves. All stored values share the same epoch, so their order is
+ * the order of the decayed scores at any moment. The epoch moves forward
+ * before the exponent gets large enough to lose precision.
+ */
+public class DecayedRanking {
+
+    /** Partition that every item belongs to as well as its own. */
+    public static final String ALL = "*";
+
+    private static final double MAX_EXPONENT = 512;
+    private static final double NEGLIGIBLE = 1e-12;
+
+    public static class Ranked {
+        private final long id;
+        private final double score;
+
+        private Ranked(long id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public double getScore() {
+            return score;
+        }
+    }
+
+    private record Entry(long id, double value) implements Comparable<Entry> {
+        @Override
+        public int compareTo(Entry other) {
+            int byValue = Double.compare(other.value, value);
+            return byValue != 0 ? byValue : Long.compare(id, other.id);
+        }
+    }
+
+    private final double halfLifeMillis;
+    private volatile long epochMillis;
+    private final Map<Long, Double> values = new HashMap<>();
+    private final Map<Long, String> partitionOf = new HashMap<>();
+    private final Map<String, ConcurrentSkipListSet<Entry>> partitions = new ConcurrentHashMap<>();
+
+    public DecayedRanking(double halfLifeMillis, long epochMillis) {
+        this.halfLifeMillis = halfLifeMillis;
+        this.epochMillis = epochMillis;
+    }
+
+    public synchronized void add(long id, String partition, double weight, long timeMillis) {
+        if ((timeMillis - epochMillis) / halfLifeMillis > MAX_EXPONENT) {
+            rebase(timeMillis);
+        }
+        String key = partition != null ? partition : "";
+        String previousPartition = partitionOf.put(id, key);
+        Double previous = values.get(id);
+        if (previous != null) {
+            removeEntry(previousPartition, id, previous);
+        }
+        double value = (previous != null ? previous : 0) + weight * Math.pow(2, (timeMillis - epochMillis) / halfLifeMillis);
+        values.put(id, value);
+        addEntry(key, id, value);
+    }
+
+    public synchronized void move(long id, String partition) {
+        Double value = values.get(id);
+        String key = partition != null ? partition : "";
+        String previousPartition = partitionOf.get(id);
+        if (value == null || key.equals(previousPartition)) {
+            return;
+        }
+        removeEntry(previousPartition, id, value);
+        partitionOf.put(id, key);
+        addEntry(key, id, value);
+    }
+
+    public synchronized void remove(long id) {
+        Double value = values.remove(id);
+        if (value != null) {
+            removeEntry(partitionOf.remove(id), id, value);
+        }
+    }
+
+    /**
+     * Highest scores first, as decayed to {@code nowMillis}. Reads do not
+     * lock; a concurrent update can make an item appear twice or not at all
+     * in one read, never corrupt it.
+     */
+    public List<Ranked> top(String partition, int skip, int limit, long nowMillis) {
+        ConcurrentSkipListSet<Entry> entries = partitions.get(partition != null ? partition : "");
+        List<Ranked> ranked = new ArrayList<>(limit);
+        if (entries == null) {
+            return ranked;
+        }
+        double decay = Math.pow(2, (epochMillis - nowMillis) / halfLifeMillis);
+        Iterator<Entry> iterator = entries.iterator();
+        for (int i = 0; i < skip && iterator.hasNext(); i++) {
+            iterator.next();
+        }
+        while (ranked.size() < limit && iterator.hasNext()) {
+            Entry entry = iterator.next();
+            ranked.add(new Ranked(entry.id(), entry.value() * decay));
+        }
+        return ranked;
+    }
+
+    private void addEntry(String partition, long id, double value) {
+        partitions.computeIfAbsent(partition, p -> new ConcurrentSkipListSet<>()).add(new Entry(id, value));
+        partitions.computeIfAbsent(ALL, p -> new ConcurrentSkipListSet<>()).add(new Entry(id, value));
+    }
+
+    private void removeEntry(String partition, long id, double value) {
+        ConcurrentSkipListSet<Entry> entries = partitions.get(partition);
+        if (entries != null) {
+            entries.remove(new Entry(id, value));
+        }
+        partitions.get(ALL).remove(new Entry(id, value));
+    }
+
+    // Scales every value to a later epoch; items whose score has decayed to nothing are dropped
+    private void rebase(long newEpochMillis) {
+        double factor = Math.pow(2, (epochMillis - newEpochMillis) / halfLifeMillis);
+        Map<Long, Double> rescaled = new HashMap<>();
+        values.forEach((id, value) -> rescaled.put(id, value * factor));
+        partitions.values().forEach(ConcurrentSkipListSet::clear);
+        values.clear();
+        epochMillis = newEpochMillis;
+        rescaled.forEach((id, value) -> {
+            if (value < NEGLIGIBLE) {
+                partitionOf.remove(id);
+                return;
+            }
+            values.put(id, value);
+            addEntry(partitionOf.get(id), id, value);
+        });
+    }
+}
@@ -0,0 +1,339 @@
+package com.example.demo.recommend;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Item-to-item co-enrollment counts: for every pair of courses, how many
+ * students are enrolled in both. Ids are mapped to dense ints; each student's
+ * courses are a sorted int array and each course's row of co-counts is an
+ * {@link IntIntHashMap}. The rows are built in parallel on a fork/join pool
+ * from a course-to-students inverted list. After that, adding or removing
+ * one enrollment updates the rows of the student's other courses.
+ *
+ * Neighbours are ranked by cosine similarity, co-count / sqrt(n(a) * n(b)),
+ * so a course everyone takes does not top every list.
+ */
+public class CoEnrollmentIndex {
+
+    private static final int LEAF_COURSES = 32;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongIntHashMap courseIndex;
+    private long[] courseIds;
+    private int[] courseStudents;
+    private IntIntHashMap[] rows;
+    private int courseCount;
+    private final LongIntHashMap studentIndex;
+    private int[][] baskets;
+    private int studentCount;
+
+    private CoEnrollmentIndex(int expectedCourses, int expectedStudents) {
+        courseIndex = new LongIntHashMap(expectedCourses);
+        courseIds = new long[Math.max(16, expectedCourses)];
+        courseStudents = new int[courseIds.length];
+        rows = new IntIntHashMap[courseIds.length];
+        studentIndex = new LongIntHashMap(expectedStudents);
+        baskets = new int[Math.max(16, expectedStudents)][];
+    }
+
+    public static CoEnrollmentIndex empty() {
+        return new CoEnrollmentIndex(16, 16);
+    }
+
+    /** Builds from parallel arrays of (student id, course id) enrollment pairs, in any order. */
+    public static CoEnrollmentIndex build(long[] studentIds, long[] courseIds, ForkJoinPool pool) {
+        int pairs = studentIds.length;
+        CoEnrollmentIndex index = new CoEnrollmentIndex(1024, Math.max(16, pairs / 4));
+        int[] studentOf = new int[pairs];
+        int[] courseOf = new int[pairs];
+        for (int i = 0; i < pairs; i++) {
+            studentOf[i] = index.studentSlot(studentIds[i]);
+            courseOf[i] = index.courseSlot(courseIds[i]);
+        }
+
+        // Each student's courses, sorted and without duplicates
+        int[] basketSizes = new int[index.studentCount];
+        for (int i = 0; i < pairs; i++) {
+            basketSizes[studentOf[i]]++;
+        }
+        for (int s = 0; s < index.studentCount; s++) {
+            index.baskets[s] = new int[basketSizes[s]];
+            basketSizes[s] = 0;
+        }
+        for (int i = 0; i < pairs; i++) {
+            index.baskets[studentOf[i]][basketSizes[studentOf[i]]++] = courseOf[i];
+        }
+        for (int s = 0; s < index.studentCount; s++) {
+            index.baskets[s] = sortedDistinct(index.baskets[s]);
+        }
+
+        // Inverted lists in compressed-row form: students of course c are students[offsets[c]..offsets[c+1])
+        int courses = index.courseCount;
+        int[] offsets = new int[courses + 1];
+        for (int s = 0; s < index.studentCount; s++) {
+            for (int c : index.baskets[s]) {
+                offsets[c + 1]++;
+            }
+        }
+        for (int c = 0; c < courses; c++) {
+            index.courseStudents[c] = offsets[c + 1];
+            offsets[c + 1] += offsets[c];
+        }
+        int[] students = new int[offsets[courses]];
+        int[] fill = Arrays.copyOf(offsets, courses);
+        for (int s = 0; s < index.studentCount; s++) {
+            for (int c : index.baskets[s]) {
+                students[fill[c]++] = s;
+            }
+        }
+
+        pool.invoke(new BuildRows(index, offsets, students, 0, courses));
+        return index;
+    }
+
+    /** Builds the co-count rows of courses [from, to), splitting until ranges are small. */
+    private static final class BuildRows extends RecursiveAction {
+        private final CoEnrollmentIndex index;
+        private final int[] offsets;
+        private final int[] students;
+        private final int from;
+        private final int to;
+
+        private BuildRows(CoEnrollmentIndex index, int[] offsets, int[] students, int from, int to) {
+            this.index = index;
+            this.offsets = offsets;
+            this.students = students;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > LEAF_COURSES) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new BuildRows(index, offsets, students, from, middle),
+                        new BuildRows(index, offsets, students, middle, to));
+                return;
+            }
+            // Dense accumulator over all courses, reused for every row of this leaf
+            int[] counts = new int[index.courseCount];
+            int[] touched = new int[index.courseCount];
+            for (int c = from; c < to; c++) {
+                int touchedCount = 0;
+                for (int i = offsets[c]; i < offsets[c + 1]; i++) {
+                    for (int other : index.baskets[students[i]]) {
+                        if (other != c && counts[other]++ == 0) {
+                            touched[touchedCount++] = other;
+                        }
+                    }
+                }
+                IntIntHashMap row = new IntIntHashMap(touchedCount);
+                for (int i = 0; i < touchedCount; i++) {
+                    row.increment(touched[i], counts[touched[i]]);
+                    counts[touched[i]] = 0;
+                }
+                index.rows[c] = row;
+            }
+        }
+    }
+
+    /** Records one enrollment; returns false if it was already counted. */
+    public boolean add(long studentId, long courseId) {
+        lock.writeLock().lock();
+        try {
+            int s = studentSlot(studentId);
+            int c = courseSlot(courseId);
+            int[] basket = baskets[s] != null ? baskets[s] : new int[0];
+            int position = Arrays.binarySearch(basket, c);
+            if (position >= 0) {
+                return false;
+            }
+            for (int other : basket) {
+                rows[c].increment(other, 1);
+                rows[other].increment(c, 1);
+            }
+            int insertAt = -position - 1;
+            int[] updated = new int[basket.length + 1];
+            System.arraycopy(basket, 0, updated, 0, insertAt);
+            updated[insertAt] = c;
+            System.arraycopy(basket, insertAt, updated, insertAt + 1, basket.length - insertAt);
+            baskets[s] = updated;
+            courseStudents[c]++;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Forgets one enrollment (a dropped course); returns false if it was not counted. */
+    public boolean remove(long studentId, long courseId) {
+        lock.writeLock().lock();
+        try {
+            int s = studentIndex.get(studentId);
+            int c = courseIndex.get(courseId);
+            if (s == LongIntHashMap.MISSING || c == LongIntHashMap.MISSING || baskets[s] == null) {
+                return false;
+            }
+            int[] basket = baskets[s];
+            int position = Arrays.binarySearch(basket, c);
+            if (position < 0) {
+                return false;
+            }
+            int[] updated = new int[basket.length - 1];
+            System.arraycopy(basket, 0, updated, 0, position);
+            System.arraycopy(basket, position + 1, updated, position, updated.length - position);
+            for (int other : updated) {
+                rows[c].increment(other, -1);
+                rows[other].increment(c, -1);
+            }
+            baskets[s] = updated;
+            courseStudents[c]--;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Course ids most often taken together with {@code courseId}, best first.
+     * Courses the given student already has are left out; pass null for none.
+     */
+    public long[] topK(long courseId, int k, Long studentId) {
+        lock.readLock().lock();
+        try {
+            int c = courseIndex.get(courseId);
+            if (c == LongIntHashMap.MISSING || k <= 0) {
+                return new long[0];
+            }
+            int s = studentId != null ? studentIndex.get(studentId) : LongIntHashMap.MISSING;
+            int[] owned = s != LongIntHashMap.MISSING ? baskets[s] : new int[0];
+
+            // Min-heap of the best k so far, in parallel primitive arrays
+            int[] heapCourses = new int[k];
+            double[] heapScores = new double[k];
+            int heapSize = 0;
+            IntIntHashMap row = rows[c];
+            double selfNorm = Math.sqrt(courseStudents[c]);
+            for (int slot = 0; slot < row.capacity(); slot++) {
+                int other = row.keyAt(slot);
+                // A count back at zero is a pair whose shared students all dropped
+                if (other < 0 || row.valueAt(slot) <= 0 || Arrays.binarySearch(owned, other) >= 0) {
+                    continue;
+                }
+                double score = row.valueAt(slot) / (selfNorm * Math.sqrt(courseStudents[other]));
+                if (heapSize < k) {
+                    heapCourses[heapSize] = other;
+                    heapScores[heapSize] = score;
+                    siftUp(heapCourses, heapScores, heapSize++);
+                } else if (score > heapScores[0]) {
+                    heapCourses[0] = other;
+                    heapScores[0] = score;
+                    siftDown(heapCourses, heapScores, heapSize);
+                }
+            }
+
+            long[] result = new long[heapSize];
+            for (int i = heapSize - 1; i >= 0; i--) {
+                result[i] = courseIds[heapCourses[0]];
+                heapCourses[0] = heapCourses[i];
+                heapScores[0] = heapScores[i];
+                siftDown(heapCourses, heapScores, i);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int courseCount() {
+        return courseCount;
+    }
+
+    public int studentCount() {
+        return studentCount;
+    }
+
+    private int courseSlot(long courseId) {
+        int slot = courseIndex.get(courseId);
+        if (slot != LongIntHashMap.MISSING) {
+            return slot;
+        }
+        slot = courseCount++;
+        if (slot == courseIds.length) {
+            courseIds = Arrays.copyOf(courseIds, slot * 2);
+            courseStudents = Arrays.copyOf(courseStudents, slot * 2);
+            rows = Arrays.copyOf(rows, slot * 2);
+        }
+        courseIds[slot] = courseId;
+        rows[slot] = new IntIntHashMap(4);
+        courseIndex.put(courseId, slot);
+        return slot;
+    }
+
+    private int studentSlot(long studentId) {
+        int slot = studentIndex.get(studentId);
+        if (slot != LongIntHashMap.MISSING) {
+            return slot;
+        }
+        slot = studentCount++;
+        if (slot == baskets.length) {
+            baskets = Arrays.copyOf(baskets, slot * 2);
+        }
+        studentIndex.put(studentId, slot);
+        return slot;
+    }
+
+    private static int[] sortedDistinct(int[] values) {
+        Arrays.sort(values);
+        int length = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (i == 0 || values[i] != values[i - 1]) {
+                values[length++] = values[i];
+            }
+        }
+        return length == values.length ? values : Arrays.copyOf(values, length);
+    }
+
+    private static void siftUp(int[] courses, double[] scores, int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (scores[parent] <= scores[i]) {
+                return;
+            }
+            swap(courses, scores, i, parent);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(int[] courses, double[] scores, int size) {
+        int i = 0;
+        while (true) {
+            int smallest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && scores[left] < scores[smallest]) {
+                smallest = left;
+            }
+            if (right < size && scores[right] < scores[smallest]) {
+                smallest = right;
+            }
+            if (smallest == i) {
+                return;
+            }
+            swap(courses, scores, i, smallest);
+            i = smallest;
+        }
+    }
+
+    private static void swap(int[] courses, double[] scores, int a, int b) {
+        int course = courses[a];
+        courses[a] = courses[b];
+        courses[b] = course;
+        double score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+    }
+}
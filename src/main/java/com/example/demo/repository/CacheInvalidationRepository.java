@@ -0,0 +1,26 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.CacheInvalidation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface CacheInvalidationRepository extends JpaRepository<CacheInvalidation, Long> {
+
+    List<CacheInvalidation> findByIdGreaterThanOrderByIdAsc(Long id);
+
+    @Query("select coalesce(max(c.id), 0) from CacheInvalidation c")
+    Long findMaxId();
+
+    @Modifying
+    @Transactional
+    @Query("delete from CacheInvalidation c where c.createdAt < :before")
+    int deleteOlderThan(@Param("before") LocalDateTime before);
+}
@@ -1,14 +1,110 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.CourseFacetCount;
+import com.example.demo.dto.CourseResponseDto;
 import com.example.demo.model.Course;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface CourseRepository extends JpaRepository<Course, Long> {
+    // Constructor projection for list endpoints: one query, no entities, no lazy instructor proxies to initialize
+    String COURSE_SUMMARY = "select new com.example.demo.dto.CourseResponseDto(c.id, c.title, c.description, "
+            + "c.duration, c.classLevel, c.category, c.status, c.thumbnailPath, c.thumbnailSmallPath, "
+            + "c.thumbnailMediumPath, c.thumbnailLargePath, c.thumbnailPlaceholder, i.id, i.name, "
+            + "c.createdAt, c.updatedAt)";
+
     List<Course> findByInstructorId(Long instructorId);
 
+    @Query(COURSE_SUMMARY + " from Course c join c.instructor i where c.id in :ids and c.status = 'Published'")
+    List<CourseResponseDto> findPublishedSummariesByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("select new com.example.demo.dto.CourseFacetCount(c.classLevel, c.category, c.status, count(c)) "
+            + "from Course c group by c.classLevel, c.category, c.status")
+    List<CourseFacetCount> countByFacets();
+
+    // Fetched with its instructor so the course can be cached and serialized outside any session
+    @Query("select c from Course c join fetch c.instructor where c.id = :id")
+    Optional<Course> findWithInstructorById(@Param("id") Long id);
+
     long countByInstructorId(Long instructorId);
+
+    long countByInstructorIdAndStatus(Long instructorId, String status);
+
+    // Keyset page, newest first: rows strictly after the (createdAt, id) of the last row already seen
+    @Query(COURSE_SUMMARY + " from Course c join c.instructor i "
+            + "where (:instructorId is null or i.id = :instructorId) "
+            + "and (:classLevel is null or c.classLevel = :classLevel) "
+            + "and (:category is null or c.category = :category) "
+            + "and (:status is null or c.status = :status) "
+            + "and (:afterCreatedAt is null or c.createdAt < :afterCreatedAt "
+            + "or (c.createdAt = :afterCreatedAt and c.id < :afterId)) "
+            + "order by c.createdAt desc, c.id desc")
+    List<CourseResponseDto> findPage(@Param("instructorId") Long instructorId, @Param("classLevel") String classLevel,
+            @Param("category") String category, @Param("status") String status,
+            @Param("afterCreatedAt") LocalDateTime afterCreatedAt, @Param("afterId") Long afterId,
+            Pageable pageable);
+
+    // Targeted updates for the media workers, so they never overwrite concurrent edits to the rest of the row
+
+    @Modifying
+    @Transactional
+    @Query("update Course c set c.duration = :duration where c.id = :id")
+    int updateDuration(@Param("id") Long id, @Param("duration") String duration);
+
+    @Query("select c from Course c where c.thumbnailPath like '/uploads/%' and c.thumbnailPath not like '/uploads/blobs/%'")
+    List<Course> findWithLegacyThumbnail();
+
+    @Modifying
+    @Transactional
+    @Query("update Course c set c.thumbnailPath = :path where c.id = :id")
+    int updateThumbnailPath(@Param("id") Long id, @Param("path") String path);
+
+    @Modifying
+    @Transactional
+    @Query("update Course c set c.thumbnailSmallPath = :small, c.thumbnailMediumPath = :medium, "
+            + "c.thumbnailLargePath = :large, c.thumbnailPlaceholder = :placeholder where c.id = :id")
+    int updateThumbnailDerivatives(@Param("id") Long id, @Param("small") String small,
+            @Param("medium") String medium, @Param("large") String large,
+            @Param("placeholder") String placeholder);
+
+    @Query("select c.lessonCount from Course c where c.id = :id")
+    Integer findLessonCountById(@Param("id") Long id);
+
+    /**
+     * Counts one more completion slot handed out. Courses from before the
+     * counter start after their highest slot. The row stays locked until the
+     * caller's transaction ends, so concurrent lessons get distinct slots.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "update courses c set c.completion_slots = coalesce(c.completion_slots, "
+            + "(select coalesce(max(l.completion_slot), -1) + 1 from lessons l where l.course_id = c.id)) + 1 "
+            + "where c.id = :id", nativeQuery = true)
+    int incrementCompletionSlots(@Param("id") Long id);
+
+    @Query(value = "select completion_slots from courses where id = :id", nativeQuery = true)
+    Integer findCompletionSlotsById(@Param("id") Long id);
+
+    @Modifying
+    @Transactional
+    @Query(value = "update courses c set lesson_count = (select count(*) from lessons l where l.course_id = c.id) "
+            + "where c.id = :id", nativeQuery = true)
+    int refreshLessonCount(@Param("id") Long id);
+
+    @Modifying
+    @Transactional
+    @Query(value = "update courses c set lesson_count = (select count(*) from lessons l where l.course_id = c.id) "
+            + "where c.lesson_count is null", nativeQuery = true)
+    int fillMissingLessonCounts();
 }
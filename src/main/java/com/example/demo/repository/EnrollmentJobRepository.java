@@ -0,0 +1,38 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.EnrollmentJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface EnrollmentJobRepository extends JpaRepository<EnrollmentJob, Long> {
+
+    Optional<EnrollmentJob> findFirstByCourseIdOrderByIdDesc(Long courseId);
+
+    List<EnrollmentJob> findByStatusOrderByIdAsc(String status);
+
+    @Modifying
+    @Transactional
+    @Query("update EnrollmentJob j set j.status = 'RUNNING', j.updatedAt = :now where j.id = :id and j.status = 'PENDING'")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("update EnrollmentJob j set j.processedStudents = :processed, j.enrolledCount = :enrolled, "
+            + "j.updatedAt = :now where j.id = :id")
+    int updateProgress(@Param("id") Long id, @Param("processed") int processed, @Param("enrolled") int enrolled,
+            @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("update EnrollmentJob j set j.status = 'PENDING' where j.status = 'RUNNING' and j.updatedAt < :staleBefore")
+    int requeueStale(@Param("staleBefore") LocalDateTime staleBefore);
+}
@@ -1,23 +1,214 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.CourseDailyCount;
+import com.example.demo.dto.CourseDetailDto;
+import com.example.demo.dto.CourseResponseDto;
+import com.example.demo.dto.EnrollmentSummaryDto;
+import com.example.demo.dto.StudentCoursePair;
+import com.example.demo.dto.StudentCourseResponse;
 import com.example.demo.model.Enrollment;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface EnrollmentRepository extends JpaRepository<Enrollment, Long> {
+    // Constructor projections for list endpoints, each read in a single query
+
+    String ENROLLMENT_SUMMARY = "select new com.example.demo.dto.EnrollmentSummaryDto(e.id, s.id, s.name, "
+            + "s.email, s.village, s.classLevel, c.id, c.title, c.classLevel, c.category, e.enrollmentDate, "
+            + "e.updatedAt, e.progressPercentage, e.status) from Enrollment e join e.student s join e.course c";
+
+    // Keyset page in id order; one extra row is asked for to tell whether another page follows
+    @Query(ENROLLMENT_SUMMARY + " where (:afterId is null or e.id > :afterId) order by e.id")
+    List<EnrollmentSummaryDto> findSummaryPage(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query(ENROLLMENT_SUMMARY + " where s.id = :studentId order by e.enrollmentDate")
+    List<EnrollmentSummaryDto> findSummariesByStudentId(@Param("studentId") Long studentId);
+
+    @Query(ENROLLMENT_SUMMARY + " where c.id = :courseId order by e.enrollmentDate")
+    List<EnrollmentSummaryDto> findSummariesByCourseId(@Param("courseId") Long courseId);
+
+    @Query(ENROLLMENT_SUMMARY + " where c.instructor.id = :instructorId order by e.enrollmentDate desc")
+    List<EnrollmentSummaryDto> findSummariesByInstructorId(@Param("instructorId") Long instructorId);
+
+    /**
+     * Forward-only read for exports: with this fetch size MySQL Connector/J
+     * streams rows one by one instead of buffering the whole result. The
+     * stream must be consumed and closed inside a read-only transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query(ENROLLMENT_SUMMARY + " where c.instructor.id = :instructorId order by e.id")
+    Stream<EnrollmentSummaryDto> streamSummariesByInstructorId(@Param("instructorId") Long instructorId);
+
+    @Query(CourseRepository.COURSE_SUMMARY
+            + " from Enrollment e join e.course c join c.instructor i where e.student.id = :studentId"
+            + " order by e.enrollmentDate")
+    List<CourseResponseDto> findCoursesByStudentId(@Param("studentId") Long studentId);
+
+    @Query("select new com.example.demo.dto.StudentCourseResponse(c.id, c.title, e.progressPercentage, e.status) "
+            + "from Enrollment e join e.course c where e.student.id = :studentId order by e.enrollmentDate")
+    List<StudentCourseResponse> findStudentCoursesByStudentId(@Param("studentId") Long studentId);
+
+    // Per course and day, so rebuilding the popularity rankings reads far fewer rows than there are enrollments
+    @Query("select new com.example.demo.dto.CourseDailyCount(c.id, c.classLevel, cast(e.enrollmentDate as LocalDate), "
+            + "count(e)) from Enrollment e join e.course c "
+            + "group by c.id, c.classLevel, cast(e.enrollmentDate as LocalDate)")
+    List<CourseDailyCount> countEnrollmentsByCourseAndDay();
+
+    // A completed enrollment is not touched again, so its last update is when it was completed
+    @Query("select new com.example.demo.dto.CourseDailyCount(c.id, c.classLevel, cast(e.updatedAt as LocalDate), "
+            + "count(e)) from Enrollment e join e.course c where e.status = 'COMPLETED' and e.updatedAt is not null "
+            + "group by c.id, c.classLevel, cast(e.updatedAt as LocalDate)")
+    List<CourseDailyCount> countCompletionsByCourseAndDay();
+
+    @Query("select new com.example.demo.dto.StudentCoursePair(e.student.id, e.course.id) from Enrollment e "
+            + "where e.status <> 'DROPPED'")
+    List<StudentCoursePair> findActiveStudentCoursePairs();
+
+    @Query("select e.student.id from Enrollment e where e.course.id = :courseId and e.status <> 'DROPPED'")
+    List<Long> findActiveStudentIdsByCourseId(@Param("courseId") Long courseId);
+
+    /**
+     * Enrolls the students of a class level with ids in (afterId, upToId] who
+     * are not enrolled yet, in one statement; returns how many were added.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "insert ignore into enrollments (student_id, course_id, enrollment_date, updated_at, "
+            + "progress_percentage, completed_lessons, status) select s.id, :courseId, now(), now(), 0, 0, 'ENROLLED' "
+            + "from students s where s.class_level = :classLevel and s.id > :afterId and s.id <= :upToId "
+            + "and not exists "
+            + "(select 1 from enrollments e where e.student_id = s.id and e.course_id = :courseId)", nativeQuery = true)
+    int enrollClassLevelRange(@Param("courseId") Long courseId, @Param("classLevel") String classLevel,
+            @Param("afterId") Long afterId, @Param("upToId") Long upToId);
+
+    @Query("select new com.example.demo.dto.StudentCoursePair(e.student.id, e.course.id) from Enrollment e "
+            + "where e.student.id in :studentIds and e.status <> 'DROPPED'")
+    List<StudentCoursePair> findStudentCoursePairsByStudentIds(@Param("studentIds") Collection<Long> studentIds);
+
+    /**
+     * Enrolls the given students of one class level in every Published course
+     * of that level they are not enrolled in yet; returns how many were added.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "insert ignore into enrollments (student_id, course_id, enrollment_date, updated_at, "
+            + "progress_percentage, completed_lessons, status) select s.id, c.id, now(), now(), 0, 0, 'ENROLLED' "
+            + "from students s join courses c on c.class_level = s.class_level "
+            + "where s.id in (:studentIds) and s.class_level = :classLevel and c.status = 'Published' and not exists "
+            + "(select 1 from enrollments e where e.student_id = s.id and e.course_id = c.id)", nativeQuery = true)
+    int enrollStudentsInPublishedCourses(@Param("classLevel") String classLevel,
+            @Param("studentIds") Collection<Long> studentIds);
+
+    /** Same as above for every student registered since {@code since}. */
+    @Modifying
+    @Transactional
+    @Query(value = "insert ignore into enrollments (student_id, course_id, enrollment_date, updated_at, "
+            + "progress_percentage, completed_lessons, status) select s.id, c.id, now(), now(), 0, 0, 'ENROLLED' "
+            + "from students s join courses c on c.class_level = s.class_level "
+            + "where s.created_at >= :since and c.status = 'Published' and not exists "
+            + "(select 1 from enrollments e where e.student_id = s.id and e.course_id = c.id)", nativeQuery = true)
+    int enrollStudentsRegisteredSince(@Param("since") LocalDateTime since);
+
+    // Entity reads load student and course in the same select; the serialized responses include both
+
+    @Override
+    @EntityGraph(Enrollment.WITH_STUDENT_AND_COURSE)
+    Optional<Enrollment> findById(Long id);
+
+    @EntityGraph(Enrollment.WITH_COURSE)
+    @Query("select e from Enrollment e where e.id in :ids")
+    List<Enrollment> findWithCourseByIdIn(@Param("ids") Collection<Long> ids);
+
+    // No fetch plan: a join here would lock the student and course rows as well
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select e from Enrollment e where e.id = :id")
+    Optional<Enrollment> findForUpdateById(@Param("id") Long id);
+
+    /** Re-derives lesson-based progress after the course's lesson count changed. */
+    @Modifying
+    @Transactional
+    @Query(value = "update enrollments set progress_percentage = least(100, coalesce(completed_lessons, 0) * 100.0 "
+            + "/ :lessonCount) where course_id = :courseId", nativeQuery = true)
+    int updateLessonProgress(@Param("courseId") Long courseId, @Param("lessonCount") int lessonCount);
+
+    /** Moves enrollments whose completed lessons now cover the whole course to COMPLETED. */
+    @Modifying
+    @Transactional
+    @Query(value = "update enrollments set status = 'COMPLETED', updated_at = :now where course_id = :courseId "
+            + "and status = 'ENROLLED' and coalesce(completed_lessons, 0) >= :lessonCount", nativeQuery = true)
+    int completeFinishedLessons(@Param("courseId") Long courseId, @Param("lessonCount") int lessonCount,
+            @Param("now") LocalDateTime now);
+
+    /** Clears a deleted lesson's bit and takes it out of the completed count of every enrollment that has it set. */
+    @Modifying
+    @Transactional
+    @Query(value = "update enrollments set completed_lessons = greatest(coalesce(completed_lessons, 0) - 1, 0), "
+            + "lesson_completion = insert(lesson_completion, :slot div 8 + 1, 1, char(ascii(substring("
+            + "lesson_completion, :slot div 8 + 1, 1)) & ~(1 << (:slot % 8)))) where course_id = :courseId "
+            + "and length(lesson_completion) > :slot div 8 and (ascii(substring("
+            + "lesson_completion, :slot div 8 + 1, 1)) & (1 << (:slot % 8))) <> 0", nativeQuery = true)
+    int uncountCompletedLesson(@Param("courseId") Long courseId, @Param("slot") int slot);
+
+    @EntityGraph(Enrollment.WITH_STUDENT_AND_COURSE)
     List<Enrollment> findByStudentId(Long studentId);
 
+    @EntityGraph(Enrollment.WITH_STUDENT_AND_COURSE)
     List<Enrollment> findByCourseId(Long courseId);
 
     boolean existsByStudentIdAndCourseId(Long studentId, Long courseId);
 
+    /**
+     * Enrolls the student in one statement; returns 1 if the row was added
+     * and 0 if the unique key already had it or the student or course does
+     * not exist. Concurrent calls for the same pair add exactly one row.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "insert ignore into enrollments (student_id, course_id, enrollment_date, updated_at, "
+            + "progress_percentage, completed_lessons, status) select s.id, c.id, now(), now(), 0, 0, 'ENROLLED' "
+            + "from students s join courses c on c.id = :courseId where s.id = :studentId", nativeQuery = true)
+    int insertIfAbsent(@Param("studentId") Long studentId, @Param("courseId") Long courseId);
+
+    /**
+     * Puts a dropped enrollment back to ENROLLED, keeping its progress;
+     * returns 1 for the one call that reactivated it and 0 otherwise.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "update enrollments set status = 'ENROLLED', updated_at = now() where student_id = :studentId "
+            + "and course_id = :courseId and status = 'DROPPED'", nativeQuery = true)
+    int reactivateDropped(@Param("studentId") Long studentId, @Param("courseId") Long courseId);
+
+    long countByCourseId(Long courseId);
+
+    @Query("select new com.example.demo.dto.CourseDetailDto$EnrollmentItem(e.id, e.status, e.progressPercentage, "
+            + "e.enrollmentDate, e.updatedAt) from Enrollment e where e.student.id = :studentId and e.course.id = :courseId")
+    Optional<CourseDetailDto.EnrollmentItem> findItemByStudentIdAndCourseId(@Param("studentId") Long studentId,
+            @Param("courseId") Long courseId);
+
+    @EntityGraph(Enrollment.WITH_STUDENT_AND_COURSE)
     Optional<Enrollment> findByStudentIdAndCourseId(Long studentId, Long courseId);
 
     long countByCourseIdIn(List<Long> courseIds);
 
+    @EntityGraph(Enrollment.WITH_STUDENT_AND_COURSE)
     List<Enrollment> findByCourseInstructorId(Long instructorId);
 }
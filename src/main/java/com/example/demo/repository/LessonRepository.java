@@ -2,11 +2,41 @@ package com.example.demo.repository;
 
 import com.example.demo.model.Lesson;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
 @Repository
 public interface LessonRepository extends JpaRepository<Lesson, Long> {
     List<Lesson> findByCourseIdOrderByOrderIndexAsc(Long courseId);
+
+    // Course fetched too, so the list can be cached and serialized outside any session
+    @Query("select l from Lesson l join fetch l.course where l.course.id = :courseId order by l.orderIndex asc")
+    List<Lesson> findWithCourseByCourseId(@Param("courseId") Long courseId);
+
+    @Query("select l from Lesson l where l.contentUrl like '/uploads/%' and l.contentUrl not like '/uploads/blobs/%'")
+    List<Lesson> findWithLegacyContentUrl();
+
+    @Query("select l from Lesson l where l.completionSlot is null order by l.course.id, l.id")
+    List<Lesson> findWithoutCompletionSlot();
+
+    /**
+     * Per lesson of the course: id, title, orderIndex, enrolled students and
+     * students who completed it, read from the enrollments' completion bits.
+     */
+    @Query(value = "select l.id, l.title, l.order_index, count(e.id), coalesce(sum(case when "
+            + "length(e.lesson_completion) > l.completion_slot div 8 and (ascii(substring(e.lesson_completion, "
+            + "l.completion_slot div 8 + 1, 1)) & (1 << (l.completion_slot % 8))) <> 0 then 1 else 0 end), 0) "
+            + "from lessons l left join enrollments e on e.course_id = l.course_id where l.course_id = :courseId "
+            + "group by l.id, l.title, l.order_index order by l.order_index, l.id", nativeQuery = true)
+    List<Object[]> countCompletionsByLesson(@Param("courseId") Long courseId);
+
+    @Modifying
+    @Transactional
+    @Query("update Lesson l set l.contentUrl = :url where l.id = :id")
+    int updateContentUrl(@Param("id") Long id, @Param("url") String url);
 }
@@ -0,0 +1,44 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.MediaBlob;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Repository
+public interface MediaBlobRepository extends JpaRepository<MediaBlob, String> {
+
+    @Modifying
+    @Transactional
+    @Query("update MediaBlob b set b.refCount = b.refCount + 1 where b.hash = :hash")
+    int incrementRefCount(@Param("hash") String hash);
+
+    /**
+     * Inserts the blob with one reference, or adds a reference when it exists.
+     * MySQL reports 1 for the insert and 2 for the update; either way the row
+     * stays locked until the caller's transaction ends.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "insert into media_blobs (hash, extension, size, ref_count, crc32, created_at) "
+            + "values (:hash, :extension, :size, 1, :crc32, now()) "
+            + "on duplicate key update ref_count = ref_count + 1", nativeQuery = true)
+    int insertOrIncrement(@Param("hash") String hash, @Param("extension") String extension,
+            @Param("size") Long size, @Param("crc32") Long crc32);
+
+    @Modifying
+    @Transactional
+    @Query("update MediaBlob b set b.refCount = b.refCount - 1 where b.hash = :hash and b.refCount > 0")
+    int decrementRefCount(@Param("hash") String hash);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from MediaBlob b where b.hash = :hash")
+    Optional<MediaBlob> findForUpdateByHash(@Param("hash") String hash);
+}
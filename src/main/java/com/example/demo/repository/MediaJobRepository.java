@@ -0,0 +1,39 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.MediaJob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface MediaJobRepository extends JpaRepository<MediaJob, Long> {
+
+    List<MediaJob> findByStatusAndNextRunAtLessThanEqualOrderByNextRunAtAsc(String status, LocalDateTime now,
+            Pageable pageable);
+
+    boolean existsByTypeAndStatusIn(String type, List<String> statuses);
+
+    @Modifying
+    @Transactional
+    @Query("update MediaJob j set j.status = 'RUNNING', j.updatedAt = :now where j.id = :id and j.status = 'PENDING'")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    // Keeps long jobs of a live worker from looking stale
+    @Modifying
+    @Transactional
+    @Query("update MediaJob j set j.updatedAt = :now where j.id in :ids and j.status = 'RUNNING'")
+    int touch(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("update MediaJob j set j.status = 'PENDING' where j.status = 'RUNNING' and j.updatedAt < :staleBefore")
+    int requeueStale(@Param("staleBefore") LocalDateTime staleBefore);
+}
@@ -2,6 +2,8 @@ package com.example.demo.repository;
 
 import com.example.demo.model.Student;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -13,4 +15,7 @@ public interface StudentRepository extends JpaRepository<Student, Long> {
     Optional<Student> findByEmail(String email);
 
     java.util.List<Student> findByClassLevel(String classLevel);
+
+    @Query("select s.id from Student s where s.classLevel = :classLevel order by s.id")
+    java.util.List<Long> findIdsByClassLevel(@Param("classLevel") String classLevel);
 }
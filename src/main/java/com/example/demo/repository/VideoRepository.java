@@ -1,12 +1,29 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.CourseDetailDto;
 import com.example.demo.model.Video;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
 @Repository
 public interface VideoRepository extends JpaRepository<Video, Long> {
     List<Video> findByCourseId(Long courseId);
+
+    @Query("select new com.example.demo.dto.CourseDetailDto$VideoItem(v.id, v.fileName, v.videoPath, v.durationSeconds, "
+            + "v.width, v.height, v.processingStatus) from Video v where v.course.id = :courseId order by v.id")
+    List<CourseDetailDto.VideoItem> findItemsByCourseId(@Param("courseId") Long courseId);
+
+    @Query("select v from Video v where v.videoPath like '/uploads/%' and v.videoPath not like '/uploads/blobs/%'")
+    List<Video> findWithLegacyPath();
+
+    @Modifying
+    @Transactional
+    @Query("update Video v set v.videoPath = :path where v.id = :id")
+    int updateVideoPath(@Param("id") Long id, @Param("path") String path);
 }
@@ -0,0 +1,305 @@
+package com.example.demo.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+
+/**
+ * In-memory inverted index with BM25 ranking. Documents get increasing int
+ * ids, so posting lists only ever append and stay sorted; each is a byte array
+ * of varint (doc id delta, term frequency) pairs. Removing a document clears
+ * its live bit and document frequencies straight away. The dead entries stay
+ * in the postings until enough have piled up to be worth compacting, which
+ * rewrites the postings but never re-tokenizes anything.
+ */
+public class InvertedIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int MAX_PREFIX_EXPANSIONS = 16;
+    private static final int MIN_PREFIX_LENGTH = 3;
+
+    public static class Hit {
+        private final int docId;
+        private final float score;
+
+        private Hit(int docId, float score) {
+            this.docId = docId;
+            this.score = score;
+        }
+
+        public int getDocId() {
+            return docId;
+        }
+
+        public float getScore() {
+            return score;
+        }
+    }
+
+    private static final class PostingList {
+        private byte[] data = new byte[8];
+        private int length;
+        private int lastDoc;
+        private int liveCount;
+
+        private void add(int docId, int frequency) {
+            ensureCapacity(10);
+            length = writeVarint(data, length, docId - lastDoc);
+            length = writeVarint(data, length, frequency);
+            lastDoc = docId;
+            liveCount++;
+        }
+
+        private void ensureCapacity(int extra) {
+            if (length + extra > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, length + extra));
+            }
+        }
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Integer> termIds = new TreeMap<>();
+    private final List<PostingList> postings = new ArrayList<>();
+    private final BitSet live = new BitSet();
+    private int[][] docTerms = new int[1024][];
+    private int[] docLengths = new int[1024];
+    private int nextDocId;
+    private int liveDocs;
+    private int deadPostings;
+    private long totalLength;
+
+    // Per-thread score accumulators and list of scored docs, reused so a query allocates almost nothing
+    private final ThreadLocal<float[]> scratch = ThreadLocal.withInitial(() -> new float[0]);
+    private final ThreadLocal<int[]> touchedScratch = ThreadLocal.withInitial(() -> new int[64]);
+
+    /** Adds a document from term to weighted frequency and returns its id. */
+    public int add(Map<String, Integer> frequencies) {
+        lock.writeLock().lock();
+        try {
+            int docId = nextDocId++;
+            if (docId == docLengths.length) {
+                docLengths = Arrays.copyOf(docLengths, docId * 2);
+                docTerms = Arrays.copyOf(docTerms, docId * 2);
+            }
+            int[] terms = new int[frequencies.size()];
+            int length = 0;
+            int i = 0;
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                Integer termId = termIds.get(entry.getKey());
+                if (termId == null) {
+                    termId = postings.size();
+                    termIds.put(entry.getKey(), termId);
+                    postings.add(new PostingList());
+                }
+                postings.get(termId).add(docId, entry.getValue());
+                terms[i++] = termId;
+                length += entry.getValue();
+            }
+            docTerms[docId] = terms;
+            docLengths[docId] = length;
+            live.set(docId);
+            liveDocs++;
+            totalLength += length;
+            return docId;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int docId) {
+        lock.writeLock().lock();
+        try {
+            if (docId < 0 || docId >= nextDocId || !live.get(docId)) {
+                return;
+            }
+            live.clear(docId);
+            liveDocs--;
+            totalLength -= docLengths[docId];
+            for (int termId : docTerms[docId]) {
+                postings.get(termId).liveCount--;
+            }
+            deadPostings += docTerms[docId].length;
+            docTerms[docId] = null;
+            if (deadPostings > 10_000 && deadPostings > totalPostings() / 4) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveDocs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ranks live documents by BM25 over {@code terms}, treating the last term
+     * also as a prefix so partly typed words still match.
+     */
+    public List<Hit> search(List<String> terms, int limit, IntPredicate filter) {
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            if (liveDocs == 0) {
+                return List.of();
+            }
+            float[] scores = scratch.get();
+            if (scores.length < nextDocId) {
+                scores = new float[Math.max(nextDocId, scores.length * 2)];
+                scratch.set(scores);
+            }
+            int[] touched = touchedScratch.get();
+            int touchedCount = 0;
+            float averageLength = (float) totalLength / liveDocs;
+
+            for (int termId : queryTermIds(terms)) {
+                PostingList list = postings.get(termId);
+                if (list.liveCount == 0) {
+                    continue;
+                }
+                float idf = (float) Math.log(1 + (liveDocs - list.liveCount + 0.5) / (list.liveCount + 0.5));
+                int position = 0;
+                int docId = 0;
+                while (position < list.length) {
+                    long delta = readVarint(list.data, position);
+                    position = (int) (delta >>> 32);
+                    docId += (int) delta;
+                    long frequency = readVarint(list.data, position);
+                    position = (int) (frequency >>> 32);
+                    if (!live.get(docId)) {
+                        continue;
+                    }
+                    float tf = (int) frequency;
+                    float norm = K1 * (1 - B + B * docLengths[docId] / averageLength);
+                    if (scores[docId] == 0) {
+                        if (touchedCount == touched.length) {
+                            touched = Arrays.copyOf(touched, touchedCount * 2);
+                            touchedScratch.set(touched);
+                        }
+                        touched[touchedCount++] = docId;
+                    }
+                    scores[docId] += idf * tf * (K1 + 1) / (tf + norm);
+                }
+            }
+
+            PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1,
+                    (a, b) -> a.score != b.score ? Float.compare(a.score, b.score) : Integer.compare(b.docId, a.docId));
+            for (int i = 0; i < touchedCount; i++) {
+                int docId = touched[i];
+                float score = scores[docId];
+                scores[docId] = 0;
+                if (filter != null && !filter.test(docId)) {
+                    continue;
+                }
+                if (top.size() < limit) {
+                    top.add(new Hit(docId, score));
+                } else if (score > top.peek().score) {
+                    top.poll();
+                    top.add(new Hit(docId, score));
+                }
+            }
+            List<Hit> hits = new ArrayList<>(top);
+            hits.sort((a, b) -> a.score != b.score ? Float.compare(b.score, a.score) : Integer.compare(a.docId, b.docId));
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int[] queryTermIds(List<String> terms) {
+        BitSet seen = new BitSet();
+        for (String term : terms) {
+            Integer termId = termIds.get(term);
+            if (termId != null) {
+                seen.set(termId);
+            }
+        }
+        String last = terms.get(terms.size() - 1);
+        if (last.length() >= MIN_PREFIX_LENGTH) {
+            int expansions = 0;
+            for (Integer termId : termIds.subMap(last, false, last + Character.MAX_VALUE, false).values()) {
+                if (expansions++ == MAX_PREFIX_EXPANSIONS) {
+                    break;
+                }
+                seen.set(termId);
+            }
+        }
+        return seen.stream().toArray();
+    }
+
+    private long totalPostings() {
+        long total = 0;
+        for (PostingList list : postings) {
+            total += list.liveCount;
+        }
+        return total + deadPostings;
+    }
+
+    private void compact() {
+        for (PostingList list : postings) {
+            if (list.liveCount == 0) {
+                list.data = new byte[8];
+                list.length = 0;
+                list.lastDoc = 0;
+                continue;
+            }
+            byte[] data = new byte[Math.max(8, list.length)];
+            int length = 0;
+            int previous = 0;
+            int position = 0;
+            int docId = 0;
+            while (position < list.length) {
+                long delta = readVarint(list.data, position);
+                position = (int) (delta >>> 32);
+                docId += (int) delta;
+                long frequency = readVarint(list.data, position);
+                position = (int) (frequency >>> 32);
+                if (live.get(docId)) {
+                    length = writeVarint(data, length, docId - previous);
+                    length = writeVarint(data, length, (int) frequency);
+                    previous = docId;
+                }
+            }
+            list.data = Arrays.copyOf(data, Math.max(8, length));
+            list.length = length;
+            list.lastDoc = previous;
+        }
+        deadPostings = 0;
+    }
+
+    private static int writeVarint(byte[] data, int position, int value) {
+        while ((value & ~0x7F) != 0) {
+            data[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[position++] = (byte) value;
+        return position;
+    }
+
+    /** Returns the value in the low 32 bits and the position after it in the high 32 bits. */
+    private static long readVarint(byte[] data, int position) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data[position++];
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return ((long) position << 32) | (value & 0xFFFFFFFFL);
+    }
+}
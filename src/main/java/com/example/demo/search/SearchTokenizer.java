@@ -0,0 +1,106 @@
+package com.example.demo.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Splits text into search terms. Indic and other non-Latin scripts keep their
+ * vowel signs and are matched as written. Latin words have their accents
+ * dropped and are folded so the usual romanisations of one regional word
+ * ("vigyaan" / "vigyan", "ganith" / "ganit", "bhasha" / "basha") end up as the
+ * same term. Index and query go through the same folding, so it only has to
+ * be consistent, not linguistically exact.
+ */
+public final class SearchTokenizer {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "by", "for", "in", "is", "of", "on", "or", "the", "to", "with");
+
+    // Applied in order; digraphs before the single letters they contain
+    private static final String[][] LATIN_FOLDS = {
+            { "aa", "a" }, { "ee", "i" }, { "ii", "i" }, { "oo", "u" }, { "uu", "u" },
+            { "chh", "c" }, { "ch", "c" }, { "kh", "k" }, { "gh", "g" }, { "jh", "j" },
+            { "th", "t" }, { "dh", "d" }, { "ph", "f" }, { "bh", "b" }, { "sh", "s" },
+            { "w", "v" }, { "q", "k" } };
+
+    private SearchTokenizer() {
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKD);
+        StringBuilder current = new StringBuilder();
+        boolean latin = false;
+        for (int i = 0; i < normalized.length();) {
+            int cp = normalized.codePointAt(i);
+            i += Character.charCount(cp);
+            int type = Character.getType(cp);
+            if (type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK
+                    || type == Character.ENCLOSING_MARK) {
+                // Vowel signs are part of an Indic word; on Latin letters they are just accents
+                if (current.length() > 0 && !latin) {
+                    current.appendCodePoint(cp);
+                }
+            } else if (type == Character.FORMAT) {
+                // Zero-width joiners inside Indic words do not split them
+                continue;
+            } else if (Character.isLetterOrDigit(cp)) {
+                latin = Character.UnicodeScript.of(cp) == Character.UnicodeScript.LATIN;
+                current.appendCodePoint(Character.toLowerCase(cp));
+            } else {
+                flush(current, tokens);
+            }
+        }
+        flush(current, tokens);
+        return tokens;
+    }
+
+    private static void flush(StringBuilder current, List<String> tokens) {
+        if (current.length() == 0) {
+            return;
+        }
+        String token = current.toString();
+        current.setLength(0);
+        if (STOP_WORDS.contains(token)) {
+            return;
+        }
+        tokens.add(isAsciiWord(token) ? fold(token) : token);
+    }
+
+    static String fold(String token) {
+        String folded = token;
+        for (String[] rule : LATIN_FOLDS) {
+            folded = folded.replace(rule[0], rule[1]);
+        }
+        StringBuilder collapsed = new StringBuilder(folded.length());
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (i == 0 || c != folded.charAt(i - 1) || Character.isDigit(c)) {
+                collapsed.append(c);
+            }
+        }
+        // Light plural stemming: "lessons" and "lesson" are one term
+        if (collapsed.length() > 4 && collapsed.charAt(collapsed.length() - 1) == 's') {
+            collapsed.setLength(collapsed.length() - 1);
+        }
+        return collapsed.toString();
+    }
+
+    private static boolean isAsciiWord(String token) {
+        boolean hasLetter = false;
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (c >= 'a' && c <= 'z') {
+                hasLetter = true;
+            } else if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return hasLetter;
+    }
+}
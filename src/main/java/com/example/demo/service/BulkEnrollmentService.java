@@ -0,0 +1,172 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Course;
+import com.example.demo.model.EnrollmentJob;
+import com.example.demo.repository.CourseRepository;
+import com.example.demo.repository.EnrollmentJobRepository;
+import com.example.demo.repository.EnrollmentRepository;
+import com.example.demo.repository.StudentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enrolls every student of a course's class level when the course is
+ * published. The work is a persisted job run off the request thread: the
+ * students are split into id ranges and each range is enrolled with one
+ * INSERT ... SELECT that skips students already enrolled, so a job (or a
+ * retry of one) can run any number of times. Progress is written to the job
+ * row after every range.
+ */
+@Service
+public class BulkEnrollmentService {
+
+    private static final int CHUNK_SIZE = 1000;
+    // A RUNNING job not touched for this long is assumed to belong to a node that died
+    private static final long STALE_RUNNING_MINUTES = 10;
+
+    private final EnrollmentJobRepository enrollmentJobRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final StudentRepository studentRepository;
+    private final CourseRepository courseRepository;
+    private final CourseRankingService courseRankingService;
+    private final CourseRecommendationService courseRecommendationService;
+    private final ThreadPoolExecutor executor;
+
+    public BulkEnrollmentService(EnrollmentJobRepository enrollmentJobRepository,
+            EnrollmentRepository enrollmentRepository, StudentRepository studentRepository,
+            CourseRepository courseRepository, CourseRankingService courseRankingService,
+            CourseRecommendationService courseRecommendationService,
+            @Value("${enrollment.jobs.queue-capacity:64}") int queueCapacity) {
+        this.enrollmentJobRepository = enrollmentJobRepository;
+        this.enrollmentRepository = enrollmentRepository;
+        this.studentRepository = studentRepository;
+        this.courseRepository = courseRepository;
+        this.courseRankingService = courseRankingService;
+        this.courseRecommendationService = courseRecommendationService;
+        // One job at a time per node keeps the insert load on the database bounded
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "enrollment-worker");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    public EnrollmentJob enqueue(Course course) {
+        EnrollmentJob job = new EnrollmentJob();
+        job.setCourseId(course.getId());
+        job.setClassLevel(course.getClassLevel());
+        job.setStatus("PENDING");
+        job.setProcessedStudents(0);
+        job.setEnrolledCount(0);
+        EnrollmentJob saved = enrollmentJobRepository.save(job);
+        // Inside a transaction the worker could not see the job row until commit
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(saved.getId());
+                }
+            });
+        } else {
+            submit(saved.getId());
+        }
+        return saved;
+    }
+
+    public Optional<EnrollmentJob> getLatestJob(Long courseId) {
+        return enrollmentJobRepository.findFirstByCourseIdOrderByIdDesc(courseId);
+    }
+
+    // Picks up jobs the queue had no room for, and those of nodes that stopped mid-job
+    @Scheduled(fixedDelayString = "${enrollment.jobs.poll-interval-ms:30000}")
+    public void dispatchPendingJobs() {
+        enrollmentJobRepository.requeueStale(LocalDateTime.now().minusMinutes(STALE_RUNNING_MINUTES));
+        for (EnrollmentJob job : enrollmentJobRepository.findByStatusOrderByIdAsc("PENDING")) {
+            if (executor.getQueue().remainingCapacity() == 0) {
+                return;
+            }
+            submit(job.getId());
+        }
+    }
+
+    private void submit(Long jobId) {
+        try {
+            executor.execute(() -> run(jobId));
+        } catch (RejectedExecutionException e) {
+            System.out.println("DEBUG_ENROLL: Enrollment queue full, job " + jobId + " left for the next dispatch");
+        }
+    }
+
+    private void run(Long jobId) {
+        if (enrollmentJobRepository.claim(jobId, LocalDateTime.now()) == 0) {
+            return; // Already taken by another worker or node
+        }
+        EnrollmentJob job = enrollmentJobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            return;
+        }
+        try {
+            Course course = courseRepository.findById(job.getCourseId()).orElse(null);
+            // Unpublished or deleted since the job was queued
+            if (course == null || !"Published".equalsIgnoreCase(course.getStatus()) || course.getClassLevel() == null) {
+                finish(job, 0, "DONE", null);
+                return;
+            }
+            List<Long> studentIds = studentRepository.findIdsByClassLevel(course.getClassLevel());
+            job.setTotalStudents(studentIds.size());
+            enrollmentJobRepository.save(job);
+            System.out.println("DEBUG_ENROLL: Job " + jobId + " enrolling " + studentIds.size()
+                    + " students of class " + course.getClassLevel() + " in course " + course.getId());
+
+            int enrolled = 0;
+            long afterId = 0;
+            for (int start = 0; start < studentIds.size(); start += CHUNK_SIZE) {
+                int end = Math.min(start + CHUNK_SIZE, studentIds.size());
+                long upToId = studentIds.get(end - 1);
+                enrolled += enrollmentRepository.enrollClassLevelRange(course.getId(), course.getClassLevel(),
+                        afterId, upToId);
+                afterId = upToId;
+                enrollmentJobRepository.updateProgress(jobId, end, enrolled, LocalDateTime.now());
+            }
+            // Students who joined the class after the id list was read
+            enrolled += enrollmentRepository.enrollClassLevelRange(course.getId(), course.getClassLevel(), afterId,
+                    Long.MAX_VALUE);
+
+            finish(job, enrolled, "DONE", null);
+            if (enrolled > 0) {
+                courseRankingService.recordEnrollments(course, enrolled);
+                // Adding is idempotent, so the students enrolled before the job are simply skipped
+                enrollmentRepository.findActiveStudentIdsByCourseId(course.getId())
+                        .forEach(studentId -> courseRecommendationService.recordEnrollment(studentId, course.getId()));
+            }
+            System.out.println("DEBUG_ENROLL: Job " + jobId + " enrolled " + enrolled + " new students");
+        } catch (RuntimeException e) {
+            System.out.println("DEBUG_ENROLL: Job " + jobId + " failed: " + e.getMessage());
+            String message = e.getMessage() == null ? e.toString() : e.getMessage();
+            finish(job, null, "FAILED", message.length() > 1000 ? message.substring(0, 1000) : message);
+        }
+    }
+
+    private void finish(EnrollmentJob job, Integer enrolled, String status, String error) {
+        EnrollmentJob current = enrollmentJobRepository.findById(job.getId()).orElse(job);
+        current.setStatus(status);
+        if (enrolled != null) {
+            current.setEnrolledCount(enrolled);
+            current.setProcessedStudents(current.getTotalStudents() != null ? current.getTotalStudents() : 0);
+        }
+        current.setLastError(error);
+        enrollmentJobRepository.save(current);
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.demo.service;
+
+import com.example.demo.cache.BoundedCache;
+import com.example.demo.cache.CacheInvalidationBus;
+import com.example.demo.dto.CourseResponseDto;
+import com.example.demo.dto.CursorPage;
+import com.example.demo.model.Course;
+import com.example.demo.model.Lesson;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Read-through cache for the course catalog: single courses, the lessons of
+ * a course, and pages of the course lists. Writers call the evict methods;
+ * each eviction applies locally at once, again after the surrounding
+ * transaction commits (so a read racing the write cannot re-cache the old
+ * rows), and is then published to the other nodes.
+ *
+ * Cached entities are shared between requests and must be treated as
+ * read-only; services that modify a course load it from the repository.
+ */
+@Service
+public class CatalogCache {
+
+    public static final String COURSES = "courses";
+    public static final String LESSONS = "lessons";
+    public static final String COURSE_PAGES = "coursePages";
+
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final BoundedCache<Long, Course> courses;
+    private final BoundedCache<Long, List<Lesson>> lessons;
+    private final BoundedCache<String, CursorPage<CourseResponseDto>> coursePages;
+
+    public CatalogCache(CacheInvalidationBus cacheInvalidationBus,
+            @Value("${catalog.cache.courses.max-entries:2000}") int maxCourses,
+            @Value("${catalog.cache.lessons.max-entries:2000}") int maxLessonLists,
+            @Value("${catalog.cache.course-pages.max-entries:500}") int maxCoursePages) {
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.courses = new BoundedCache<>(COURSES, maxCourses);
+        this.lessons = new BoundedCache<>(LESSONS, maxLessonLists);
+        this.coursePages = new BoundedCache<>(COURSE_PAGES, maxCoursePages);
+        cacheInvalidationBus.subscribe(this::apply);
+    }
+
+    public Course course(Long courseId, Function<Long, Course> loader) {
+        return courses.get(courseId, loader);
+    }
+
+    public List<Lesson> lessons(Long courseId, Function<Long, List<Lesson>> loader) {
+        return lessons.get(courseId, id -> List.copyOf(loader.apply(id)));
+    }
+
+    public CursorPage<CourseResponseDto> coursePage(String key, Function<String, CursorPage<CourseResponseDto>> loader) {
+        return coursePages.get(key, loader);
+    }
+
+    /** The course itself changed: its entry, its lessons (which embed it) and every list page. */
+    public void evictCourse(Long courseId) {
+        invalidate(COURSES, courseId.toString());
+        invalidate(LESSONS, courseId.toString());
+        invalidate(COURSE_PAGES, null);
+    }
+
+    public void evictLessons(Long courseId) {
+        invalidate(LESSONS, courseId.toString());
+    }
+
+    /** A course was added, so only the lists can be out of date. */
+    public void evictCourseLists() {
+        invalidate(COURSE_PAGES, null);
+    }
+
+    public void evictAll() {
+        invalidate(null, null);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put(COURSES, courses.stats());
+        stats.put(LESSONS, lessons.stats());
+        stats.put(COURSE_PAGES, coursePages.stats());
+        return stats;
+    }
+
+    private void invalidate(String cache, String key) {
+        apply(cache, key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(cache, key);
+                    publish(cache, key);
+                }
+            });
+        } else {
+            publish(cache, key);
+        }
+    }
+
+    private void publish(String cache, String key) {
+        try {
+            cacheInvalidationBus.publish(cache, key);
+        } catch (RuntimeException e) {
+            // The write itself succeeded; other nodes keep their copy until it is evicted or invalidated again
+            System.out.println("DEBUG_CACHE: Failed to publish invalidation of " + cache + "/" + key + ": "
+                    + e.getMessage());
+        }
+    }
+
+    private void apply(String cache, String key) {
+        if (cache == null || COURSES.equals(cache)) {
+            invalidate(courses, key == null ? null : Long.valueOf(key));
+        }
+        if (cache == null || LESSONS.equals(cache)) {
+            invalidate(lessons, key == null ? null : Long.valueOf(key));
+        }
+        if (cache == null || COURSE_PAGES.equals(cache)) {
+            invalidate(coursePages, key);
+        }
+    }
+
+    private static <K> void invalidate(BoundedCache<K, ?> cache, K key) {
+        if (key == null) {
+            cache.invalidateAll();
+        } else {
+            cache.invalidate(key);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.CourseDetailDto;
+import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.model.Course;
+import com.example.demo.model.Instructor;
+import com.example.demo.model.Lesson;
+import com.example.demo.repository.EnrollmentRepository;
+import com.example.demo.repository.VideoRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Assembles the course page in one call. The course (with its instructor)
+ * and its lessons come from the catalog cache; videos, the enrollment count
+ * and the caller's enrollment are one projection query each. The parts are
+ * independent, so they are fetched concurrently on a small pool; when the
+ * pool is saturated the request thread does the work itself.
+ */
+@Service
+public class CourseDetailService {
+
+    private final CourseService courseService;
+    private final LessonService lessonService;
+    private final VideoRepository videoRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final ThreadPoolExecutor executor;
+
+    public CourseDetailService(CourseService courseService, LessonService lessonService,
+            VideoRepository videoRepository, EnrollmentRepository enrollmentRepository,
+            @Value("${course.detail.threads:8}") int threads) {
+        this.courseService = courseService;
+        this.lessonService = lessonService;
+        this.videoRepository = videoRepository;
+        this.enrollmentRepository = enrollmentRepository;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 4), runnable -> {
+                    Thread thread = new Thread(runnable, "course-detail-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    public CourseDetailDto getCourseDetail(Long courseId, Long studentId) {
+        CompletableFuture<Course> course = async(() -> courseService.getCourseById(courseId)
+                .orElseThrow(() -> new ResourceNotFoundException("Course not found with id " + courseId)));
+        CompletableFuture<List<Lesson>> lessons = async(() -> lessonService.getLessonsByCourseId(courseId));
+        CompletableFuture<List<CourseDetailDto.VideoItem>> videos = async(
+                () -> videoRepository.findItemsByCourseId(courseId));
+        CompletableFuture<Long> enrollmentCount = async(() -> enrollmentRepository.countByCourseId(courseId));
+        CompletableFuture<CourseDetailDto.EnrollmentItem> enrollment = studentId == null
+                ? CompletableFuture.completedFuture(null)
+                : async(() -> enrollmentRepository.findItemByStudentIdAndCourseId(studentId, courseId).orElse(null));
+
+        CourseDetailDto detail = new CourseDetailDto();
+        fill(detail, join(course));
+        detail.setLessons(join(lessons).stream()
+                .map(lesson -> new CourseDetailDto.LessonItem(lesson.getId(), lesson.getTitle(),
+                        lesson.getContentType(), lesson.getContentUrl(), lesson.getOrderIndex()))
+                .toList());
+        detail.setVideos(join(videos));
+        detail.setEnrollmentCount(join(enrollmentCount));
+        detail.setEnrollment(join(enrollment));
+        return detail;
+    }
+
+    private void fill(CourseDetailDto detail, Course course) {
+        detail.setId(course.getId());
+        detail.setTitle(course.getTitle());
+        detail.setDescription(course.getDescription());
+        detail.setDuration(course.getDuration());
+        detail.setClassLevel(course.getClassLevel());
+        detail.setCategory(course.getCategory());
+        detail.setStatus(course.getStatus());
+        detail.setThumbnailPath(course.getThumbnailPath());
+        detail.setThumbnailSmallPath(course.getThumbnailSmallPath());
+        detail.setThumbnailMediumPath(course.getThumbnailMediumPath());
+        detail.setThumbnailLargePath(course.getThumbnailLargePath());
+        detail.setThumbnailPlaceholder(course.getThumbnailPlaceholder());
+        detail.setCreatedAt(course.getCreatedAt());
+        detail.setUpdatedAt(course.getUpdatedAt());
+        Instructor instructor = course.getInstructor();
+        if (instructor != null) {
+            detail.setInstructor(new CourseDetailDto.InstructorSummary(instructor.getId(), instructor.getName(),
+                    instructor.getEmail(), instructor.getSpecialization()));
+        }
+    }
+
+    private <T> CompletableFuture<T> async(Supplier<T> supplier) {
+        return CompletableFuture.supplyAsync(supplier, executor);
+    }
+
+    // Surfaces the original exception, so a missing course still maps to 404
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.demo.service;
+
+import com.example.demo.cache.CacheInvalidationBus;
+import com.example.demo.dto.CourseFacetCount;
+import com.example.demo.dto.CourseFacetsDto;
+import com.example.demo.model.Course;
+import com.example.demo.repository.CourseRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Catalog facet counts from an in-memory table of course counts per
+ * (classLevel, category, status) combination. The table is loaded with one
+ * grouped query and then adjusted by the course service on every create,
+ * update and delete, so answering costs time in the number of distinct
+ * combinations, not courses. Changes on other nodes arrive through the
+ * cache invalidation bus and trigger a reload on the next read; a write
+ * that races a reload does too.
+ */
+@Service
+public class CourseFacetService {
+
+    private static final String FACETS = "courseFacets";
+
+    private record FacetKey(String classLevel, String category, String status) {
+    }
+
+    private final CourseRepository courseRepository;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    // Tags this node's own invalidations so it does not reload for its own writes
+    private final String origin = UUID.randomUUID().toString();
+
+    private Map<FacetKey, Long> counts = new HashMap<>();
+    private boolean stale = true;
+    private long changes;
+
+    public CourseFacetService(CourseRepository courseRepository, CacheInvalidationBus cacheInvalidationBus) {
+        this.courseRepository = courseRepository;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        cacheInvalidationBus.subscribe((cache, key) -> {
+            if ((cache == null || FACETS.equals(cache)) && !origin.equals(key)) {
+                markStale();
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reloadIfStale();
+    }
+
+    public CourseFacetsDto getFacets(String classLevel, String category, String status) {
+        reloadIfStale();
+        Map<String, Long> byClassLevel = new TreeMap<>();
+        Map<String, Long> byCategory = new TreeMap<>();
+        Map<String, Long> byStatus = new TreeMap<>();
+        long total = 0;
+        synchronized (this) {
+            for (Map.Entry<FacetKey, Long> entry : counts.entrySet()) {
+                FacetKey key = entry.getKey();
+                long count = entry.getValue();
+                boolean classMatches = matches(classLevel, key.classLevel());
+                boolean categoryMatches = matches(category, key.category());
+                boolean statusMatches = matches(status, key.status());
+                if (categoryMatches && statusMatches) {
+                    add(byClassLevel, key.classLevel(), count);
+                }
+                if (classMatches && statusMatches) {
+                    add(byCategory, key.category(), count);
+                }
+                if (classMatches && categoryMatches) {
+                    add(byStatus, key.status(), count);
+                    if (statusMatches) {
+                        total += count;
+                    }
+                }
+            }
+        }
+        return new CourseFacetsDto(total, byClassLevel, byCategory, byStatus);
+    }
+
+    public void courseCreated(Course course) {
+        synchronized (this) {
+            changes++;
+            adjust(keyOf(course), 1);
+        }
+        publish();
+    }
+
+    /** Takes the facet values the course had before the update. */
+    public void courseUpdated(String oldClassLevel, String oldCategory, String oldStatus, Course course) {
+        FacetKey before = new FacetKey(oldClassLevel, oldCategory, oldStatus);
+        FacetKey after = keyOf(course);
+        if (before.equals(after)) {
+            return;
+        }
+        synchronized (this) {
+            changes++;
+            adjust(before, -1);
+            adjust(after, 1);
+        }
+        publish();
+    }
+
+    public void courseDeleted(Course course) {
+        synchronized (this) {
+            changes++;
+            adjust(keyOf(course), -1);
+        }
+        publish();
+    }
+
+    /** For bulk changes (an instructor's courses deleted with them): reload from the database. */
+    public void invalidate() {
+        markStale();
+        cacheInvalidationBus.publish(FACETS, null);
+    }
+
+    private void reloadIfStale() {
+        long seenChanges;
+        synchronized (this) {
+            if (!stale) {
+                return;
+            }
+            stale = false;
+            seenChanges = changes;
+        }
+        List<CourseFacetCount> rows = courseRepository.countByFacets();
+        Map<FacetKey, Long> loaded = new HashMap<>();
+        for (CourseFacetCount row : rows) {
+            loaded.put(new FacetKey(row.getClassLevel(), row.getCategory(), row.getStatus()), row.getCount());
+        }
+        synchronized (this) {
+            counts = loaded;
+            // A write during the query may or may not be in its result; count again next time
+            if (changes != seenChanges) {
+                stale = true;
+            }
+        }
+    }
+
+    private synchronized void markStale() {
+        stale = true;
+    }
+
+    private void publish() {
+        try {
+            cacheInvalidationBus.publish(FACETS, origin);
+        } catch (RuntimeException e) {
+            System.out.println("DEBUG_FACETS: Failed to publish facet change: " + e.getMessage());
+        }
+    }
+
+    private void adjust(FacetKey key, long delta) {
+        long count = counts.getOrDefault(key, 0L) + delta;
+        if (count > 0) {
+            counts.put(key, count);
+        } else {
+            counts.remove(key);
+        }
+    }
+
+    private static FacetKey keyOf(Course course) {
+        return new FacetKey(course.getClassLevel(), course.getCategory(), course.getStatus());
+    }
+
+    private static boolean matches(String filter, String value) {
+        return filter == null || filter.isBlank() || filter.equals(value);
+    }
+
+    // Courses without a value still count towards the total but get no filter entry
+    private static void add(Map<String, Long> facet, String value, long count) {
+        if (value != null) {
+            facet.merge(value, count, Long::sum);
+        }
+    }
+}
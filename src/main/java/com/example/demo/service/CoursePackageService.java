@@ -0,0 +1,357 @@
+package com.example.demo.service;
+
+import com.example.demo.cache.BoundedCache;
+import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.media.StoredZip;
+import com.example.demo.model.Course;
+import com.example.demo.model.Lesson;
+import com.example.demo.model.MediaBlob;
+import com.example.demo.model.Video;
+import com.example.demo.repository.CourseRepository;
+import com.example.demo.repository.LessonRepository;
+import com.example.demo.repository.MediaBlobRepository;
+import com.example.demo.repository.VideoRepository;
+import com.example.demo.storage.ContentKeys;
+import com.example.demo.storage.ContentStat;
+import com.example.demo.storage.ContentStore;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+
+/**
+ * Builds the offline package for a course: one ZIP with the course metadata,
+ * the ordered lessons, the thumbnail, every video and uploaded lesson file,
+ * and a manifest of per-file checksums and offsets. Media entries are
+ * stored uncompressed and read from the {@link ContentStore} only while the
+ * archive is written, so any byte range of it can be served on its own.
+ */
+@Service
+@RequiredArgsConstructor
+public class CoursePackageService {
+
+    public static final String MANIFEST_ENTRY = "manifest.json";
+
+    private final CourseRepository courseRepository;
+    private final LessonRepository lessonRepository;
+    private final VideoRepository videoRepository;
+    private final MediaBlobRepository mediaBlobRepository;
+    private final ContentStore contentStore;
+    private final ObjectMapper objectMapper;
+
+    // Checksums of media outside the blob store, keyed by content key, size and modification time
+    private final BoundedCache<String, PackageFile> fileChecksums = new BoundedCache<>("package-checksums", 10_000);
+
+    @Getter
+    public static class CoursePackage {
+        private final Long courseId;
+        private final StoredZip zip;
+        private final List<PackageEntry> entries;
+        private final Map<String, Object> manifest;
+        private final String etag;
+        private final String fileName;
+
+        private CoursePackage(Long courseId, StoredZip zip, List<PackageEntry> entries, Map<String, Object> manifest,
+                String etag, String fileName) {
+            this.courseId = courseId;
+            this.zip = zip;
+            this.entries = entries;
+            this.manifest = manifest;
+            this.etag = etag;
+            this.fileName = fileName;
+        }
+    }
+
+    /** One file of the package; media has a content store key, metadata is held in memory. */
+    @Getter
+    public static class PackageEntry {
+        private final String path;
+        private final long size;
+        private final String sha256;
+        private final long crc32;
+        private final long offset;
+        private final String key;
+        private final byte[] data;
+
+        private PackageEntry(String path, long size, String sha256, long crc32, long offset, String key,
+                byte[] data) {
+            this.path = path;
+            this.size = size;
+            this.sha256 = sha256;
+            this.crc32 = crc32;
+            this.offset = offset;
+            this.key = key;
+            this.data = data;
+        }
+    }
+
+    private static class PackageFile {
+        private final String key;
+        private final long size;
+        private final String sha256;
+        private final long crc32;
+
+        private PackageFile(String key, long size, String sha256, long crc32) {
+            this.key = key;
+            this.size = size;
+            this.sha256 = sha256;
+            this.crc32 = crc32;
+        }
+    }
+
+    public CoursePackage build(Long courseId) {
+        Course course = courseRepository.findById(courseId)
+                .orElseThrow(() -> new ResourceNotFoundException("Course not found with id " + courseId));
+        List<Lesson> lessons = lessonRepository.findByCourseIdOrderByOrderIndexAsc(courseId);
+        List<Video> videos = new ArrayList<>(videoRepository.findByCourseId(courseId));
+        videos.sort(Comparator.comparing(Video::getId));
+
+        StoredZip zip = new StoredZip(course.getUpdatedAt());
+        List<PackageEntry> files = new ArrayList<>();
+
+        // Media first, so the metadata can name the entries that actually made it in
+        String thumbnailEntry = addMedia(zip, files, course.getThumbnailPath(), "media/thumbnail");
+
+        List<Map<String, Object>> videoEntries = new ArrayList<>();
+        int index = 1;
+        for (Video video : videos) {
+            String entry = addMedia(zip, files, video.getVideoPath(),
+                    String.format("media/videos/%03d-%s", index++, baseName(video.getFileName())));
+            if (entry == null) {
+                continue;
+            }
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("id", video.getId());
+            item.put("fileName", video.getFileName());
+            item.put("durationSeconds", video.getDurationSeconds());
+            item.put("width", video.getWidth());
+            item.put("height", video.getHeight());
+            item.put("file", entry);
+            videoEntries.add(item);
+        }
+
+        List<Map<String, Object>> lessonEntries = new ArrayList<>();
+        for (Lesson lesson : lessons) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("id", lesson.getId());
+            item.put("title", lesson.getTitle());
+            item.put("contentType", lesson.getContentType());
+            item.put("contentUrl", lesson.getContentUrl());
+            item.put("orderIndex", lesson.getOrderIndex());
+            item.put("file", addMedia(zip, files, lesson.getContentUrl(),
+                    "media/lessons/" + lesson.getId() + "-" + baseName(lesson.getContentUrl())));
+            lessonEntries.add(item);
+        }
+
+        Map<String, Object> courseEntry = new LinkedHashMap<>();
+        courseEntry.put("id", course.getId());
+        courseEntry.put("title", course.getTitle());
+        courseEntry.put("description", course.getDescription());
+        courseEntry.put("duration", course.getDuration());
+        courseEntry.put("classLevel", course.getClassLevel());
+        courseEntry.put("category", course.getCategory());
+        courseEntry.put("status", course.getStatus());
+        courseEntry.put("createdAt", course.getCreatedAt());
+        courseEntry.put("updatedAt", course.getUpdatedAt());
+        courseEntry.put("thumbnail", thumbnailEntry);
+        courseEntry.put("videos", videoEntries);
+        addJson(zip, files, "course.json", courseEntry);
+        addJson(zip, files, "lessons.json", lessonEntries);
+
+        Map<String, Object> manifest = new LinkedHashMap<>();
+        manifest.put("format", 1);
+        manifest.put("courseId", course.getId());
+        manifest.put("updatedAt", course.getUpdatedAt());
+        manifest.put("files", files.stream().map(this::manifestEntry).toList());
+        byte[] manifestBytes = toJson(manifest);
+        zip.addEntry(MANIFEST_ENTRY, manifestBytes);
+        zip.finish();
+
+        // The manifest covers every other byte of the archive, so its hash identifies the package
+        MessageDigest digest = newDigest();
+        String etag = "\"" + HexFormat.of().formatHex(digest.digest(manifestBytes)) + "\"";
+        return new CoursePackage(course.getId(), zip, files, manifest, etag, "course-" + course.getId() + ".zip");
+    }
+
+    /**
+     * Digest of everything {@link #build} reads: the course, video and lesson
+     * rows and, for media outside the content-addressed blob store, each
+     * file's size and modification time. Equal versions mean an equal ETag, so
+     * callers can tell whether a package changed without building it.
+     */
+    public String version(Long courseId) {
+        Course course = courseRepository.findById(courseId)
+                .orElseThrow(() -> new ResourceNotFoundException("Course not found with id " + courseId));
+        List<Video> videos = new ArrayList<>(videoRepository.findByCourseId(courseId));
+        videos.sort(Comparator.comparing(Video::getId));
+
+        List<Object> source = new ArrayList<>();
+        source.add(List.of(String.valueOf(course.getTitle()), String.valueOf(course.getDescription()),
+                String.valueOf(course.getDuration()), String.valueOf(course.getClassLevel()),
+                String.valueOf(course.getCategory()), String.valueOf(course.getStatus()),
+                String.valueOf(course.getCreatedAt()), String.valueOf(course.getUpdatedAt()),
+                mediaVersion(course.getThumbnailPath())));
+        for (Video video : videos) {
+            source.add(List.of(video.getId(), String.valueOf(video.getFileName()),
+                    String.valueOf(video.getDurationSeconds()), String.valueOf(video.getWidth()),
+                    String.valueOf(video.getHeight()), mediaVersion(video.getVideoPath())));
+        }
+        for (Lesson lesson : lessonRepository.findByCourseIdOrderByOrderIndexAsc(courseId)) {
+            source.add(List.of(lesson.getId(), String.valueOf(lesson.getTitle()),
+                    String.valueOf(lesson.getContentType()), String.valueOf(lesson.getOrderIndex()),
+                    mediaVersion(lesson.getContentUrl())));
+        }
+        return HexFormat.of().formatHex(newDigest().digest(toJson(source)));
+    }
+
+    private String mediaVersion(String publicPath) {
+        if (publicPath == null || !publicPath.startsWith(ContentKeys.PUBLIC_PREFIX)) {
+            return String.valueOf(publicPath);
+        }
+        String key;
+        try {
+            key = ContentKeys.fromPublicPath(publicPath);
+        } catch (IllegalArgumentException e) {
+            return publicPath;
+        }
+        if (ContentKeys.blobHash(key) != null) {
+            return publicPath;
+        }
+        try {
+            return contentStore.stat(key)
+                    .map(stat -> publicPath + ":" + stat.getSize() + ":" + stat.getLastModified())
+                    .orElse(publicPath + ":missing");
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read media for package: " + e.getMessage(), e);
+        }
+    }
+
+    private String addMedia(StoredZip zip, List<PackageEntry> files, String publicPath, String entryName) {
+        if (publicPath == null || !publicPath.startsWith(ContentKeys.PUBLIC_PREFIX)) {
+            return null; // External link or nothing uploaded
+        }
+        Optional<PackageFile> described = describe(publicPath);
+        if (described.isEmpty()) {
+            System.out.println("DEBUG_PACKAGE: Media missing, left out of package: " + publicPath);
+            return null;
+        }
+        PackageFile file = described.get();
+        String name = entryName.contains(".") ? entryName : entryName + extensionOf(file.key);
+        long offset = zip.addEntry(name, file.size, file.crc32, (from, length, out) -> {
+            try (InputStream in = contentStore.getRange(file.key, from, length)) {
+                in.transferTo(out);
+            }
+        });
+        files.add(new PackageEntry(name, file.size, file.sha256, file.crc32, offset, file.key, null));
+        return name;
+    }
+
+    private void addJson(StoredZip zip, List<PackageEntry> files, String name, Object value) {
+        byte[] bytes = toJson(value);
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        long offset = zip.addEntry(name, bytes);
+        files.add(new PackageEntry(name, bytes.length, HexFormat.of().formatHex(newDigest().digest(bytes)),
+                crc.getValue(), offset, null, bytes));
+    }
+
+    private Map<String, Object> manifestEntry(PackageEntry file) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("path", file.getPath());
+        entry.put("size", file.getSize());
+        entry.put("sha256", file.getSha256());
+        entry.put("crc32", String.format("%08x", file.getCrc32()));
+        entry.put("offset", file.getOffset());
+        return entry;
+    }
+
+    /**
+     * Blobs already carry their SHA-256 and the CRC the ZIP headers need.
+     * Files outside the blob store are read through once per size and
+     * modification time.
+     */
+    private Optional<PackageFile> describe(String publicPath) {
+        String key;
+        try {
+            key = ContentKeys.fromPublicPath(publicPath);
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        try {
+            String hash = ContentKeys.blobHash(key);
+            MediaBlob blob = hash != null ? mediaBlobRepository.findById(hash).orElse(null) : null;
+            if (blob != null) {
+                return Optional.of(new PackageFile(key, blob.getSize(), blob.getHash(), blob.getCrc32()));
+            }
+            Optional<ContentStat> stat = contentStore.stat(key);
+            if (stat.isEmpty()) {
+                return Optional.empty();
+            }
+            long size = stat.get().getSize();
+            return Optional.of(fileChecksums.get(key + ":" + size + ":" + stat.get().getLastModified(),
+                    cacheKey -> checksum(key, size)));
+        } catch (IOException | UncheckedIOException e) {
+            throw new RuntimeException("Failed to read media for package: " + e.getMessage(), e);
+        }
+    }
+
+    private PackageFile checksum(String key, long size) {
+        MessageDigest digest = newDigest();
+        CRC32 crc = new CRC32();
+        try (InputStream in = new DigestInputStream(
+                new CheckedInputStream(contentStore.getRange(key, 0, size), crc), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new PackageFile(key, size, HexFormat.of().formatHex(digest.digest()), crc.getValue());
+    }
+
+    private byte[] toJson(Object value) {
+        try {
+            return objectMapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to write package metadata: " + e.getMessage(), e);
+        }
+    }
+
+    private static String baseName(String path) {
+        if (path == null) {
+            return "file";
+        }
+        String name = path.substring(path.lastIndexOf('/') + 1).replaceAll("[^A-Za-z0-9._-]", "_");
+        return name.isEmpty() ? "file" : name;
+    }
+
+    private static String extensionOf(String key) {
+        String name = key.substring(key.lastIndexOf('/') + 1);
+        int dot = name.lastIndexOf('.');
+        return dot >= 0 ? name.substring(dot) : "";
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.CourseDailyCount;
+import com.example.demo.dto.CourseResponseDto;
+import com.example.demo.model.Course;
+import com.example.demo.ranking.DecayedRanking;
+import com.example.demo.repository.CourseRepository;
+import com.example.demo.repository.EnrollmentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * "Popular" and "trending" course lists per class level. Enrollments and
+ * completions add to a course's score, and scores decay with a long half-life
+ * for popular and a short one for trending. The enrollment service records
+ * events as they happen; the rankings are rebuilt from per-day counts at
+ * startup and then periodically, which also picks up events recorded on other
+ * nodes. A rebuild can miss or double-count the few events made while it runs.
+ */
+@Service
+public class CourseRankingService {
+
+    private static final double ENROLLMENT_WEIGHT = 1.0;
+    private static final double COMPLETION_WEIGHT = 2.0;
+    private static final double DAY_MILLIS = 24 * 60 * 60 * 1000.0;
+    private static final int DEFAULT_LIMIT = 10;
+    private static final int MAX_LIMIT = 50;
+    // Ranked courses that are unpublished are skipped, so a list may need a few reads to fill
+    private static final int MAX_READS = 3;
+
+    private final CourseRepository courseRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final double popularHalfLifeMillis;
+    private final double trendingHalfLifeMillis;
+
+    private volatile DecayedRanking popular;
+    private volatile DecayedRanking trending;
+
+    public CourseRankingService(CourseRepository courseRepository, EnrollmentRepository enrollmentRepository,
+            @Value("${ranking.popular.half-life-days:30}") double popularHalfLifeDays,
+            @Value("${ranking.trending.half-life-days:3.5}") double trendingHalfLifeDays) {
+        this.courseRepository = courseRepository;
+        this.enrollmentRepository = enrollmentRepository;
+        this.popularHalfLifeMillis = popularHalfLifeDays * DAY_MILLIS;
+        this.trendingHalfLifeMillis = trendingHalfLifeDays * DAY_MILLIS;
+        long now = System.currentTimeMillis();
+        this.popular = new DecayedRanking(popularHalfLifeMillis, now);
+        this.trending = new DecayedRanking(trendingHalfLifeMillis, now);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${ranking.rebuild-interval-ms:3600000}",
+            fixedDelayString = "${ranking.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        DecayedRanking newPopular = new DecayedRanking(popularHalfLifeMillis, started);
+        DecayedRanking newTrending = new DecayedRanking(trendingHalfLifeMillis, started);
+        List<CourseDailyCount> enrollments = enrollmentRepository.countEnrollmentsByCourseAndDay();
+        List<CourseDailyCount> completions = enrollmentRepository.countCompletionsByCourseAndDay();
+        load(enrollments, ENROLLMENT_WEIGHT, newPopular, newTrending);
+        load(completions, COMPLETION_WEIGHT, newPopular, newTrending);
+        popular = newPopular;
+        trending = newTrending;
+        System.out.println("DEBUG_RANKING: Rebuilt course rankings from " + (enrollments.size() + completions.size())
+                + " daily counts in " + (System.currentTimeMillis() - started) + " ms");
+    }
+
+    public void recordEnrollments(Course course, int count) {
+        if (count > 0) {
+            record(course, ENROLLMENT_WEIGHT * count);
+        }
+    }
+
+    public void recordCompletion(Course course) {
+        recordCompletions(course, 1);
+    }
+
+    public void recordCompletions(Course course, int count) {
+        if (count > 0) {
+            record(course, COMPLETION_WEIGHT * count);
+        }
+    }
+
+    /** Moves the course to its current class level. */
+    public void courseUpdated(Course course) {
+        popular.move(course.getId(), course.getClassLevel());
+        trending.move(course.getId(), course.getClassLevel());
+    }
+
+    public void courseDeleted(Long courseId) {
+        popular.remove(courseId);
+        trending.remove(courseId);
+    }
+
+    public List<CourseResponseDto> getPopular(String classLevel, Integer limit) {
+        return topCourses(popular, classLevel, limit);
+    }
+
+    public List<CourseResponseDto> getTrending(String classLevel, Integer limit) {
+        return topCourses(trending, classLevel, limit);
+    }
+
+    private void record(Course course, double weight) {
+        long now = System.currentTimeMillis();
+        popular.add(course.getId(), course.getClassLevel(), weight, now);
+        trending.add(course.getId(), course.getClassLevel(), weight, now);
+    }
+
+    private static void load(List<CourseDailyCount> counts, double weight, DecayedRanking... rankings) {
+        for (CourseDailyCount count : counts) {
+            if (count.getDay() == null) {
+                continue;
+            }
+            // Day granularity is plenty against half-lives of days
+            long time = count.getDay().atTime(LocalTime.NOON).atZone(ZoneId.systemDefault()).toInstant()
+                    .toEpochMilli();
+            for (DecayedRanking ranking : rankings) {
+                ranking.add(count.getCourseId(), count.getClassLevel(), weight * count.getCount(), time);
+            }
+        }
+    }
+
+    private List<CourseResponseDto> topCourses(DecayedRanking ranking, String classLevel, Integer limit) {
+        int size = limit == null || limit <= 0 ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+        String partition = classLevel == null || classLevel.isBlank() ? DecayedRanking.ALL : classLevel;
+        long now = System.currentTimeMillis();
+        List<CourseResponseDto> courses = new ArrayList<>(size);
+        Set<Long> seen = new HashSet<>();
+        int skip = 0;
+        for (int read = 0; read < MAX_READS && courses.size() < size; read++) {
+            List<DecayedRanking.Ranked> ranked = ranking.top(partition, skip, size * 2, now);
+            if (ranked.isEmpty()) {
+                break;
+            }
+            skip += ranked.size();
+            List<Long> ids = ranked.stream().map(DecayedRanking.Ranked::getId).toList();
+            Map<Long, CourseResponseDto> published = new HashMap<>();
+            courseRepository.findPublishedSummariesByIds(ids).forEach(course -> published.put(course.getId(), course));
+            for (Long id : ids) {
+                CourseResponseDto course = published.get(id);
+                if (course != null && courses.size() < size && seen.add(id)) {
+                    courses.add(course);
+                }
+            }
+        }
+        return courses;
+    }
+}
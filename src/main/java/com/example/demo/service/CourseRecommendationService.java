@@ -0,0 +1,125 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.CourseResponseDto;
+import com.example.demo.dto.StudentCoursePair;
+import com.example.demo.recommend.CoEnrollmentIndex;
+import com.example.demo.repository.CourseRepository;
+import com.example.demo.repository.EnrollmentRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * "Students who took this also took" recommendations from a
+ * {@link CoEnrollmentIndex}. The index is built at startup and rebuilt
+ * periodically, which also brings in enrollments made on other nodes; in
+ * between, the enrollment service adds each new enrollment and removes each
+ * dropped one. Changes recorded while a rebuild runs are replayed into the
+ * new index, and both are idempotent, so none are lost or counted twice.
+ */
+@Service
+@RequiredArgsConstructor
+public class CourseRecommendationService {
+
+    private static final int DEFAULT_LIMIT = 6;
+    private static final int MAX_LIMIT = 20;
+
+    private final EnrollmentRepository enrollmentRepository;
+    private final CourseRepository courseRepository;
+
+    private final Object swapLock = new Object();
+    private volatile CoEnrollmentIndex index = CoEnrollmentIndex.empty();
+    private List<long[]> pending; // {student, course, 1 added or 0 dropped}, non-null while a rebuild runs
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${recommendations.rebuild-interval-ms:3600000}",
+            fixedDelayString = "${recommendations.rebuild-interval-ms:3600000}")
+    public synchronized void rebuild() {
+        long started = System.currentTimeMillis();
+        synchronized (swapLock) {
+            pending = new ArrayList<>();
+        }
+        CoEnrollmentIndex built;
+        try {
+            List<StudentCoursePair> pairs = enrollmentRepository.findActiveStudentCoursePairs();
+            long[] studentIds = new long[pairs.size()];
+            long[] courseIds = new long[pairs.size()];
+            for (int i = 0; i < pairs.size(); i++) {
+                studentIds[i] = pairs.get(i).getStudentId();
+                courseIds[i] = pairs.get(i).getCourseId();
+            }
+            built = CoEnrollmentIndex.build(studentIds, courseIds, ForkJoinPool.commonPool());
+        } catch (RuntimeException e) {
+            synchronized (swapLock) {
+                pending = null;
+            }
+            throw e;
+        }
+        synchronized (swapLock) {
+            for (long[] change : pending) {
+                if (change[2] == 1) {
+                    built.add(change[0], change[1]);
+                } else {
+                    built.remove(change[0], change[1]);
+                }
+            }
+            pending = null;
+            index = built;
+        }
+        System.out.println("DEBUG_RECOMMEND: Built co-enrollment index of " + built.courseCount() + " courses and "
+                + built.studentCount() + " students in " + (System.currentTimeMillis() - started) + " ms");
+    }
+
+    public void recordEnrollment(Long studentId, Long courseId) {
+        synchronized (swapLock) {
+            index.add(studentId, courseId);
+            if (pending != null) {
+                pending.add(new long[] { studentId, courseId, 1 });
+            }
+        }
+    }
+
+    public void recordDrop(Long studentId, Long courseId) {
+        synchronized (swapLock) {
+            index.remove(studentId, courseId);
+            if (pending != null) {
+                pending.add(new long[] { studentId, courseId, 0 });
+            }
+        }
+    }
+
+    /**
+     * Published courses most often taken together with this one, leaving out
+     * the ones the student (if given) is already enrolled in.
+     */
+    public List<CourseResponseDto> getRecommendations(Long courseId, Long studentId, Integer limit) {
+        int size = limit == null || limit <= 0 ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+        // Some neighbours may be unpublished, so ask for a few spare
+        long[] ranked = index.topK(courseId, size * 2, studentId);
+        if (ranked.length == 0) {
+            return List.of();
+        }
+        List<Long> ids = new ArrayList<>(ranked.length);
+        for (long id : ranked) {
+            ids.add(id);
+        }
+        Map<Long, CourseResponseDto> published = new HashMap<>();
+        courseRepository.findPublishedSummariesByIds(ids).forEach(course -> published.put(course.getId(), course));
+        List<CourseResponseDto> courses = new ArrayList<>(size);
+        for (Long id : ids) {
+            CourseResponseDto course = published.get(id);
+            if (course != null && courses.size() < size) {
+                courses.add(course);
+            }
+        }
+        return courses;
+    }
+}
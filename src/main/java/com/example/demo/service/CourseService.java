@@ -1,6 +1,9 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.CourseResponseDto;
+import com.example.demo.dto.CursorPage;
 import com.example.demo.model.Course;
+import com.example.demo.model.Video;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
@@ -13,7 +16,8 @@ public interface CourseService {
             String category, String status, Long instructorId,
             MultipartFile thumbnail, List<MultipartFile> videos);
 
-    List<Course> getAllCourses();
+    CursorPage<CourseResponseDto> getCourses(String classLevel, String category, String status, String cursor,
+            Integer limit);
 
     Optional<Course> getCourseById(Long id);
 
@@ -21,5 +25,8 @@ public interface CourseService {
 
     void deleteCourse(Long id);
 
-    List<Course> getCoursesByInstructor(Long instructorId);
+    CursorPage<CourseResponseDto> getCoursesByInstructor(Long instructorId, String classLevel, String category,
+            String status, String cursor, Integer limit);
+
+    List<Video> getCourseVideos(Long courseId);
 }
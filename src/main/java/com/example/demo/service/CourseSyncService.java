@@ -0,0 +1,222 @@
+package com.example.demo.service;
+
+import com.example.demo.cache.BoundedCache;
+import com.example.demo.model.MediaBlockIndex;
+import com.example.demo.repository.MediaBlockIndexRepository;
+import com.example.demo.storage.ContentKeys;
+import com.example.demo.storage.ContentStat;
+import com.example.demo.storage.ContentStore;
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Publishes a Merkle manifest of fixed-size block hashes for a course's
+ * offline package, so a client holding an older copy fetches only the blocks
+ * that changed (as Range requests against the package, guarded by
+ * If-Range). Block hashes of media are keyed by the file's SHA-256 and
+ * stored, so each file is hashed once however many courses or versions use
+ * it; built manifests are cached per course until the package changes,
+ * which is checked against {@link CoursePackageService#version} so an
+ * unchanged package is never rebuilt.
+ */
+@Service
+public class CourseSyncService {
+
+    public static final int BLOCK_SIZE = 1024 * 1024;
+    private static final int HASH_LENGTH = 32;
+
+    private final CoursePackageService coursePackageService;
+    private final MediaBlockIndexRepository mediaBlockIndexRepository;
+    private final ContentStore contentStore;
+
+    private final BoundedCache<Long, SyncManifest> manifests;
+
+    public CourseSyncService(CoursePackageService coursePackageService,
+            MediaBlockIndexRepository mediaBlockIndexRepository, ContentStore contentStore,
+            @Value("${course.sync.manifests.max-entries:200}") int maxManifests) {
+        this.coursePackageService = coursePackageService;
+        this.mediaBlockIndexRepository = mediaBlockIndexRepository;
+        this.contentStore = contentStore;
+        this.manifests = new BoundedCache<>("sync-manifests", maxManifests);
+    }
+
+    /** The ETag is that of the package the manifest describes. */
+    @Getter
+    public static class SyncManifest {
+        private final String etag;
+        private final Map<String, Object> manifest;
+        @Getter(AccessLevel.NONE)
+        private final String version;
+
+        private SyncManifest(String etag, Map<String, Object> manifest, String version) {
+            this.etag = etag;
+            this.manifest = manifest;
+            this.version = version;
+        }
+    }
+
+    public SyncManifest manifest(Long courseId) {
+        String version = coursePackageService.version(courseId);
+        SyncManifest cached = manifests.get(courseId, id -> newManifest(id, version));
+        if (!cached.version.equals(version)) {
+            manifests.invalidate(courseId);
+            cached = manifests.get(courseId, id -> newManifest(id, version));
+        }
+        return cached;
+    }
+
+    public void evict(Long courseId) {
+        manifests.invalidate(courseId);
+    }
+
+    // Tagged with the version read before building: a change in between only costs one extra rebuild
+    private SyncManifest newManifest(Long courseId, String version) {
+        CoursePackageService.CoursePackage coursePackage = coursePackageService.build(courseId);
+        return new SyncManifest(coursePackage.getEtag(), buildManifest(coursePackage), version);
+    }
+
+    /** Hashes the blocks of newly stored media ahead of the first sync request. */
+    public void index(String publicPath) {
+        if (publicPath == null) {
+            return;
+        }
+        try {
+            String key = ContentKeys.fromPublicPath(publicPath);
+            String hash = ContentKeys.blobHash(key);
+            if (hash != null && !mediaBlockIndexRepository.existsById(hash)) {
+                mediaIndex(key, hash);
+            }
+        } catch (IllegalArgumentException | IOException e) {
+            System.out.println("DEBUG_SYNC: Failed to index " + publicPath + ": " + e.getMessage());
+        }
+    }
+
+    private Map<String, Object> buildManifest(CoursePackageService.CoursePackage coursePackage) {
+        List<Map<String, Object>> files = new ArrayList<>();
+        List<byte[]> fileLeaves = new ArrayList<>();
+        for (CoursePackageService.PackageEntry entry : coursePackage.getEntries()) {
+            byte[] blocks;
+            try {
+                blocks = entry.getData() != null
+                        ? hashBlocks(entry.getData())
+                        : mediaIndex(entry.getKey(), entry.getSha256()).getBlockHashes();
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to index " + entry.getPath() + ": " + e.getMessage(), e);
+            }
+            byte[] root = merkleRoot(blocks);
+            List<String> blockList = new ArrayList<>(blocks.length / HASH_LENGTH);
+            for (int i = 0; i < blocks.length; i += HASH_LENGTH) {
+                blockList.add(HexFormat.of().formatHex(blocks, i, i + HASH_LENGTH));
+            }
+
+            Map<String, Object> file = new LinkedHashMap<>();
+            file.put("path", entry.getPath());
+            file.put("size", entry.getSize());
+            file.put("sha256", entry.getSha256());
+            file.put("offset", entry.getOffset());
+            file.put("root", HexFormat.of().formatHex(root));
+            file.put("blocks", blockList);
+            files.add(file);
+
+            // Bind each file root to its path so renames change the course root too
+            MessageDigest digest = newDigest();
+            digest.update(entry.getPath().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            fileLeaves.add(digest.digest(root));
+        }
+
+        ByteArrayOutputStream leaves = new ByteArrayOutputStream();
+        fileLeaves.forEach(leaves::writeBytes);
+
+        Map<String, Object> manifest = new LinkedHashMap<>();
+        manifest.put("format", 1);
+        manifest.put("courseId", coursePackage.getCourseId());
+        manifest.put("package", "/api/courses/" + coursePackage.getCourseId() + "/package");
+        manifest.put("packageEtag", coursePackage.getEtag());
+        manifest.put("blockSize", BLOCK_SIZE);
+        manifest.put("root", HexFormat.of().formatHex(merkleRoot(leaves.toByteArray())));
+        manifest.put("files", files);
+        return manifest;
+    }
+
+    private MediaBlockIndex mediaIndex(String key, String sha256) throws IOException {
+        Optional<MediaBlockIndex> stored = mediaBlockIndexRepository.findById(sha256);
+        if (stored.isPresent() && stored.get().getBlockSize() == BLOCK_SIZE) {
+            return stored.get();
+        }
+        ContentStat stat = contentStore.stat(key)
+                .orElseThrow(() -> new IOException("Media missing: " + key));
+        ByteArrayOutputStream hashes = new ByteArrayOutputStream();
+        byte[] block = new byte[BLOCK_SIZE];
+        try (InputStream in = contentStore.getRange(key, 0, stat.getSize())) {
+            int read;
+            while ((read = in.readNBytes(block, 0, BLOCK_SIZE)) > 0) {
+                MessageDigest digest = newDigest();
+                digest.update(block, 0, read);
+                hashes.writeBytes(digest.digest());
+            }
+        }
+        byte[] blockHashes = hashes.toByteArray();
+        MediaBlockIndex index = new MediaBlockIndex(sha256, BLOCK_SIZE, blockHashes,
+                HexFormat.of().formatHex(merkleRoot(blockHashes)), null);
+        return mediaBlockIndexRepository.save(index);
+    }
+
+    private static byte[] hashBlocks(byte[] data) {
+        ByteArrayOutputStream hashes = new ByteArrayOutputStream();
+        for (int start = 0; start < data.length; start += BLOCK_SIZE) {
+            MessageDigest digest = newDigest();
+            digest.update(data, start, Math.min(BLOCK_SIZE, data.length - start));
+            hashes.writeBytes(digest.digest());
+        }
+        return hashes.toByteArray();
+    }
+
+    /** Pairs hashes level by level; an odd hash out is carried up unchanged. */
+    private static byte[] merkleRoot(byte[] leaves) {
+        if (leaves.length == 0) {
+            return newDigest().digest();
+        }
+        byte[] level = leaves;
+        while (level.length > HASH_LENGTH) {
+            int count = level.length / HASH_LENGTH;
+            byte[] next = new byte[((count + 1) / 2) * HASH_LENGTH];
+            for (int i = 0; i < count; i += 2) {
+                int target = (i / 2) * HASH_LENGTH;
+                if (i + 1 < count) {
+                    MessageDigest digest = newDigest();
+                    digest.update(level, i * HASH_LENGTH, 2 * HASH_LENGTH);
+                    System.arraycopy(digest.digest(), 0, next, target, HASH_LENGTH);
+                } else {
+                    System.arraycopy(level, i * HASH_LENGTH, next, target, HASH_LENGTH);
+                }
+            }
+            level = next;
+        }
+        return Arrays.copyOf(level, HASH_LENGTH);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
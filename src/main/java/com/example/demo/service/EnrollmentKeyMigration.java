@@ -0,0 +1,106 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Enrollment;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * One-off migration that puts the unique (student, course) key on databases
+ * created before it existed. Schema update cannot add it while duplicate
+ * enrollments are present, so those are moved to enrollment_duplicates
+ * first, keeping per pair the row that got furthest (completed, then most
+ * lessons, then highest progress).
+ *
+ * <p>It runs once all beans are built and before the web server starts, so
+ * this node takes no enrollments meanwhile. A named lock makes nodes that
+ * start together take turns, the later ones finding the key already there,
+ * and the table lock keeps nodes already serving from adding a duplicate
+ * between the delete and the alter.
+ */
+@Service
+@RequiredArgsConstructor
+public class EnrollmentKeyMigration implements SmartInitializingSingleton {
+
+    private static final String LOCK_NAME = "enrollments." + Enrollment.STUDENT_COURSE_KEY;
+    private static final int LOCK_TIMEOUT_SECONDS = 300;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        // Lock, key and table lock belong to the session, so everything runs on one connection
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            if (queryInt(connection, "select get_lock('" + LOCK_NAME + "', " + LOCK_TIMEOUT_SECONDS + ")") != 1) {
+                throw new RuntimeException("Timed out waiting for lock " + LOCK_NAME);
+            }
+            try {
+                if (!keyPresent(connection)) {
+                    addKey(connection);
+                }
+            } finally {
+                queryInt(connection, "select release_lock('" + LOCK_NAME + "')");
+            }
+            return null;
+        });
+    }
+
+    private boolean keyPresent(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("select count(*) from "
+                + "information_schema.statistics where table_schema = database() and table_name = 'enrollments' "
+                + "and index_name = ?")) {
+            statement.setString(1, Enrollment.STUDENT_COURSE_KEY);
+            try (ResultSet rows = statement.executeQuery()) {
+                return rows.next() && rows.getInt(1) > 0;
+            }
+        }
+    }
+
+    private void addKey(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table if not exists enrollment_duplicates like enrollments");
+            statement.execute("lock tables enrollments write, enrollment_duplicates write");
+            try {
+                List<Long> duplicates = new ArrayList<>();
+                try (ResultSet rows = statement.executeQuery("select id from (select id, row_number() over "
+                        + "(partition by student_id, course_id order by status = 'COMPLETED' desc, "
+                        + "completed_lessons desc, progress_percentage desc, id) as seq from enrollments) ranked "
+                        + "where seq > 1 order by id")) {
+                    while (rows.next()) {
+                        duplicates.add(rows.getLong(1));
+                    }
+                }
+                if (!duplicates.isEmpty()) {
+                    String ids = duplicates.stream().map(String::valueOf).collect(Collectors.joining(","));
+                    statement.executeUpdate("insert into enrollment_duplicates select * from enrollments "
+                            + "where id in (" + ids + ")");
+                    statement.executeUpdate("delete from enrollments where id in (" + ids + ")");
+                    System.out.println("DEBUG_ENROLLMENT: Moved " + duplicates.size()
+                            + " duplicate enrollments to enrollment_duplicates, ids " + ids);
+                }
+                statement.execute("alter table enrollments add constraint " + Enrollment.STUDENT_COURSE_KEY
+                        + " unique (student_id, course_id)");
+            } finally {
+                statement.execute("unlock tables");
+            }
+            System.out.println("DEBUG_ENROLLMENT: Added unique student/course key " + Enrollment.STUDENT_COURSE_KEY);
+        }
+    }
+
+    private static int queryInt(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet rows = statement.executeQuery(sql)) {
+            return rows.next() ? rows.getInt(1) : 0;
+        }
+    }
+}
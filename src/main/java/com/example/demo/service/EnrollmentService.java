@@ -1,11 +1,15 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.CourseResponseDto;
+import com.example.demo.dto.CursorPage;
+import com.example.demo.dto.EnrollmentResult;
+import com.example.demo.dto.EnrollmentSummaryDto;
 import com.example.demo.model.Enrollment;
 
 import java.util.List;
 
 public interface EnrollmentService {
-    Enrollment enrollStudent(Long studentId, Long courseId);
+    EnrollmentResult enrollStudent(Long studentId, Long courseId);
 
     Enrollment updateProgress(Long enrollmentId, Double progress);
 
@@ -13,9 +17,11 @@ public interface EnrollmentService {
 
     Enrollment dropCourse(Long enrollmentId);
 
-    List<Enrollment> getAllEnrollments();
+    CursorPage<EnrollmentSummaryDto> getAllEnrollments(String cursor, Integer limit);
 
-    List<Enrollment> getStudentEnrollments(Long studentId);
+    List<EnrollmentSummaryDto> getStudentEnrollments(Long studentId);
 
-    List<Enrollment> getCourseEnrollments(Long courseId);
+    List<CourseResponseDto> getStudentCourses(Long studentId);
+
+    List<EnrollmentSummaryDto> getCourseEnrollments(Long courseId);
 }
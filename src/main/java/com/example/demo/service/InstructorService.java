@@ -1,5 +1,8 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.CourseResponseDto;
+import com.example.demo.dto.CursorPage;
+import com.example.demo.dto.EnrollmentSummaryDto;
 import com.example.demo.model.Course;
 import com.example.demo.model.Instructor;
 
@@ -19,9 +22,10 @@ public interface InstructorService {
 
     java.util.Map<String, Object> getDashboardStats(Long id);
 
-    List<com.example.demo.model.Enrollment> getEnrolledStudents(Long instructorId);
+    List<EnrollmentSummaryDto> getEnrolledStudents(Long instructorId);
 
     void removeInstructor(Long id);
 
-    List<Course> getCoursesByInstructor(Long instructorId);
+    CursorPage<CourseResponseDto> getCoursesByInstructor(Long instructorId, String classLevel, String category, String status,
+            String cursor, Integer limit);
 }
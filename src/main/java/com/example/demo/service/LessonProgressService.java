@@ -0,0 +1,164 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.LessonCompletionDto;
+import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.model.Enrollment;
+import com.example.demo.model.Lesson;
+import com.example.demo.repository.CourseRepository;
+import com.example.demo.repository.EnrollmentRepository;
+import com.example.demo.repository.LessonRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Lesson-level completion. Each enrollment keeps a bitset with one bit per
+ * lesson of its course and a count of the bits set, so completing a lesson
+ * updates the course percentage from the count and the course's lesson
+ * count without reading any other rows. A lesson's bit is its
+ * completionSlot, handed out once from a counter on the course when the
+ * lesson is created and never reused, so reordering lessons changes nothing
+ * here and a deleted lesson's bit can never be mistaken for a newer lesson.
+ * Deleting a lesson clears its bit all the same.
+ */
+@Service
+@RequiredArgsConstructor
+public class LessonProgressService {
+
+    // Limited by the size of Enrollment.lessonCompletion
+    public static final int MAX_SLOTS = 512 * 8;
+
+    private final EnrollmentRepository enrollmentRepository;
+    private final LessonRepository lessonRepository;
+    private final CourseRepository courseRepository;
+    private final CourseRankingService courseRankingService;
+    private final CatalogCache catalogCache;
+
+    /** Gives a new lesson the next unused slot of its course; call before saving it. */
+    @Transactional
+    public void assignSlot(Lesson lesson, Long courseId) {
+        if (courseRepository.incrementCompletionSlots(courseId) == 0) {
+            throw new ResourceNotFoundException("Course not found with id: " + courseId);
+        }
+        int slot = courseRepository.findCompletionSlotsById(courseId) - 1;
+        if (slot >= MAX_SLOTS) {
+            throw new RuntimeException("Course " + courseId + " cannot have more than " + MAX_SLOTS + " lessons");
+        }
+        lesson.setCompletionSlot(slot);
+    }
+
+    /**
+     * Recounts the course's lessons after one was added or deleted and
+     * re-derives every enrollment's progress, completing those a deletion
+     * brought to 100%.
+     */
+    public void lessonsChanged(Long courseId) {
+        courseRepository.refreshLessonCount(courseId);
+        Integer lessonCount = courseRepository.findLessonCountById(courseId);
+        if (lessonCount != null && lessonCount > 0) {
+            enrollmentRepository.updateLessonProgress(courseId, lessonCount);
+            int completed = enrollmentRepository.completeFinishedLessons(courseId, lessonCount, LocalDateTime.now());
+            if (completed > 0) {
+                courseRepository.findById(courseId)
+                        .ifPresent(course -> courseRankingService.recordCompletions(course, completed));
+            }
+        }
+        catalogCache.evictCourse(courseId);
+    }
+
+    /** Call before the lesson row is deleted. */
+    public void lessonDeleted(Lesson lesson) {
+        if (lesson.getCompletionSlot() != null) {
+            enrollmentRepository.uncountCompletedLesson(lesson.getCourse().getId(), lesson.getCompletionSlot());
+        }
+    }
+
+    @Transactional
+    public Enrollment completeLesson(Long enrollmentId, Long lessonId) {
+        Enrollment enrollment = enrollmentRepository.findForUpdateById(enrollmentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Enrollment not found with id: " + enrollmentId));
+        Lesson lesson = lessonRepository.findById(lessonId)
+                .orElseThrow(() -> new ResourceNotFoundException("Lesson not found with id: " + lessonId));
+        Long courseId = enrollment.getCourse().getId();
+        if (!Objects.equals(lesson.getCourse().getId(), courseId)) {
+            throw new RuntimeException("Lesson " + lessonId + " is not part of course " + courseId);
+        }
+        int slot = lesson.getCompletionSlot();
+        byte[] bits = enrollment.getLessonCompletion();
+        if (isSet(bits, slot)) {
+            return enrollment;
+        }
+        if (bits == null || bits.length <= slot / 8) {
+            bits = bits == null ? new byte[slot / 8 + 1] : Arrays.copyOf(bits, slot / 8 + 1);
+        }
+        bits[slot / 8] |= (byte) (1 << (slot % 8));
+        enrollment.setLessonCompletion(bits);
+
+        int completed = (enrollment.getCompletedLessons() == null ? 0 : enrollment.getCompletedLessons()) + 1;
+        Integer lessonCount = enrollment.getCourse().getLessonCount();
+        if (lessonCount == null) {
+            lessonCount = courseRepository.findLessonCountById(courseId);
+        }
+        int total = lessonCount == null ? completed : Math.max(lessonCount, completed);
+        enrollment.setCompletedLessons(completed);
+        enrollment.setProgressPercentage(Math.min(100.0, completed * 100.0 / total));
+        boolean completes = completed >= total && !"COMPLETED".equals(enrollment.getStatus());
+        if (completes) {
+            enrollment.setStatus("COMPLETED");
+        }
+        Enrollment saved = enrollmentRepository.save(enrollment);
+        if (completes) {
+            courseRankingService.recordCompletion(saved.getCourse());
+        }
+        return saved;
+    }
+
+    /** The course's lessons the enrollment has completed, in lesson order. */
+    public List<Long> getCompletedLessonIds(Long enrollmentId) {
+        Enrollment enrollment = enrollmentRepository.findById(enrollmentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Enrollment not found with id: " + enrollmentId));
+        byte[] bits = enrollment.getLessonCompletion();
+        return lessonRepository.findByCourseIdOrderByOrderIndexAsc(enrollment.getCourse().getId()).stream()
+                .filter(lesson -> lesson.getCompletionSlot() != null && isSet(bits, lesson.getCompletionSlot()))
+                .map(Lesson::getId)
+                .toList();
+    }
+
+    public List<LessonCompletionDto> getCompletionHistogram(Long courseId) {
+        if (!courseRepository.existsById(courseId)) {
+            throw new ResourceNotFoundException("Course not found with id: " + courseId);
+        }
+        return lessonRepository.countCompletionsByLesson(courseId).stream()
+                .map(row -> new LessonCompletionDto(((Number) row[0]).longValue(), (String) row[1],
+                        row[2] == null ? null : ((Number) row[2]).intValue(), ((Number) row[3]).longValue(),
+                        ((Number) row[4]).longValue()))
+                .toList();
+    }
+
+    /** Slots for lessons created before completion tracking, and lesson counts for their courses. */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void assignMissingSlots() {
+        List<Lesson> lessons = lessonRepository.findWithoutCompletionSlot();
+        for (Lesson lesson : lessons) {
+            assignSlot(lesson, lesson.getCourse().getId());
+        }
+        lessonRepository.saveAll(lessons);
+        int courses = courseRepository.fillMissingLessonCounts();
+        if (!lessons.isEmpty() || courses > 0) {
+            System.out.println("DEBUG_LESSON: Assigned completion slots to " + lessons.size()
+                    + " lessons, counted lessons of " + courses + " courses");
+        }
+    }
+
+    private static boolean isSet(byte[] bits, int slot) {
+        return bits != null && bits.length > slot / 8 && (bits[slot / 8] & (1 << (slot % 8))) != 0;
+    }
+}
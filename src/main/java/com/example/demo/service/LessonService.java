@@ -9,8 +9,11 @@ import com.example.demo.repository.LessonRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
+import java.util.Objects;
 
 @Service
 @RequiredArgsConstructor
@@ -18,6 +21,11 @@ public class LessonService {
 
     private final LessonRepository lessonRepository;
     private final CourseRepository courseRepository;
+    private final MediaBlobService mediaBlobService;
+    private final MediaFingerprintService mediaFingerprintService;
+    private final SearchService searchService;
+    private final CatalogCache catalogCache;
+    private final LessonProgressService lessonProgressService;
 
     @Transactional
     public Lesson createLesson(Long courseId, Lesson lesson) {
@@ -25,14 +33,23 @@ public class LessonService {
                 .orElseThrow(() -> new ResourceNotFoundException("Course not found with id: " + courseId));
 
         lesson.setCourse(course);
-        return lessonRepository.save(lesson);
+        lesson.setContentUrl(mediaFingerprintService.canonicalize(lesson.getContentUrl()));
+        lessonProgressService.assignSlot(lesson, courseId);
+        Lesson saved = lessonRepository.save(lesson);
+        mediaBlobService.retain(saved.getContentUrl());
+        afterCommit(() -> searchService.indexLesson(saved));
+        catalogCache.evictLessons(courseId);
+        lessonProgressService.lessonsChanged(courseId);
+        return saved;
     }
 
     public List<Lesson> getLessonsByCourseId(Long courseId) {
-        if (!courseRepository.existsById(courseId)) {
-            throw new ResourceNotFoundException("Course not found with id: " + courseId);
-        }
-        return lessonRepository.findByCourseIdOrderByOrderIndexAsc(courseId);
+        return catalogCache.lessons(courseId, id -> {
+            if (!courseRepository.existsById(id)) {
+                throw new ResourceNotFoundException("Course not found with id: " + id);
+            }
+            return lessonRepository.findWithCourseByCourseId(id);
+        });
     }
 
     public List<Lesson> getAllLessons() {
@@ -50,17 +67,46 @@ public class LessonService {
 
         existingLesson.setTitle(updatedLesson.getTitle());
         existingLesson.setContentType(updatedLesson.getContentType());
-        existingLesson.setContentUrl(updatedLesson.getContentUrl());
+        String previousUrl = existingLesson.getContentUrl();
+        String contentUrl = mediaFingerprintService.canonicalize(updatedLesson.getContentUrl());
+        existingLesson.setContentUrl(contentUrl);
         existingLesson.setOrderIndex(updatedLesson.getOrderIndex());
 
-        return lessonRepository.save(existingLesson);
+        Lesson saved = lessonRepository.save(existingLesson);
+        if (!Objects.equals(previousUrl, contentUrl)) {
+            mediaBlobService.retain(contentUrl);
+            afterCommit(() -> mediaBlobService.release(previousUrl));
+        }
+        afterCommit(() -> searchService.indexLesson(saved));
+        catalogCache.evictLessons(saved.getCourse().getId());
+        return saved;
     }
 
     @Transactional
     public void deleteLesson(Long lessonId) {
-        if (!lessonRepository.existsById(lessonId)) {
-            throw new ResourceNotFoundException("Lesson not found with id: " + lessonId);
+        Lesson lesson = getLessonById(lessonId);
+        lessonProgressService.lessonDeleted(lesson);
+        lessonRepository.delete(lesson);
+        lessonRepository.flush();
+        afterCommit(() -> {
+            mediaBlobService.release(lesson.getContentUrl());
+            searchService.removeLesson(lessonId);
+        });
+        catalogCache.evictLessons(lesson.getCourse().getId());
+        lessonProgressService.lessonsChanged(lesson.getCourse().getId());
+    }
+
+    // The search index and released media cannot be rolled back, so they follow only a committed change
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
         }
-        lessonRepository.deleteById(lessonId);
     }
 }
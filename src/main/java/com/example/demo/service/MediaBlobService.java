@@ -0,0 +1,16 @@
+package com.example.demo.service;
+
+import com.example.demo.model.MediaBlob;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+
+public interface MediaBlobService {
+    MediaBlob store(InputStream content, String originalFileName);
+
+    MediaBlob adopt(Path file, String originalFileName);
+
+    void retain(String publicPath);
+
+    void release(String publicPath);
+}
@@ -0,0 +1,155 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Course;
+import com.example.demo.model.Lesson;
+import com.example.demo.model.MediaAlias;
+import com.example.demo.model.MediaBlob;
+import com.example.demo.model.Video;
+import com.example.demo.repository.CourseRepository;
+import com.example.demo.repository.LessonRepository;
+import com.example.demo.repository.MediaAliasRepository;
+import com.example.demo.repository.VideoRepository;
+import com.example.demo.storage.ContentKeys;
+import com.example.demo.storage.ContentStat;
+import com.example.demo.storage.ContentStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Moves media stored under the old per-course "/uploads/<courseId>/..." paths
+ * into the content-addressed blob store, so every file is served from a
+ * fingerprinted, immutable URL. Each old path keeps an alias that redirects
+ * to its new location.
+ */
+@Service
+@RequiredArgsConstructor
+public class MediaFingerprintService {
+
+    private final CourseRepository courseRepository;
+    private final VideoRepository videoRepository;
+    private final LessonRepository lessonRepository;
+    private final MediaAliasRepository mediaAliasRepository;
+    private final MediaBlobService mediaBlobService;
+    private final ContentStore contentStore;
+    private final CatalogCache catalogCache;
+    private final TransactionTemplate transactionTemplate;
+
+    public boolean hasLegacyPaths() {
+        return !courseRepository.findWithLegacyThumbnail().isEmpty()
+                || !videoRepository.findWithLegacyPath().isEmpty()
+                || !lessonRepository.findWithLegacyContentUrl().isEmpty();
+    }
+
+    public Optional<String> aliasFor(String publicPath) {
+        return mediaAliasRepository.findById(publicPath).map(MediaAlias::getTargetPath);
+    }
+
+    /**
+     * Rewrites an old upload path to its fingerprinted location when one is
+     * known; any other value is returned unchanged.
+     */
+    public String canonicalize(String url) {
+        if (url == null || !url.startsWith(ContentKeys.PUBLIC_PREFIX)) {
+            return url;
+        }
+        return aliasFor(url).orElse(url);
+    }
+
+    /**
+     * Returns the ids of courses whose thumbnail moved, so their derivatives
+     * can be generated.
+     */
+    public List<Long> migrateLegacyPaths() throws IOException {
+        List<Long> migratedThumbnails = new ArrayList<>();
+        for (Course course : courseRepository.findWithLegacyThumbnail()) {
+            String target = migrate(course.getThumbnailPath(), path -> {
+                courseRepository.updateThumbnailPath(course.getId(), path);
+                catalogCache.evictCourse(course.getId());
+            });
+            if (target != null) {
+                migratedThumbnails.add(course.getId());
+            }
+        }
+        for (Video video : videoRepository.findWithLegacyPath()) {
+            migrate(video.getVideoPath(), path -> videoRepository.updateVideoPath(video.getId(), path));
+        }
+        for (Lesson lesson : lessonRepository.findWithLegacyContentUrl()) {
+            migrate(lesson.getContentUrl(), path -> {
+                lessonRepository.updateContentUrl(lesson.getId(), path);
+                catalogCache.evictLessons(lesson.getCourse().getId());
+            });
+        }
+        return migratedThumbnails;
+    }
+
+    /**
+     * Takes the blob reference, saves the alias and repoints the row in one
+     * transaction, so an interrupted run leaves either all of them or none
+     * and a rerun never counts a reference no row holds. The old file is
+     * deleted only after that commits, so the old URL resolves at every
+     * point in between.
+     */
+    private String migrate(String legacyPath, Consumer<String> repoint) throws IOException {
+        String target;
+        try {
+            target = transactionTemplate.execute(status -> {
+                String path = fingerprint(legacyPath);
+                if (path != null) {
+                    repoint.accept(path);
+                }
+                return path;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (target != null) {
+            contentStore.delete(ContentKeys.fromPublicPath(legacyPath));
+        }
+        return target;
+    }
+
+    private String fingerprint(String legacyPath) {
+        String key;
+        try {
+            key = ContentKeys.fromPublicPath(legacyPath);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        Optional<String> existing = aliasFor(legacyPath);
+        if (existing.isPresent()) {
+            // Same old file referenced from another row, already moved when that row was
+            mediaBlobService.retain(existing.get());
+            return existing.get();
+        }
+        try {
+            return store(legacyPath, key);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String store(String legacyPath, String key) throws IOException {
+        Optional<ContentStat> stat = contentStore.stat(key);
+        if (stat.isEmpty()) {
+            System.out.println("DEBUG_MEDIA: Legacy file missing, left as is: " + legacyPath);
+            return null;
+        }
+        String fileName = key.substring(key.lastIndexOf('/') + 1);
+
+        MediaBlob blob;
+        try (InputStream in = contentStore.getRange(key, 0, stat.get().getSize())) {
+            blob = mediaBlobService.store(in, fileName);
+        }
+        mediaAliasRepository.save(new MediaAlias(legacyPath, blob.getPublicPath(), null));
+        return blob.getPublicPath();
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Course;
+import com.example.demo.model.MediaJob;
+import com.example.demo.model.Video;
+
+public interface MediaJobService {
+    MediaJob enqueueVideo(Video video, String stagedKey);
+
+    MediaJob enqueueThumbnails(Course course);
+}
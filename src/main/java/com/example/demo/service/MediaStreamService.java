@@ -0,0 +1,296 @@
+package com.example.demo.service;
+
+import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.storage.ContentKeys;
+import com.example.demo.storage.ContentStat;
+import com.example.demo.storage.ContentStore;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Serves uploaded media from the {@link ContentStore} with HTTP Range support
+ * (RFC 7233). When the content is on the local filesystem, single ranges are
+ * handed to Tomcat's sendfile when the connector offers it and everything else
+ * is pushed with {@link FileChannel#transferTo}, so file bytes never pass
+ * through heap buffers of our own.
+ */
+@Service
+@RequiredArgsConstructor
+public class MediaStreamService {
+
+    private final ContentStore contentStore;
+
+    private static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    public static final String CACHE_IMMUTABLE = "public, max-age=31536000, immutable";
+    public static final String CACHE_REVALIDATE = "no-cache";
+
+    // More ranges than this in one request is treated as abuse and answered with the full body
+    private static final int MAX_RANGES = 16;
+
+    public String keyFor(String publicPath) {
+        String key;
+        try {
+            key = ContentKeys.fromPublicPath(publicPath);
+        } catch (IllegalArgumentException e) {
+            throw new ResourceNotFoundException("Media file not found: " + publicPath);
+        }
+        if (key.startsWith(ContentKeys.STAGING_PREFIX)) {
+            throw new ResourceNotFoundException("Media file not found: " + publicPath);
+        }
+        return key;
+    }
+
+    public MediaType contentTypeFor(String fileName) {
+        return MediaTypeFactory.getMediaType(fileName).orElse(MediaType.APPLICATION_OCTET_STREAM);
+    }
+
+    public void serve(String key, MediaType contentType, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        serve(key, contentType, CACHE_REVALIDATE, request, response);
+    }
+
+    /**
+     * Content-addressed blobs carry their hash in the key, which doubles as a
+     * strong ETag, so If-None-Match is answered before the store is touched.
+     */
+    public void serve(String key, MediaType contentType, String cacheControl, HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        String hash = ContentKeys.blobHash(key);
+        String etag = hash != null ? "\"" + hash + "\"" : null;
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        if (etag != null) {
+            response.setHeader(HttpHeaders.ETAG, etag);
+            if (noneMatch(request, etag)) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+        }
+
+        ContentStat stat = contentStore.stat(key)
+                .orElseThrow(() -> new ResourceNotFoundException("Media file not found: " + key));
+        long length = stat.getSize();
+        long lastModified = stat.getLastModified();
+        if (etag == null) {
+            etag = "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+            response.setHeader(HttpHeaders.ETAG, etag);
+            if (noneMatch(request, etag)) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+        }
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+
+        List<long[]> ranges = null;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && ifRangeMatches(request, etag, lastModified)) {
+            ranges = parseRanges(rangeHeader, length);
+            if (ranges != null && ranges.isEmpty()) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                return;
+            }
+        }
+        boolean headOnly = "HEAD".equalsIgnoreCase(request.getMethod());
+
+        if (ranges == null) {
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(contentType.toString());
+            response.setContentLengthLong(length);
+            if (!headOnly) {
+                sendSingle(key, 0, length, request, response);
+            }
+            return;
+        }
+
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        if (ranges.size() == 1) {
+            long[] range = ranges.get(0);
+            response.setContentType(contentType.toString());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + range[0] + "-" + range[1] + "/" + length);
+            response.setContentLengthLong(range[1] - range[0] + 1);
+            if (!headOnly) {
+                sendSingle(key, range[0], range[1] - range[0] + 1, request, response);
+            }
+            return;
+        }
+
+        String boundary = UUID.randomUUID().toString().replace("-", "");
+        List<byte[]> partHeaders = new ArrayList<>(ranges.size());
+        long contentLength = 0;
+        for (long[] range : ranges) {
+            byte[] header = ("\r\n--" + boundary + "\r\n"
+                    + HttpHeaders.CONTENT_TYPE + ": " + contentType + "\r\n"
+                    + HttpHeaders.CONTENT_RANGE + ": bytes " + range[0] + "-" + range[1] + "/" + length + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(header);
+            contentLength += header.length + (range[1] - range[0] + 1);
+        }
+        byte[] trailer = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        contentLength += trailer.length;
+
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(contentLength);
+        if (headOnly) {
+            return;
+        }
+        OutputStream out = response.getOutputStream();
+        Optional<Path> file = contentStore.localPath(key);
+        if (file.isPresent()) {
+            WritableByteChannel target = Channels.newChannel(out);
+            try (FileChannel channel = FileChannel.open(file.get(), StandardOpenOption.READ)) {
+                for (int i = 0; i < ranges.size(); i++) {
+                    long[] range = ranges.get(i);
+                    out.write(partHeaders.get(i));
+                    transfer(channel, range[0], range[1] - range[0] + 1, target);
+                }
+            }
+        } else {
+            for (int i = 0; i < ranges.size(); i++) {
+                long[] range = ranges.get(i);
+                out.write(partHeaders.get(i));
+                try (InputStream in = contentStore.getRange(key, range[0], range[1] - range[0] + 1)) {
+                    in.transferTo(out);
+                }
+            }
+        }
+        out.write(trailer);
+        out.flush();
+    }
+
+    private void sendSingle(String key, long start, long count, HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        Optional<Path> file = contentStore.localPath(key);
+        if (file.isEmpty()) {
+            try (InputStream in = contentStore.getRange(key, start, count)) {
+                in.transferTo(response.getOutputStream());
+            }
+            return;
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR))) {
+            // Tomcat writes the region with sendfile once the servlet returns
+            request.setAttribute(SENDFILE_FILENAME_ATTR, file.get().toString());
+            request.setAttribute(SENDFILE_START_ATTR, start);
+            request.setAttribute(SENDFILE_END_ATTR, start + count);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file.get(), StandardOpenOption.READ)) {
+            transfer(channel, start, count, Channels.newChannel(response.getOutputStream()));
+        }
+    }
+
+    private void transfer(FileChannel channel, long position, long count, WritableByteChannel target)
+            throws IOException {
+        while (count > 0) {
+            long sent = channel.transferTo(position, count, target);
+            if (sent <= 0) {
+                break;
+            }
+            position += sent;
+            count -= sent;
+        }
+    }
+
+    private boolean noneMatch(HttpServletRequest request, String etag) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean ifRangeMatches(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+        try {
+            long since = request.getDateHeader(HttpHeaders.IF_RANGE);
+            return since >= 0 && lastModified / 1000 == since / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns inclusive [start, end] pairs, an empty list when no range is
+     * satisfiable, or null when the header should be ignored.
+     */
+    private List<long[]> parseRanges(String header, long length) {
+        if (!header.startsWith("bytes=")) {
+            return null;
+        }
+        String[] specs = header.substring("bytes=".length()).split(",");
+        if (specs.length > MAX_RANGES) {
+            return null;
+        }
+        List<long[]> ranges = new ArrayList<>();
+        for (String spec : specs) {
+            String trimmed = spec.trim();
+            int dash = trimmed.indexOf('-');
+            if (dash < 0) {
+                return null;
+            }
+            try {
+                long start;
+                long end;
+                if (dash == 0) {
+                    long suffix = Long.parseLong(trimmed.substring(1));
+                    if (suffix <= 0) {
+                        continue;
+                    }
+                    start = Math.max(0, length - suffix);
+                    end = length - 1;
+                } else {
+                    start = Long.parseLong(trimmed.substring(0, dash));
+                    String last = trimmed.substring(dash + 1);
+                    long lastPosition = last.isEmpty() ? Long.MAX_VALUE : Long.parseLong(last);
+                    // Only a spec that ends before it starts is invalid; one starting past the end is unsatisfiable
+                    if (lastPosition < start) {
+                        return null;
+                    }
+                    end = Math.min(lastPosition, length - 1);
+                }
+                if (start < length) {
+                    ranges.add(new long[] { start, end });
+                }
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return ranges;
+    }
+}
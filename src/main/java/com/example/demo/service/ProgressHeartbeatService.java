@@ -0,0 +1,378 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ProgressHeartbeatDto;
+import com.example.demo.model.Enrollment;
+import com.example.demo.repository.EnrollmentRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Takes the video player's progress heartbeats without touching the database
+ * per request. Heartbeats are merged per enrollment in memory (the furthest
+ * progress and the latest position win) and written out every few seconds as
+ * two JDBC batches: one for progress and position, one moving enrollments
+ * that reached 100% to COMPLETED. Every accepted heartbeat is first appended
+ * to a local journal and forced to disk, and a journal segment is only
+ * deleted once the flush covering it has committed, so a restart (or a power
+ * cut) replays what had not been written.
+ *
+ * <p>The force is a group commit: a request appends under the lock, then
+ * waits outside it until some force covers its append. One waiting request
+ * forces on behalf of every append made so far while the others wait for
+ * it, so concurrent requests share one fsync instead of queueing for their
+ * own.
+ */
+@Service
+public class ProgressHeartbeatService {
+
+    private static final String SEGMENT_PREFIX = "progress-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    // Courses with lessons take their progress from completed lessons, so the player's figure is only kept for the rest
+    private static final String WITHOUT_LESSONS = "coalesce((select c.lesson_count from courses c "
+            + "where c.id = enrollments.course_id), 0) = 0";
+    private static final String UPDATE_PROGRESS = "update enrollments set "
+            + "progress_percentage = case when " + WITHOUT_LESSONS
+            + " then greatest(coalesce(progress_percentage, 0), ?) else progress_percentage end, "
+            + "last_lesson_id = coalesce(?, last_lesson_id), "
+            + "last_position_seconds = coalesce(?, last_position_seconds), "
+            // A completed row keeps the time it completed at; completion counts per day read it
+            + "updated_at = case when status = 'COMPLETED' then updated_at else ? end where id = ?";
+    private static final String COMPLETE = "update enrollments set status = 'COMPLETED', updated_at = ? "
+            + "where id = ? and status <> 'COMPLETED' and " + WITHOUT_LESSONS;
+
+    private static final class PendingProgress {
+        private double progress;
+        private Long lessonId;
+        private Integer positionSeconds;
+
+        private void merge(double progress, Long lessonId, Integer positionSeconds) {
+            this.progress = Math.max(this.progress, progress);
+            if (lessonId != null) {
+                this.lessonId = lessonId;
+            }
+            if (positionSeconds != null) {
+                this.positionSeconds = positionSeconds;
+            }
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EnrollmentRepository enrollmentRepository;
+    private final CourseRankingService courseRankingService;
+    private final Path journalDir;
+
+    // Guards pending, the open segment and the list of sealed segments
+    private final Object lock = new Object();
+    private Map<Long, PendingProgress> pending = new HashMap<>();
+    private final List<Path> sealed = new ArrayList<>();
+    private FileChannel journal;
+    private Path segment;
+    private long segmentSequence;
+    // Number of appends made to the journal, under lock
+    private long appended;
+
+    // Guards forced and forcing; never held together with lock
+    private final Object syncMonitor = new Object();
+    // Appends known to be on disk, and whether a request is forcing right now
+    private long forced;
+    private boolean forcing;
+
+    public ProgressHeartbeatService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+            EnrollmentRepository enrollmentRepository, CourseRankingService courseRankingService,
+            @Value("${progress.journal.dir:data/progress-journal}") String journalDir) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.enrollmentRepository = enrollmentRepository;
+        this.courseRankingService = courseRankingService;
+        this.journalDir = Paths.get(journalDir);
+        try {
+            Files.createDirectories(this.journalDir);
+            replay();
+            journal = openSegment();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open progress journal in " + journalDir, e);
+        }
+    }
+
+    /** Validates the whole batch, journals it and merges it; returns how many heartbeats were taken. */
+    public int accept(List<ProgressHeartbeatDto> heartbeats) {
+        if (heartbeats == null || heartbeats.isEmpty()) {
+            return 0;
+        }
+        StringBuilder lines = new StringBuilder(heartbeats.size() * 32);
+        for (ProgressHeartbeatDto heartbeat : heartbeats) {
+            if (heartbeat.getEnrollmentId() == null || heartbeat.getProgress() == null) {
+                throw new IllegalArgumentException("Heartbeat needs an enrollmentId and progress");
+            }
+            if (heartbeat.getProgress() < 0 || heartbeat.getProgress() > 100) {
+                throw new IllegalArgumentException("Progress must be between 0 and 100");
+            }
+            if (heartbeat.getPositionSeconds() != null && heartbeat.getPositionSeconds() < 0) {
+                throw new IllegalArgumentException("Position must not be negative");
+            }
+            lines.append(heartbeat.getEnrollmentId()).append(',')
+                    .append(heartbeat.getProgress()).append(',')
+                    .append(heartbeat.getLessonId() == null ? "" : heartbeat.getLessonId()).append(',')
+                    .append(heartbeat.getPositionSeconds() == null ? "" : heartbeat.getPositionSeconds())
+                    .append('\n');
+        }
+        ByteBuffer buffer = StandardCharsets.UTF_8.encode(lines.toString());
+        long sequence;
+        synchronized (lock) {
+            try {
+                while (buffer.hasRemaining()) {
+                    journal.write(buffer);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to journal progress heartbeats", e);
+            }
+            sequence = ++appended;
+            for (ProgressHeartbeatDto heartbeat : heartbeats) {
+                pending.computeIfAbsent(heartbeat.getEnrollmentId(), id -> new PendingProgress())
+                        .merge(heartbeat.getProgress(), heartbeat.getLessonId(), heartbeat.getPositionSeconds());
+            }
+        }
+        // Accepted means on disk: a heartbeat left in the page cache is lost with the machine
+        awaitForced(sequence);
+        return heartbeats.size();
+    }
+
+    /**
+     * Returns once append {@code sequence} is on disk. If no request is
+     * forcing, this one forces everything appended so far; otherwise it waits
+     * for that force and checks again, since the force may have started
+     * before this append.
+     */
+    private void awaitForced(long sequence) {
+        while (true) {
+            synchronized (syncMonitor) {
+                while (forcing && forced < sequence) {
+                    try {
+                        syncMonitor.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RuntimeException("Interrupted waiting for the progress journal");
+                    }
+                }
+                if (forced >= sequence) {
+                    return;
+                }
+                forcing = true;
+            }
+            long target;
+            FileChannel channel;
+            synchronized (lock) {
+                target = appended;
+                channel = journal;
+            }
+            IOException failure = null;
+            try {
+                channel.force(false);
+            } catch (ClosedChannelException e) {
+                // Rotated meanwhile; rotation forces a segment before closing it
+            } catch (IOException e) {
+                failure = e;
+            }
+            synchronized (syncMonitor) {
+                forcing = false;
+                if (failure == null) {
+                    forced = Math.max(forced, target);
+                }
+                syncMonitor.notifyAll();
+            }
+            if (failure != null) {
+                throw new UncheckedIOException("Failed to journal progress heartbeats", failure);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${progress.flush-interval-ms:5000}")
+    public void flush() {
+        Map<Long, PendingProgress> batch;
+        List<Path> covered;
+        synchronized (lock) {
+            if (pending.isEmpty() && sealed.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new HashMap<>();
+            try {
+                // Sealed segments must be on disk whether or not a request forced them yet
+                journal.force(false);
+                journal.close();
+                sealed.add(segment);
+                journal = openSegment();
+            } catch (IOException e) {
+                restore(batch);
+                System.out.println("DEBUG_PROGRESS: Failed to rotate progress journal: " + e.getMessage());
+                return;
+            }
+            covered = new ArrayList<>(sealed);
+        }
+
+        List<Long> completedIds;
+        try {
+            completedIds = write(batch);
+        } catch (RuntimeException e) {
+            // Kept in memory and in the sealed segments until a flush succeeds
+            synchronized (lock) {
+                restore(batch);
+            }
+            System.out.println("DEBUG_PROGRESS: Failed to flush " + batch.size() + " progress updates: "
+                    + e.getMessage());
+            return;
+        }
+
+        synchronized (lock) {
+            sealed.removeAll(covered);
+        }
+        for (Path file : covered) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                System.out.println("DEBUG_PROGRESS: Failed to delete journal segment " + file + ": "
+                        + e.getMessage());
+            }
+        }
+        if (!completedIds.isEmpty()) {
+            for (Enrollment enrollment : enrollmentRepository.findWithCourseByIdIn(completedIds)) {
+                courseRankingService.recordCompletion(enrollment.getCourse());
+            }
+        }
+        if (!batch.isEmpty()) {
+            System.out.println("DEBUG_PROGRESS: Flushed " + batch.size() + " progress updates, "
+                    + completedIds.size() + " completions");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        synchronized (lock) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                System.out.println("DEBUG_PROGRESS: Failed to close progress journal: " + e.getMessage());
+            }
+        }
+    }
+
+    /** Writes the batch in one transaction and returns the enrollments it moved to COMPLETED. */
+    private List<Long> write(Map<Long, PendingProgress> batch) {
+        if (batch.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = new ArrayList<>(batch.keySet());
+        List<Long> finished = ids.stream().filter(id -> batch.get(id).progress >= 100).toList();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.batchUpdate(UPDATE_PROGRESS, ids, ids.size(), (statement, id) -> {
+                PendingProgress progress = batch.get(id);
+                statement.setDouble(1, progress.progress);
+                statement.setObject(2, progress.lessonId);
+                statement.setObject(3, progress.positionSeconds);
+                statement.setTimestamp(4, now);
+                statement.setLong(5, id);
+            });
+            if (finished.isEmpty()) {
+                return List.of();
+            }
+            int[][] counts = jdbcTemplate.batchUpdate(COMPLETE, finished, finished.size(), (statement, id) -> {
+                statement.setTimestamp(1, now);
+                statement.setLong(2, id);
+            });
+            List<Long> completed = new ArrayList<>();
+            for (int i = 0; i < finished.size(); i++) {
+                if (counts[0][i] > 0) {
+                    completed.add(finished.get(i));
+                }
+            }
+            return completed;
+        });
+    }
+
+    /** Puts a batch that failed to write back under newer heartbeats, which keep their position. */
+    private void restore(Map<Long, PendingProgress> batch) {
+        batch.forEach((id, older) -> {
+            PendingProgress newer = pending.get(id);
+            if (newer == null) {
+                pending.put(id, older);
+            } else {
+                newer.progress = Math.max(newer.progress, older.progress);
+                if (newer.lessonId == null) {
+                    newer.lessonId = older.lessonId;
+                }
+                if (newer.positionSeconds == null) {
+                    newer.positionSeconds = older.positionSeconds;
+                }
+            }
+        });
+    }
+
+    private void replay() throws IOException {
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(journalDir)) {
+            segments = files.filter(this::isSegment).sorted().toList();
+        }
+        int replayed = 0;
+        for (Path file : segments) {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                String[] fields = line.split(",", -1);
+                if (fields.length != 4) {
+                    continue; // Torn last line of a crash
+                }
+                try {
+                    pending.computeIfAbsent(Long.parseLong(fields[0]), id -> new PendingProgress()).merge(
+                            Double.parseDouble(fields[1]),
+                            fields[2].isEmpty() ? null : Long.valueOf(fields[2]),
+                            fields[3].isEmpty() ? null : Integer.valueOf(fields[3]));
+                    replayed++;
+                } catch (NumberFormatException e) {
+                    // Torn line, as above
+                }
+            }
+            sealed.add(file);
+        }
+        if (replayed > 0) {
+            System.out.println("DEBUG_PROGRESS: Replayed " + replayed + " heartbeats from " + segments.size()
+                    + " journal segments");
+        }
+    }
+
+    private FileChannel openSegment() throws IOException {
+        // Named so that sorting by name is the order they were written in, also across restarts
+        segment = journalDir.resolve(String.format("%s%013d-%06d%s", SEGMENT_PREFIX, System.currentTimeMillis(),
+                segmentSequence++, SEGMENT_SUFFIX));
+        return FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    private boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+}
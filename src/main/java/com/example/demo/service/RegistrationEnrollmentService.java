@@ -0,0 +1,154 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.StudentCoursePair;
+import com.example.demo.model.Course;
+import com.example.demo.model.Student;
+import com.example.demo.repository.CourseRepository;
+import com.example.demo.repository.EnrollmentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Enrolls newly registered students in the Published courses of their class
+ * level, off the registration request. Registrations are queued per class
+ * level: while a level waits for the worker, further students of it join the
+ * same batch, so a burst of sign-ups becomes one INSERT ... SELECT per level
+ * rather than one per student. The queue is bounded; students it has no room
+ * for, and those queued on a node that stopped, are enrolled by a periodic
+ * sweep over recent registrations.
+ */
+@Service
+public class RegistrationEnrollmentService {
+
+    // How far back the sweep looks; comfortably longer than the sweep interval
+    private static final long SWEEP_LOOKBACK_MINUTES = 60;
+
+    private final EnrollmentRepository enrollmentRepository;
+    private final CourseRepository courseRepository;
+    private final CourseRankingService courseRankingService;
+    private final CourseRecommendationService courseRecommendationService;
+    private final int capacity;
+    private final int batchSize;
+
+    // Class levels with pending students, each listed once however many students it has
+    private final LinkedBlockingQueue<String> levels = new LinkedBlockingQueue<>();
+    private final Map<String, Set<Long>> pending = new HashMap<>();
+    private int pendingCount;
+
+    public RegistrationEnrollmentService(EnrollmentRepository enrollmentRepository,
+            CourseRepository courseRepository, CourseRankingService courseRankingService,
+            CourseRecommendationService courseRecommendationService,
+            @Value("${enrollment.registration.queue-capacity:10000}") int capacity,
+            @Value("${enrollment.registration.batch-size:500}") int batchSize) {
+        this.enrollmentRepository = enrollmentRepository;
+        this.courseRepository = courseRepository;
+        this.courseRankingService = courseRankingService;
+        this.courseRecommendationService = courseRecommendationService;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        Thread worker = new Thread(this::drain, "registration-enrollment");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public void studentRegistered(Student student) {
+        if (student.getId() == null || student.getClassLevel() == null) {
+            return;
+        }
+        synchronized (pending) {
+            if (pendingCount >= capacity) {
+                System.out.println("DEBUG_ENROLL: Registration queue full, student " + student.getId()
+                        + " left for the sweep");
+                return;
+            }
+            Set<Long> students = pending.get(student.getClassLevel());
+            if (students == null) {
+                students = new LinkedHashSet<>();
+                pending.put(student.getClassLevel(), students);
+                levels.add(student.getClassLevel());
+            }
+            if (students.add(student.getId())) {
+                pendingCount++;
+            }
+        }
+    }
+
+    @Scheduled(initialDelayString = "${enrollment.registration.sweep-interval-ms:300000}",
+            fixedDelayString = "${enrollment.registration.sweep-interval-ms:300000}")
+    public void sweep() {
+        int enrolled = enrollmentRepository
+                .enrollStudentsRegisteredSince(LocalDateTime.now().minusMinutes(SWEEP_LOOKBACK_MINUTES));
+        if (enrolled > 0) {
+            // Rankings and recommendations pick these up on their next rebuild
+            System.out.println("DEBUG_ENROLL: Sweep enrolled " + enrolled + " missed registrations");
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            String classLevel;
+            try {
+                classLevel = levels.poll(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (classLevel == null) {
+                continue;
+            }
+            Set<Long> students;
+            synchronized (pending) {
+                students = pending.remove(classLevel);
+                if (students == null) {
+                    continue;
+                }
+                pendingCount -= students.size();
+            }
+            List<Long> ids = new ArrayList<>(students);
+            for (int start = 0; start < ids.size(); start += batchSize) {
+                List<Long> batch = ids.subList(start, Math.min(start + batchSize, ids.size()));
+                try {
+                    enroll(classLevel, batch);
+                } catch (RuntimeException e) {
+                    // The sweep retries these students
+                    System.out.println("DEBUG_ENROLL: Registration enrollment failed for class " + classLevel
+                            + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void enroll(String classLevel, List<Long> studentIds) {
+        int enrolled = enrollmentRepository.enrollStudentsInPublishedCourses(classLevel, studentIds);
+        System.out.println("DEBUG_ENROLL: Enrolled " + studentIds.size() + " new students of class " + classLevel
+                + " with " + enrolled + " enrollments");
+        if (enrolled == 0) {
+            return;
+        }
+        List<StudentCoursePair> pairs = enrollmentRepository.findStudentCoursePairsByStudentIds(studentIds);
+        Map<Long, Long> perCourse = pairs.stream()
+                .collect(Collectors.groupingBy(StudentCoursePair::getCourseId, Collectors.counting()));
+        Map<Long, Course> courses = courseRepository.findAllById(perCourse.keySet()).stream()
+                .collect(Collectors.toMap(Course::getId, Function.identity()));
+        perCourse.forEach((courseId, count) -> {
+            Course course = courses.get(courseId);
+            if (course != null) {
+                courseRankingService.recordEnrollments(course, count.intValue());
+            }
+        });
+        pairs.forEach(pair -> courseRecommendationService.recordEnrollment(pair.getStudentId(), pair.getCourseId()));
+    }
+}
@@ -0,0 +1,293 @@
+package com.example.demo.service;
+
+import com.example.demo.cache.CacheInvalidationBus;
+import com.example.demo.dto.SearchHitDto;
+import com.example.demo.model.Course;
+import com.example.demo.model.Lesson;
+import com.example.demo.repository.CourseRepository;
+import com.example.demo.repository.LessonRepository;
+import com.example.demo.search.InvertedIndex;
+import com.example.demo.search.SearchTokenizer;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Full-text search over course titles, descriptions and categories and over
+ * lesson titles, served from an in-memory {@link InvertedIndex}. The index is
+ * built from the database once at startup and then kept current by the
+ * course and lesson services on every write; an edited document is removed
+ * and added again under a new index id. Each write also publishes the
+ * course id on the cache invalidation bus, and the other nodes re-read that
+ * course and its lessons. A periodic rebuild picks up anything a node missed.
+ */
+@Service
+public class SearchService {
+
+    public static final String TYPE_COURSE = "course";
+    public static final String TYPE_LESSON = "lesson";
+
+    private static final String SEARCH = "search";
+
+    private static final int DEFAULT_LIMIT = 20;
+    private static final int MAX_LIMIT = 100;
+
+    // Term frequency multipliers, so a match in a title outranks one in a description
+    private static final int COURSE_TITLE_WEIGHT = 3;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int LESSON_TITLE_WEIGHT = 2;
+
+    private final CourseRepository courseRepository;
+    private final LessonRepository lessonRepository;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    // Prefixes this node's own publications so it does not re-read its own writes
+    private final String origin = UUID.randomUUID().toString();
+
+    private final InvertedIndex index = new InvertedIndex();
+
+    private static class IndexedDoc {
+        private final String type;
+        private final Long id;
+        private final Long courseId;
+        private final String title;
+
+        private IndexedDoc(String type, Long id, Long courseId, String title) {
+            this.type = type;
+            this.id = id;
+            this.courseId = courseId;
+            this.title = title;
+        }
+    }
+
+    private final Map<Integer, IndexedDoc> docs = new ConcurrentHashMap<>();
+    private final Map<String, Integer> docIdsByKey = new ConcurrentHashMap<>();
+    private final Map<Long, String> courseStatuses = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> lessonIdsByCourse = new ConcurrentHashMap<>();
+
+    public SearchService(CourseRepository courseRepository, LessonRepository lessonRepository,
+            CacheInvalidationBus cacheInvalidationBus) {
+        this.courseRepository = courseRepository;
+        this.lessonRepository = lessonRepository;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        cacheInvalidationBus.subscribe((cache, key) -> {
+            if (cache == null) {
+                rebuild();
+            } else if (SEARCH.equals(cache) && key != null && !key.startsWith(origin + "/")) {
+                refreshCourse(Long.valueOf(key.substring(key.indexOf('/') + 1)));
+            }
+        });
+    }
+
+    /** Re-reads every course and lesson, dropping documents whose rows are gone. */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${search.rebuild-interval-ms:3600000}",
+            fixedDelayString = "${search.rebuild-interval-ms:3600000}")
+    public synchronized void rebuild() {
+        long started = System.currentTimeMillis();
+        Set<Long> courseIds = new HashSet<>();
+        Set<String> lessonKeys = new HashSet<>();
+        for (Course course : courseRepository.findAll()) {
+            applyCourse(course);
+            courseIds.add(course.getId());
+        }
+        for (Lesson lesson : lessonRepository.findAll()) {
+            applyLesson(lesson);
+            lessonKeys.add(key(TYPE_LESSON, lesson.getId()));
+        }
+        for (Long courseId : new ArrayList<>(courseStatuses.keySet())) {
+            if (!courseIds.contains(courseId)) {
+                applyCourseRemoval(courseId);
+            }
+        }
+        for (String key : new ArrayList<>(docIdsByKey.keySet())) {
+            if (key.startsWith(TYPE_LESSON + ":") && !lessonKeys.contains(key)) {
+                applyLessonRemoval(Long.valueOf(key.substring(TYPE_LESSON.length() + 1)));
+            }
+        }
+        System.out.println("DEBUG_SEARCH: Indexed " + index.size() + " documents in "
+                + (System.currentTimeMillis() - started) + " ms");
+    }
+
+    public void indexCourse(Course course) {
+        if (course == null || course.getId() == null) {
+            return;
+        }
+        applyCourse(course);
+        publish(course.getId());
+    }
+
+    /** Drops the course and all of its lessons. */
+    public void removeCourse(Long courseId) {
+        applyCourseRemoval(courseId);
+        publish(courseId);
+    }
+
+    public void indexLesson(Lesson lesson) {
+        if (lesson == null || lesson.getId() == null || lesson.getCourse() == null) {
+            return;
+        }
+        applyLesson(lesson);
+        publish(lesson.getCourse().getId());
+    }
+
+    public void removeLesson(Long lessonId) {
+        IndexedDoc removed = applyLessonRemoval(lessonId);
+        if (removed != null) {
+            publish(removed.courseId);
+        }
+    }
+
+    private synchronized void applyCourse(Course course) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        addTerms(frequencies, course.getTitle(), COURSE_TITLE_WEIGHT);
+        addTerms(frequencies, course.getCategory(), CATEGORY_WEIGHT);
+        addTerms(frequencies, course.getDescription(), DESCRIPTION_WEIGHT);
+        courseStatuses.put(course.getId(), course.getStatus() != null ? course.getStatus() : "Draft");
+        replace(key(TYPE_COURSE, course.getId()), frequencies,
+                new IndexedDoc(TYPE_COURSE, course.getId(), course.getId(), course.getTitle()));
+    }
+
+    private synchronized void applyCourseRemoval(Long courseId) {
+        remove(key(TYPE_COURSE, courseId));
+        Set<Long> lessonIds = lessonIdsByCourse.remove(courseId);
+        if (lessonIds != null) {
+            lessonIds.forEach(lessonId -> remove(key(TYPE_LESSON, lessonId)));
+        }
+        courseStatuses.remove(courseId);
+    }
+
+    private synchronized void applyLesson(Lesson lesson) {
+        Long courseId = lesson.getCourse().getId();
+        Map<String, Integer> frequencies = new HashMap<>();
+        addTerms(frequencies, lesson.getTitle(), LESSON_TITLE_WEIGHT);
+        lessonIdsByCourse.computeIfAbsent(courseId, id -> ConcurrentHashMap.newKeySet()).add(lesson.getId());
+        replace(key(TYPE_LESSON, lesson.getId()), frequencies,
+                new IndexedDoc(TYPE_LESSON, lesson.getId(), courseId, lesson.getTitle()));
+    }
+
+    private synchronized IndexedDoc applyLessonRemoval(Long lessonId) {
+        IndexedDoc removed = remove(key(TYPE_LESSON, lessonId));
+        if (removed != null) {
+            Set<Long> lessonIds = lessonIdsByCourse.get(removed.courseId);
+            if (lessonIds != null) {
+                lessonIds.remove(lessonId);
+            }
+        }
+        return removed;
+    }
+
+    /** Another node changed the course or its lessons: index them as the database has them now. */
+    private void refreshCourse(Long courseId) {
+        Optional<Course> course = courseRepository.findById(courseId);
+        List<Lesson> lessons = course.isPresent() ? lessonRepository.findByCourseIdOrderByOrderIndexAsc(courseId)
+                : List.of();
+        synchronized (this) {
+            if (course.isEmpty()) {
+                applyCourseRemoval(courseId);
+                return;
+            }
+            applyCourse(course.get());
+            Set<Long> current = new HashSet<>();
+            for (Lesson lesson : lessons) {
+                applyLesson(lesson);
+                current.add(lesson.getId());
+            }
+            Set<Long> indexed = lessonIdsByCourse.get(courseId);
+            if (indexed != null) {
+                for (Long lessonId : new ArrayList<>(indexed)) {
+                    if (!current.contains(lessonId)) {
+                        applyLessonRemoval(lessonId);
+                    }
+                }
+            }
+        }
+    }
+
+    // After commit, so that the other nodes read the rows this write committed
+    private void publish(Long courseId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publishNow(courseId);
+                }
+            });
+        } else {
+            publishNow(courseId);
+        }
+    }
+
+    private void publishNow(Long courseId) {
+        try {
+            cacheInvalidationBus.publish(SEARCH, origin + "/" + courseId);
+        } catch (RuntimeException e) {
+            // Indexed here; the other nodes catch up at their next rebuild
+            System.out.println("DEBUG_SEARCH: Failed to publish change of course " + courseId + ": "
+                    + e.getMessage());
+        }
+    }
+
+    /**
+     * Ranks courses and lessons for a query. Lessons count as having the
+     * status of their course; a null status searches everything.
+     */
+    public List<SearchHitDto> search(String query, Integer limit, String status) {
+        int size = limit == null || limit <= 0 ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+        List<String> terms = SearchTokenizer.tokenize(query);
+        List<InvertedIndex.Hit> hits = index.search(terms, size, docId -> {
+            IndexedDoc doc = docs.get(docId);
+            return doc != null && (status == null || status.equalsIgnoreCase(courseStatuses.get(doc.courseId)));
+        });
+        List<SearchHitDto> results = new ArrayList<>(hits.size());
+        for (InvertedIndex.Hit hit : hits) {
+            IndexedDoc doc = docs.get(hit.getDocId());
+            if (doc != null) {
+                results.add(new SearchHitDto(doc.type, doc.id, doc.courseId, doc.title, hit.getScore()));
+            }
+        }
+        return results;
+    }
+
+    private void replace(String key, Map<String, Integer> frequencies, IndexedDoc doc) {
+        remove(key);
+        if (frequencies.isEmpty()) {
+            return;
+        }
+        int docId = index.add(frequencies);
+        docs.put(docId, doc);
+        docIdsByKey.put(key, docId);
+    }
+
+    private IndexedDoc remove(String key) {
+        Integer docId = docIdsByKey.remove(key);
+        if (docId == null) {
+            return null;
+        }
+        index.remove(docId);
+        return docs.remove(docId);
+    }
+
+    private static void addTerms(Map<String, Integer> frequencies, String text, int weight) {
+        for (String term : SearchTokenizer.tokenize(text)) {
+            frequencies.merge(term, weight, Integer::sum);
+        }
+    }
+
+    private static String key(String type, Long id) {
+        return type + ":" + id;
+    }
+}
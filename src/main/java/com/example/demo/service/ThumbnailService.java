@@ -0,0 +1,199 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Course;
+import com.example.demo.model.MediaBlob;
+import com.example.demo.repository.CourseRepository;
+import com.example.demo.storage.ContentKeys;
+import com.example.demo.storage.ContentStat;
+import com.example.demo.storage.ContentStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.ConvolveOp;
+import java.awt.image.Kernel;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class ThumbnailService {
+
+    private final CourseRepository courseRepository;
+    private final ContentStore contentStore;
+    private final MediaBlobService mediaBlobService;
+    private final CatalogCache catalogCache;
+
+    public static final int SMALL_WIDTH = 160;
+    public static final int MEDIUM_WIDTH = 320;
+    public static final int LARGE_WIDTH = 640;
+    private static final int PLACEHOLDER_WIDTH = 16;
+    private static final float JPEG_QUALITY = 0.8f;
+
+    /**
+     * Picks the stored path for a requested size ("sm", "md", "lg" or
+     * "original"), falling back to the original while derivatives are pending.
+     */
+    public String pathForSize(Course course, String size) {
+        String path = switch (size == null ? "" : size.toLowerCase()) {
+            case "sm", "small" -> course.getThumbnailSmallPath();
+            case "md", "medium" -> course.getThumbnailMediumPath();
+            case "lg", "large" -> course.getThumbnailLargePath();
+            default -> null;
+        };
+        return path != null ? path : course.getThumbnailPath();
+    }
+
+    public void generateDerivatives(Long courseId) throws IOException {
+        Course course = courseRepository.findById(courseId).orElse(null);
+        if (course == null || course.getThumbnailPath() == null) {
+            return;
+        }
+        String key = ContentKeys.fromPublicPath(course.getThumbnailPath());
+        ContentStat stat = contentStore.stat(key)
+                .orElseThrow(() -> new IOException("Thumbnail missing from store: " + key));
+        BufferedImage source;
+        try (InputStream in = contentStore.getRange(key, 0, stat.getSize())) {
+            source = decode(in, LARGE_WIDTH * 2);
+        }
+        if (source == null) {
+            System.out.println("DEBUG_THUMBNAIL: Course " + courseId + " thumbnail is not a readable image");
+            return;
+        }
+
+        List<String> previous = Arrays.asList(course.getThumbnailSmallPath(), course.getThumbnailMediumPath(),
+                course.getThumbnailLargePath());
+        List<String> stored = new ArrayList<>();
+        String placeholder;
+        try {
+            for (int width : new int[] { SMALL_WIDTH, MEDIUM_WIDTH, LARGE_WIDTH }) {
+                stored.add(storeJpeg(scaleToWidth(source, width)));
+            }
+            placeholder = placeholder(source);
+        } catch (IOException | RuntimeException e) {
+            stored.forEach(mediaBlobService::release);
+            throw e;
+        }
+        if (courseRepository.updateThumbnailDerivatives(courseId, stored.get(0), stored.get(1), stored.get(2),
+                placeholder) == 0) {
+            // Course deleted while the job ran; its deletion could not have released these
+            stored.forEach(mediaBlobService::release);
+            return;
+        }
+        catalogCache.evictCourse(courseId);
+        previous.forEach(mediaBlobService::release);
+    }
+
+    // Subsampled decode: a 12 MP camera JPEG never has to be fully materialised to make a 640px thumbnail
+    BufferedImage decode(InputStream in, int minWidth) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(in)) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int factor = Math.max(1, reader.getWidth(0) / minWidth);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(factor, factor, 0, 0);
+                return toRgb(reader.read(0, param));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    BufferedImage scaleToWidth(BufferedImage source, int width) {
+        BufferedImage current = source;
+        int targetWidth = Math.min(width, source.getWidth());
+        int targetHeight = Math.max(1, Math.round((float) source.getHeight() * targetWidth / source.getWidth()));
+        // Halve repeatedly first; a single bilinear step from a large image aliases badly
+        while (current.getWidth() / 2 >= targetWidth) {
+            current = resize(current, current.getWidth() / 2, Math.max(1, current.getHeight() / 2));
+        }
+        if (current.getWidth() != targetWidth) {
+            current = resize(current, targetWidth, targetHeight);
+        }
+        return current;
+    }
+
+    private BufferedImage resize(BufferedImage source, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    private BufferedImage toRgb(BufferedImage image) {
+        if (image.getType() == BufferedImage.TYPE_INT_RGB) {
+            return image;
+        }
+        return resize(image, image.getWidth(), image.getHeight());
+    }
+
+    private String storeJpeg(BufferedImage image) throws IOException {
+        MediaBlob blob = mediaBlobService.store(new ByteArrayInputStream(encodeJpeg(image)), "thumbnail.jpg");
+        return blob.getPublicPath();
+    }
+
+    byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(bytes)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+
+    // PNG rather than JPEG: at 16px the JPEG header tables alone would be larger than the whole image
+    String placeholder(BufferedImage source) throws IOException {
+        // Bound the height too: a tall banner at 16px wide would outgrow thumbnailPlaceholder's 2048 characters
+        int width = Math.max(1,
+                Math.min(PLACEHOLDER_WIDTH, PLACEHOLDER_WIDTH * source.getWidth() / source.getHeight()));
+        BufferedImage tiny = scaleToWidth(source, width);
+        if (tiny.getHeight() > PLACEHOLDER_WIDTH) {
+            tiny = resize(tiny, tiny.getWidth(), PLACEHOLDER_WIDTH);
+        }
+        float[] weights = new float[9];
+        Arrays.fill(weights, 1f / 9f);
+        BufferedImage blurred = new ConvolveOp(new Kernel(3, 3, weights), ConvolveOp.EDGE_NO_OP, null)
+                .filter(tiny, null);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ImageIO.write(blurred, "png", bytes);
+        return "data:image/png;base64," + Base64.getEncoder().encodeToString(bytes.toByteArray());
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.UploadSessionRequest;
+import com.example.demo.model.UploadSession;
+import com.example.demo.model.Video;
+
+import java.io.InputStream;
+
+public interface UploadSessionService {
+    UploadSession createSession(UploadSessionRequest request);
+
+    UploadSession getSession(String sessionId);
+
+    UploadSession appendChunk(String sessionId, long offset, InputStream data);
+
+    Video finalizeSession(String sessionId);
+}
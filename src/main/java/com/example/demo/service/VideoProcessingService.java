@@ -0,0 +1,152 @@
+package com.example.demo.service;
+
+import com.example.demo.media.Mp4Faststart;
+import com.example.demo.media.Mp4Info;
+import com.example.demo.media.Transcoder;
+import com.example.demo.model.MediaBlob;
+import com.example.demo.model.Video;
+import com.example.demo.storage.ContentKeys;
+import com.example.demo.storage.ContentStat;
+import com.example.demo.storage.ContentStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+public class VideoProcessingService {
+
+    private final MediaBlobService mediaBlobService;
+    private final Transcoder transcoder;
+    private final ContentStore contentStore;
+
+    // Local scratch space for transcoding and faststart; the staged upload itself lives in the content store
+    private static final String WORK_DIR = "video-work";
+
+    /**
+     * Stores the upload under a staging key of the content store, so the
+     * request can return while the media jobs finish the work on any node.
+     */
+    public String stage(InputStream content, long length) {
+        String key = stagingKey();
+        try {
+            contentStore.put(key, content, length);
+            return key;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to save video: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Same as {@link #stage(InputStream, long)} for a local file, which is
+     * consumed; finished upload sessions stage their part file this way, a
+     * rename on the filesystem backend.
+     */
+    public String stage(Path file) {
+        String key = stagingKey();
+        try {
+            contentStore.putFile(key, file);
+            return key;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to save video: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Transcodes and rewrites a local copy of the staged upload for faststart,
+     * moves it into the blob store and fills in the video's path and metadata.
+     * The staged upload is left in place, so a failed run can simply be
+     * repeated; the caller discards it once the result is recorded.
+     */
+    public Video process(Video video, String stagedKey) throws IOException {
+        String fileName = video.getFileName();
+        ContentStat stat = contentStore.stat(stagedKey)
+                .orElseThrow(() -> new IOException("Staged upload missing: " + stagedKey));
+        Path copy = Paths.get(WORK_DIR, UUID.randomUUID() + ".tmp");
+        Path working = copy;
+        try {
+            Files.createDirectories(copy.getParent());
+            try (InputStream in = contentStore.getRange(stagedKey, 0, stat.getSize())) {
+                Files.copy(in, copy);
+            }
+            working = transcoder.transcode(copy, fileName);
+            if (!working.equals(copy)) {
+                Files.deleteIfExists(copy);
+            }
+
+            Mp4Info info = null;
+            if (isMp4(fileName)) {
+                try {
+                    info = Mp4Faststart.process(working);
+                } catch (IOException | RuntimeException e) {
+                    // Playback still works without faststart, only later; keep the upload as sent
+                    System.out.println("DEBUG_VIDEO: Faststart skipped for " + fileName + ": " + e.getMessage());
+                }
+            }
+            MediaBlob blob = mediaBlobService.adopt(working, fileName);
+
+            video.setVideoPath(blob.getPublicPath());
+            if (info != null) {
+                video.setDurationSeconds(info.getDurationSeconds());
+                video.setWidth(info.getWidth());
+                video.setHeight(info.getHeight());
+                video.setBitrate(info.getBitrate());
+            }
+            return video;
+        } finally {
+            Files.deleteIfExists(copy);
+            Files.deleteIfExists(working);
+        }
+    }
+
+    public void discardStaged(String stagedKey) {
+        try {
+            contentStore.delete(stagedKey);
+        } catch (IOException e) {
+            // An orphaned staging object is only wasted space
+            System.out.println("DEBUG_VIDEO: Failed to delete staged upload " + stagedKey + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Formats the summed length of the videos for Course.duration, or null
+     * when none of them has a known duration.
+     */
+    public String totalDuration(List<Video> videos) {
+        double seconds = videos.stream()
+                .map(Video::getDurationSeconds)
+                .filter(Objects::nonNull)
+                .mapToDouble(Double::doubleValue)
+                .sum();
+        if (seconds <= 0) {
+            return null;
+        }
+        long total = Math.round(seconds);
+        long hours = total / 3600;
+        long minutes = (total % 3600) / 60;
+        if (hours > 0) {
+            return hours + "h " + minutes + "m";
+        }
+        return minutes > 0 ? minutes + "m " + (total % 60) + "s" : total + "s";
+    }
+
+    private static String stagingKey() {
+        return ContentKeys.STAGING_PREFIX + "videos/" + UUID.randomUUID() + ".tmp";
+    }
+
+    private boolean isMp4(String fileName) {
+        if (fileName == null) {
+            return false;
+        }
+        String lower = fileName.toLowerCase();
+        return lower.endsWith(".mp4") || lower.endsWith(".m4v") || lower.endsWith(".mov");
+    }
+}
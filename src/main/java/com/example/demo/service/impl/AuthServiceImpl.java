@@ -11,6 +11,7 @@ import com.example.demo.model.Student;
 import com.example.demo.repository.InstructorRepository;
 import com.example.demo.repository.StudentRepository;
 import com.example.demo.service.AuthService;
+import com.example.demo.service.RegistrationEnrollmentService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -24,6 +25,7 @@ public class AuthServiceImpl implements AuthService {
     private final StudentRepository studentRepository;
     private final InstructorRepository instructorRepository;
     private final ActivityLogRepository activityLogRepository;
+    private final RegistrationEnrollmentService registrationEnrollmentService;
 
     @Override
     public String registerStudent(StudentRegistrationDto registrationDto) {
@@ -47,6 +49,9 @@ public class AuthServiceImpl implements AuthService {
         activityLogRepository
                 .save(new ActivityLog(null, student.getId(), student.getName(), "REGISTER", LocalDateTime.now()));
 
+        // Enroll in the Published courses of the student's class in the background
+        registrationEnrollmentService.studentRegistered(student);
+
         return "Student registered successfully";
     }
 
@@ -1,27 +1,37 @@
 package com.example.demo.service.impl;
 
+import com.example.demo.dto.CourseResponseDto;
+import com.example.demo.dto.CursorPage;
 import com.example.demo.exception.ResourceNotFoundException;
 import com.example.demo.model.Course;
-import com.example.demo.model.Enrollment;
 import com.example.demo.model.Instructor;
-import com.example.demo.model.Student;
+import com.example.demo.model.MediaBlob;
 import com.example.demo.model.Video;
 import com.example.demo.repository.CourseRepository;
-import com.example.demo.repository.EnrollmentRepository;
 import com.example.demo.repository.InstructorRepository;
-import com.example.demo.repository.StudentRepository;
+import com.example.demo.repository.LessonRepository;
 import com.example.demo.repository.VideoRepository;
+import com.example.demo.service.BulkEnrollmentService;
+import com.example.demo.service.CatalogCache;
+import com.example.demo.service.CourseFacetService;
+import com.example.demo.service.CourseRankingService;
 import com.example.demo.service.CourseService;
+import com.example.demo.service.CourseSyncService;
+import com.example.demo.service.MediaBlobService;
+import com.example.demo.service.MediaJobService;
+import com.example.demo.service.SearchService;
+import com.example.demo.service.VideoProcessingService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
 
@@ -32,10 +42,19 @@ public class CourseServiceImpl implements CourseService {
     private final CourseRepository courseRepository;
     private final InstructorRepository instructorRepository;
     private final VideoRepository videoRepository;
-    private final StudentRepository studentRepository;
-    private final EnrollmentRepository enrollmentRepository;
+    private final LessonRepository lessonRepository;
+    private final MediaBlobService mediaBlobService;
+    private final VideoProcessingService videoProcessingService;
+    private final MediaJobService mediaJobService;
+    private final CourseSyncService courseSyncService;
+    private final SearchService searchService;
+    private final CatalogCache catalogCache;
+    private final CourseFacetService courseFacetService;
+    private final CourseRankingService courseRankingService;
+    private final BulkEnrollmentService bulkEnrollmentService;
 
-    private static final String UPLOAD_DIR = "uploads";
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 100;
 
     @Override
     public Course createCourse(Course course, Long instructorId) {
@@ -44,6 +63,9 @@ public class CourseServiceImpl implements CourseService {
                 .orElseThrow(() -> new ResourceNotFoundException("Instructor not found with id " + instructorId));
         course.setInstructor(instructor);
         Course savedCourse = courseRepository.save(course);
+        searchService.indexCourse(savedCourse);
+        catalogCache.evictCourseLists();
+        courseFacetService.courseCreated(savedCourse);
         System.out.println("DEBUG_COURSE: Course saved successfully with ID: " + savedCourse.getId());
         return savedCourse;
     }
@@ -66,17 +88,14 @@ public class CourseServiceImpl implements CourseService {
         course.setStatus(status != null ? status : "Draft");
         course.setInstructor(instructor);
         Course savedCourse = courseRepository.save(course);
+        courseFacetService.courseCreated(savedCourse);
         System.out.println("DEBUG_COURSE: Course (with videos) saved with ID: " + savedCourse.getId());
 
         // 3. Save thumbnail
         if (thumbnail != null && !thumbnail.isEmpty()) {
             try {
-                Path thumbDir = Paths.get(UPLOAD_DIR, savedCourse.getId().toString(), "thumbnail");
-                Files.createDirectories(thumbDir);
-                String thumbFileName = thumbnail.getOriginalFilename();
-                Path thumbPath = thumbDir.resolve(thumbFileName);
-                Files.copy(thumbnail.getInputStream(), thumbPath, StandardCopyOption.REPLACE_EXISTING);
-                savedCourse.setThumbnailPath("/uploads/" + savedCourse.getId() + "/thumbnail/" + thumbFileName);
+                MediaBlob thumbBlob = mediaBlobService.store(thumbnail.getInputStream(), thumbnail.getOriginalFilename());
+                savedCourse.setThumbnailPath(thumbBlob.getPublicPath());
             } catch (IOException e) {
                 throw new RuntimeException("Failed to save thumbnail: " + e.getMessage(), e);
             }
@@ -86,22 +105,23 @@ public class CourseServiceImpl implements CourseService {
         List<Video> videoEntities = new ArrayList<>();
         if (videos != null && !videos.isEmpty()) {
             try {
-                Path videoDir = Paths.get(UPLOAD_DIR, savedCourse.getId().toString(), "videos");
-                Files.createDirectories(videoDir);
+                List<String> stagedKeys = new ArrayList<>();
                 for (MultipartFile videoFile : videos) {
                     if (videoFile.isEmpty())
                         continue;
-                    String videoFileName = videoFile.getOriginalFilename();
-                    Path videoPath = videoDir.resolve(videoFileName);
-                    Files.copy(videoFile.getInputStream(), videoPath, StandardCopyOption.REPLACE_EXISTING);
+                    // Only make the bytes durable here; hashing, faststart and metadata run on the media workers
+                    stagedKeys.add(videoProcessingService.stage(videoFile.getInputStream(), videoFile.getSize()));
 
                     Video video = new Video();
-                    video.setFileName(videoFileName);
-                    video.setVideoPath("/uploads/" + savedCourse.getId() + "/videos/" + videoFileName);
+                    video.setFileName(videoFile.getOriginalFilename());
+                    video.setProcessingStatus("PENDING");
                     video.setCourse(savedCourse);
                     videoEntities.add(video);
                 }
                 videoRepository.saveAll(videoEntities);
+                for (int i = 0; i < videoEntities.size(); i++) {
+                    mediaJobService.enqueueVideo(videoEntities.get(i), stagedKeys.get(i));
+                }
             } catch (IOException e) {
                 throw new RuntimeException("Failed to save videos: " + e.getMessage(), e);
             }
@@ -110,60 +130,40 @@ public class CourseServiceImpl implements CourseService {
         // 5. Update course with thumbnail path and return
         savedCourse.getVideos().addAll(videoEntities);
         Course finalCourse = courseRepository.save(savedCourse);
+        searchService.indexCourse(finalCourse);
+        catalogCache.evictCourseLists();
+
+        // 6. Downscaled thumbnails and the inline placeholder are produced by the media workers
+        if (finalCourse.getThumbnailPath() != null) {
+            mediaJobService.enqueueThumbnails(finalCourse);
+        }
 
-        // 6. Auto-enroll all students if course is Published
+        // 7. Auto-enroll the course's class level in the background if the course is Published
         if ("Published".equalsIgnoreCase(finalCourse.getStatus())) {
-            autoEnrollAllStudents(finalCourse);
+            bulkEnrollmentService.enqueue(finalCourse);
         }
 
         return finalCourse;
     }
 
-    private void autoEnrollAllStudents(Course course) {
-        System.out.println("DEBUG_ENROLL: Starting auto-enrollment for course: " + course.getTitle() + " (ID: "
-                + course.getId() + ") Class: " + course.getClassLevel());
-        List<Student> studentsInClass = studentRepository.findByClassLevel(course.getClassLevel());
-        System.out.println("DEBUG_ENROLL: Found " + studentsInClass.size() + " students for class level "
-                + course.getClassLevel());
-
-        List<Enrollment> enrollments = new ArrayList<>();
-        for (Student student : studentsInClass) {
-            if (!enrollmentRepository.existsByStudentIdAndCourseId(student.getId(), course.getId())) {
-                System.out.println(
-                        "DEBUG_ENROLL: Enrolling student: " + student.getName() + " (ID: " + student.getId() + ")");
-                Enrollment enrollment = new Enrollment();
-                enrollment.setStudent(student);
-                enrollment.setCourse(course);
-                enrollment.setStatus("ENROLLED");
-                enrollment.setProgressPercentage(0.0);
-                enrollments.add(enrollment);
-            } else {
-                System.out.println("DEBUG_ENROLL: Student already enrolled: " + student.getName() + " (ID: "
-                        + student.getId() + ")");
-            }
-        }
-        if (!enrollments.isEmpty()) {
-            enrollmentRepository.saveAll(enrollments);
-            System.out.println("DEBUG_ENROLL: Successfully saved " + enrollments.size() + " new enrollments.");
-        } else {
-            System.out.println("DEBUG_ENROLL: No new enrollments needed.");
-        }
-    }
-
     @Override
-    public List<Course> getAllCourses() {
-        return courseRepository.findAll();
+    public CursorPage<CourseResponseDto> getCourses(String classLevel, String category, String status, String cursor,
+            Integer limit) {
+        return findPage(null, classLevel, category, status, cursor, limit);
     }
 
     @Override
     public Optional<Course> getCourseById(Long id) {
-        return courseRepository.findById(id);
+        return Optional.ofNullable(
+                catalogCache.course(id, courseId -> courseRepository.findWithInstructorById(courseId).orElse(null)));
     }
 
     @Override
     public Course updateCourse(Long id, Course courseDetails) {
         return courseRepository.findById(id).map(course -> {
             String oldStatus = course.getStatus();
+            String oldClassLevel = course.getClassLevel();
+            String oldCategory = course.getCategory();
             course.setTitle(courseDetails.getTitle());
             course.setDescription(courseDetails.getDescription());
             course.setDuration(courseDetails.getDuration());
@@ -175,10 +175,14 @@ public class CourseServiceImpl implements CourseService {
                 course.setStatus(courseDetails.getStatus());
 
             Course updatedCourse = courseRepository.save(course);
+            searchService.indexCourse(updatedCourse);
+            catalogCache.evictCourse(id);
+            courseFacetService.courseUpdated(oldClassLevel, oldCategory, oldStatus, updatedCourse);
+            courseRankingService.courseUpdated(updatedCourse);
 
             // Trigger auto-enrollment if course is newly published
             if ("Published".equalsIgnoreCase(updatedCourse.getStatus()) && !"Published".equalsIgnoreCase(oldStatus)) {
-                autoEnrollAllStudents(updatedCourse);
+                bulkEnrollmentService.enqueue(updatedCourse);
             }
 
             return updatedCourse;
@@ -187,17 +191,80 @@ public class CourseServiceImpl implements CourseService {
 
     @Override
     public void deleteCourse(Long id) {
-        if (!courseRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Course not found with id " + id);
-        }
+        Course course = courseRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Course not found with id " + id));
+        List<String> mediaPaths = new ArrayList<>();
+        mediaPaths.add(course.getThumbnailPath());
+        mediaPaths.add(course.getThumbnailSmallPath());
+        mediaPaths.add(course.getThumbnailMediumPath());
+        mediaPaths.add(course.getThumbnailLargePath());
+        videoRepository.findByCourseId(id).forEach(video -> mediaPaths.add(video.getVideoPath()));
+        lessonRepository.findByCourseIdOrderByOrderIndexAsc(id)
+                .forEach(lesson -> mediaPaths.add(lesson.getContentUrl()));
+
         courseRepository.deleteById(id);
+        mediaPaths.forEach(mediaBlobService::release);
+        courseSyncService.evict(id);
+        searchService.removeCourse(id);
+        catalogCache.evictCourse(id);
+        courseFacetService.courseDeleted(course);
+        courseRankingService.courseDeleted(id);
     }
 
     @Override
-    public List<Course> getCoursesByInstructor(Long instructorId) {
+    public List<Video> getCourseVideos(Long courseId) {
+        if (!courseRepository.existsById(courseId)) {
+            throw new ResourceNotFoundException("Course not found with id " + courseId);
+        }
+        return videoRepository.findByCourseId(courseId);
+    }
+
+    @Override
+    public CursorPage<CourseResponseDto> getCoursesByInstructor(Long instructorId, String classLevel, String category,
+            String status, String cursor, Integer limit) {
         System.out.println("DEBUG_COURSE: Fetching courses for instructor ID: " + instructorId);
-        List<Course> courses = courseRepository.findByInstructorId(instructorId);
-        System.out.println("DEBUG_COURSE: Found " + courses.size() + " courses for instructor ID: " + instructorId);
-        return courses;
+        CursorPage<CourseResponseDto> page = findPage(instructorId, classLevel, category, status, cursor, limit);
+        System.out.println("DEBUG_COURSE: Found " + page.getItems().size() + " courses for instructor ID: "
+                + instructorId);
+        return page;
+    }
+
+    private CursorPage<CourseResponseDto> findPage(Long instructorId, String classLevel, String category, String status,
+            String cursor, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        LocalDateTime afterCreatedAt = null;
+        Long afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                String[] parts = decoded.split("\\|");
+                afterCreatedAt = LocalDateTime.parse(parts[0]);
+                afterId = Long.parseLong(parts[1]);
+            } catch (IllegalArgumentException | DateTimeParseException | ArrayIndexOutOfBoundsException e) {
+                throw new RuntimeException("Invalid cursor: " + cursor);
+            }
+        }
+
+        String cacheKey = instructorId + "|" + blankToNull(classLevel) + "|" + blankToNull(category) + "|"
+                + blankToNull(status) + "|" + afterCreatedAt + "|" + afterId + "|" + pageSize;
+        LocalDateTime createdAtBound = afterCreatedAt;
+        Long idBound = afterId;
+        return catalogCache.coursePage(cacheKey, key -> {
+            // One extra row tells whether another page follows without a count query
+            List<CourseResponseDto> rows = courseRepository.findPage(instructorId, blankToNull(classLevel),
+                    blankToNull(category), blankToNull(status), createdAtBound, idBound, PageRequest.of(0, pageSize + 1));
+            if (rows.size() <= pageSize) {
+                return new CursorPage<>(List.copyOf(rows), null);
+            }
+            List<CourseResponseDto> items = List.copyOf(rows.subList(0, pageSize));
+            CourseResponseDto last = items.get(pageSize - 1);
+            String next = Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((last.getCreatedAt() + "|" + last.getId()).getBytes(StandardCharsets.UTF_8));
+            return new CursorPage<>(items, next);
+        });
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
     }
 }
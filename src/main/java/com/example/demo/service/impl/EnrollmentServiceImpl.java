@@ -1,55 +1,80 @@
 package com.example.demo.service.impl;
 
+import com.example.demo.dto.CourseResponseDto;
+import com.example.demo.dto.CursorPage;
+import com.example.demo.dto.EnrollmentResult;
+import com.example.demo.dto.EnrollmentSummaryDto;
+import com.example.demo.exception.ConflictException;
 import com.example.demo.exception.ResourceNotFoundException;
 import com.example.demo.model.Course;
 import com.example.demo.model.Enrollment;
-import com.example.demo.model.Student;
 import com.example.demo.repository.CourseRepository;
 import com.example.demo.repository.EnrollmentRepository;
 import com.example.demo.repository.StudentRepository;
+import com.example.demo.service.CourseRankingService;
+import com.example.demo.service.CourseRecommendationService;
 import com.example.demo.service.EnrollmentService;
 import com.example.demo.service.NotificationService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 public class EnrollmentServiceImpl implements EnrollmentService {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+
     private final EnrollmentRepository enrollmentRepository;
     private final StudentRepository studentRepository;
     private final CourseRepository courseRepository;
     private final NotificationService notificationService;
+    private final CourseRankingService courseRankingService;
+    private final CourseRecommendationService courseRecommendationService;
 
     @Override
-    public Enrollment enrollStudent(Long studentId, Long courseId) {
-        if (enrollmentRepository.existsByStudentIdAndCourseId(studentId, courseId)) {
-            throw new RuntimeException("Student is already enrolled in this course");
+    public EnrollmentResult enrollStudent(Long studentId, Long courseId) {
+        // The unique key on (student, course) makes this safe against double submits from any node
+        boolean created = enrollmentRepository.insertIfAbsent(studentId, courseId) == 1;
+        Optional<Enrollment> stored = enrollmentRepository.findByStudentIdAndCourseId(studentId, courseId);
+        if (stored.isEmpty()) {
+            if (!studentRepository.existsById(studentId)) {
+                throw new ResourceNotFoundException("Student not found with id: " + studentId);
+            }
+            throw new ResourceNotFoundException("Course not found with id: " + courseId);
+        }
+        Enrollment enrollment = stored.get();
+        if (!created) {
+            // Enrolling again after a drop resumes the old enrollment where it left off
+            if ("DROPPED".equals(enrollment.getStatus())
+                    && enrollmentRepository.reactivateDropped(studentId, courseId) == 1) {
+                enrollment.setStatus("ENROLLED");
+                courseRecommendationService.recordEnrollment(studentId, courseId);
+                notifyInstructor(enrollment, "Student %s has re-enrolled in your course: %s");
+            }
+            return new EnrollmentResult(enrollment, false);
         }
 
-        Student student = studentRepository.findById(studentId)
-                .orElseThrow(() -> new ResourceNotFoundException("Student not found with id: " + studentId));
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new ResourceNotFoundException("Course not found with id: " + courseId));
+        Course course = enrollment.getCourse();
+        courseRankingService.recordEnrollments(course, 1);
+        courseRecommendationService.recordEnrollment(studentId, courseId);
 
-        Enrollment enrollment = new Enrollment();
-        enrollment.setStudent(student);
-        enrollment.setCourse(course);
-        enrollment.setProgressPercentage(0.0);
-        enrollment.setStatus("ENROLLED");
-        // date set by @PrePersist
-        Enrollment savedEnrollment = enrollmentRepository.save(enrollment);
+        notifyInstructor(enrollment, "New student %s has enrolled in your course: %s");
+        return new EnrollmentResult(enrollment, true);
+    }
 
-        // Create notification for instructor
+    private void notifyInstructor(Enrollment enrollment, String format) {
+        Course course = enrollment.getCourse();
         if (course.getInstructor() != null) {
-            String message = String.format("New student %s has enrolled in your course: %s", student.getName(),
-                    course.getTitle());
+            String message = String.format(format, enrollment.getStudent().getName(), course.getTitle());
             notificationService.createNotification(course.getInstructor().getId(), message, "ENROLLMENT");
         }
-
-        return savedEnrollment;
     }
 
     @Override
@@ -60,12 +85,23 @@ public class EnrollmentServiceImpl implements EnrollmentService {
         if (progress < 0 || progress > 100) {
             throw new IllegalArgumentException("Progress must be between 0 and 100");
         }
+        // Same rule as the heartbeats: a course with lessons takes its progress from the lessons completed
+        int lessonCount = lessonCount(enrollment);
+        if (lessonCount > 0) {
+            throw new ConflictException("Progress of course " + enrollment.getCourse().getId()
+                    + " follows its completed lessons and cannot be set");
+        }
 
+        boolean completes = progress == 100.0 && !"COMPLETED".equals(enrollment.getStatus());
         enrollment.setProgressPercentage(progress);
         if (progress == 100.0) {
             enrollment.setStatus("COMPLETED");
         }
-        return enrollmentRepository.save(enrollment);
+        Enrollment saved = enrollmentRepository.save(enrollment);
+        if (completes) {
+            courseRankingService.recordCompletion(saved.getCourse());
+        }
+        return saved;
     }
 
     @Override
@@ -73,9 +109,26 @@ public class EnrollmentServiceImpl implements EnrollmentService {
         Enrollment enrollment = enrollmentRepository.findById(enrollmentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Enrollment not found with id: " + enrollmentId));
 
+        int lessonCount = lessonCount(enrollment);
+        int completedLessons = enrollment.getCompletedLessons() != null ? enrollment.getCompletedLessons() : 0;
+        if (completedLessons < lessonCount) {
+            throw new ConflictException("Only " + completedLessons + " of " + lessonCount
+                    + " lessons are completed");
+        }
+
+        boolean completes = !"COMPLETED".equals(enrollment.getStatus());
         enrollment.setProgressPercentage(100.0);
         enrollment.setStatus("COMPLETED");
-        return enrollmentRepository.save(enrollment);
+        Enrollment saved = enrollmentRepository.save(enrollment);
+        if (completes) {
+            courseRankingService.recordCompletion(saved.getCourse());
+        }
+        return saved;
+    }
+
+    private static int lessonCount(Enrollment enrollment) {
+        Integer lessonCount = enrollment.getCourse().getLessonCount();
+        return lessonCount != null ? lessonCount : 0;
     }
 
     @Override
@@ -84,30 +137,57 @@ public class EnrollmentServiceImpl implements EnrollmentService {
                 .orElseThrow(() -> new ResourceNotFoundException("Enrollment not found with id: " + enrollmentId));
 
         enrollment.setStatus("DROPPED");
-        return enrollmentRepository.save(enrollment);
+        Enrollment saved = enrollmentRepository.save(enrollment);
+        courseRecommendationService.recordDrop(enrollment.getStudent().getId(), enrollment.getCourse().getId());
+        return saved;
     }
 
     @Override
-    public List<Enrollment> getAllEnrollments() {
-        return enrollmentRepository.findAll();
+    public CursorPage<EnrollmentSummaryDto> getAllEnrollments(String cursor, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Long afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                afterId = Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("Invalid cursor: " + cursor);
+            }
+        }
+        List<EnrollmentSummaryDto> rows = enrollmentRepository.findSummaryPage(afterId,
+                PageRequest.of(0, pageSize + 1));
+        if (rows.size() <= pageSize) {
+            return new CursorPage<>(rows, null);
+        }
+        List<EnrollmentSummaryDto> items = rows.subList(0, pageSize);
+        String lastId = String.valueOf(items.get(pageSize - 1).getId());
+        String next = Base64.getUrlEncoder().withoutPadding().encodeToString(lastId.getBytes(StandardCharsets.UTF_8));
+        return new CursorPage<>(List.copyOf(items), next);
     }
 
     @Override
-    public List<Enrollment> getStudentEnrollments(Long studentId) {
+    public List<EnrollmentSummaryDto> getStudentEnrollments(Long studentId) {
         System.out.println("DEBUG_ENROLLMENT: Fetching enrollments for studentId=" + studentId);
         if (!studentRepository.existsById(studentId)) {
             throw new ResourceNotFoundException("Student not found with id: " + studentId);
         }
-        List<Enrollment> enrollments = enrollmentRepository.findByStudentId(studentId);
+        List<EnrollmentSummaryDto> enrollments = enrollmentRepository.findSummariesByStudentId(studentId);
         System.out.println("DEBUG_ENROLLMENT: Found " + enrollments.size() + " enrollments for studentId=" + studentId);
         return enrollments;
     }
 
     @Override
-    public List<Enrollment> getCourseEnrollments(Long courseId) {
+    public List<CourseResponseDto> getStudentCourses(Long studentId) {
+        if (!studentRepository.existsById(studentId)) {
+            throw new ResourceNotFoundException("Student not found with id: " + studentId);
+        }
+        return enrollmentRepository.findCoursesByStudentId(studentId);
+    }
+
+    @Override
+    public List<EnrollmentSummaryDto> getCourseEnrollments(Long courseId) {
         if (!courseRepository.existsById(courseId)) {
             throw new ResourceNotFoundException("Course not found with id: " + courseId);
         }
-        return enrollmentRepository.findByCourseId(courseId);
+        return enrollmentRepository.findSummariesByCourseId(courseId);
     }
 }
@@ -1,10 +1,17 @@
 package com.example.demo.service.impl;
 
+import com.example.demo.dto.CourseResponseDto;
+import com.example.demo.dto.CursorPage;
+import com.example.demo.dto.EnrollmentSummaryDto;
 import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.model.Course;
 import com.example.demo.model.Instructor;
 import com.example.demo.repository.CourseRepository;
 import com.example.demo.repository.EnrollmentRepository;
 import com.example.demo.repository.InstructorRepository;
+import com.example.demo.service.CatalogCache;
+import com.example.demo.service.CourseFacetService;
+import com.example.demo.service.CourseService;
 import com.example.demo.service.InstructorService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -21,6 +28,9 @@ public class InstructorServiceImpl implements InstructorService {
     private final InstructorRepository instructorRepository;
     private final CourseRepository courseRepository;
     private final EnrollmentRepository enrollmentRepository;
+    private final CourseService courseService;
+    private final CatalogCache catalogCache;
+    private final CourseFacetService courseFacetService;
 
     @Override
     public Instructor registerInstructor(Instructor instructor) {
@@ -46,7 +56,10 @@ public class InstructorServiceImpl implements InstructorService {
             instructor.setName(instructorDetails.getName());
             instructor.setEmail(instructorDetails.getEmail());
             instructor.setSpecialization(instructorDetails.getSpecialization());
-            return instructorRepository.save(instructor);
+            Instructor saved = instructorRepository.save(instructor);
+            // Cached courses and list pages carry the instructor's name
+            catalogCache.evictAll();
+            return saved;
         }).orElseThrow(() -> new ResourceNotFoundException("Instructor not found with id " + id));
     }
 
@@ -85,16 +98,19 @@ public class InstructorServiceImpl implements InstructorService {
 
         Map<String, Object> stats = new HashMap<>();
         stats.put("totalCourses", totalCourses);
+        // Course lists are paged, so the page cannot count these from the rows it holds
+        stats.put("publishedCourses", courseRepository.countByInstructorIdAndStatus(id, "Published"));
+        stats.put("draftCourses", courseRepository.countByInstructorIdAndStatus(id, "Draft"));
         stats.put("totalStudents", totalStudents);
         return stats;
     }
 
     @Override
-    public List<com.example.demo.model.Enrollment> getEnrolledStudents(Long instructorId) {
+    public List<EnrollmentSummaryDto> getEnrolledStudents(Long instructorId) {
         if (!instructorRepository.existsById(instructorId)) {
             throw new ResourceNotFoundException("Instructor not found with id " + instructorId);
         }
-        return enrollmentRepository.findByCourseInstructorId(instructorId);
+        return enrollmentRepository.findSummariesByInstructorId(instructorId);
     }
 
     @Override
@@ -102,17 +118,26 @@ public class InstructorServiceImpl implements InstructorService {
         if (!instructorRepository.existsById(id)) {
             throw new ResourceNotFoundException("Instructor not found with id " + id);
         }
+        // Course by course, so each one's media, search entries, sync manifest and rankings are cleaned up too
+        for (Course course : courseRepository.findByInstructorId(id)) {
+            courseService.deleteCourse(course.getId());
+        }
         instructorRepository.deleteById(id);
+        catalogCache.evictAll();
+        courseFacetService.invalidate();
     }
 
     @Override
-    public List<com.example.demo.model.Course> getCoursesByInstructor(Long instructorId) {
+    public CursorPage<CourseResponseDto> getCoursesByInstructor(Long instructorId, String classLevel,
+            String category, String status, String cursor, Integer limit) {
         System.out.println("DEBUG_INSTRUCTOR_SERVICE: Fetching courses for instructorId=" + instructorId);
         if (!instructorRepository.existsById(instructorId)) {
             throw new ResourceNotFoundException("Instructor not found with id " + instructorId);
         }
-        List<com.example.demo.model.Course> courses = courseRepository.findByInstructorId(instructorId);
-        System.out.println("DEBUG_INSTRUCTOR_SERVICE: Found " + courses.size() + " courses for instructorId=" + instructorId);
-        return courses;
+        CursorPage<CourseResponseDto> page = courseService.getCoursesByInstructor(instructorId,
+                classLevel, category, status, cursor, limit);
+        System.out.println("DEBUG_INSTRUCTOR_SERVICE: Found " + page.getItems().size() + " courses for instructorId="
+                + instructorId);
+        return page;
     }
 }
@@ -0,0 +1,175 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.model.MediaBlob;
+import com.example.demo.repository.MediaBlobRepository;
+import com.example.demo.repository.MediaBlockIndexRepository;
+import com.example.demo.service.MediaBlobService;
+import com.example.demo.storage.ContentKeys;
+import com.example.demo.storage.ContentStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+
+@Service
+@RequiredArgsConstructor
+public class MediaBlobServiceImpl implements MediaBlobService {
+
+    private final MediaBlobRepository mediaBlobRepository;
+    private final MediaBlockIndexRepository mediaBlockIndexRepository;
+    private final ContentStore contentStore;
+
+    private static final String BLOB_URL_PREFIX = "/uploads/blobs/";
+    private static final String STAGING_DIR = "blob-staging";
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public MediaBlob store(InputStream content, String originalFileName) {
+        Path staged = Paths.get(STAGING_DIR, UUID.randomUUID() + ".tmp");
+        try {
+            Files.createDirectories(staged.getParent());
+            MessageDigest digest = newDigest();
+            CRC32 crc = new CRC32();
+            long size;
+            try (DigestInputStream in = new DigestInputStream(new CheckedInputStream(content, crc), digest)) {
+                size = Files.copy(in, staged);
+            }
+            return commit(staged, HexFormat.of().formatHex(digest.digest()), size, crc.getValue(),
+                    extensionOf(originalFileName));
+        } catch (IOException | UncheckedIOException e) {
+            deleteQuietly(staged);
+            throw new RuntimeException("Failed to store media: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public MediaBlob adopt(Path file, String originalFileName) {
+        try {
+            MessageDigest digest = newDigest();
+            CRC32 crc = new CRC32();
+            try (DigestInputStream in = new DigestInputStream(
+                    new CheckedInputStream(Files.newInputStream(file), crc), digest)) {
+                in.transferTo(OutputStream.nullOutputStream());
+            }
+            return commit(file, HexFormat.of().formatHex(digest.digest()), Files.size(file), crc.getValue(),
+                    extensionOf(originalFileName));
+        } catch (IOException | UncheckedIOException e) {
+            throw new RuntimeException("Failed to store media: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void retain(String publicPath) {
+        String hash = hashOf(publicPath);
+        if (hash != null) {
+            mediaBlobRepository.incrementRefCount(hash);
+        }
+    }
+
+    /**
+     * The row lock is held while the object is deleted, so a concurrent store
+     * of the same content on any node either re-references this row first or
+     * waits and writes the object again after it is gone.
+     */
+    @Override
+    public void release(String publicPath) {
+        String hash = hashOf(publicPath);
+        if (hash == null) {
+            return; // Legacy per-course file, not reference counted
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            MediaBlob blob = mediaBlobRepository.findForUpdateByHash(hash).orElse(null);
+            if (blob == null) {
+                return;
+            }
+            if (blob.getRefCount() > 1) {
+                mediaBlobRepository.decrementRefCount(hash);
+                return;
+            }
+            mediaBlobRepository.delete(blob);
+            mediaBlockIndexRepository.deleteById(hash);
+            mediaBlobRepository.flush();
+            try {
+                contentStore.delete(blob.getStorageKey());
+            } catch (IOException e) {
+                // Row is gone so nothing references the object any more; a leftover copy is only wasted space
+                System.out.println("DEBUG_MEDIA: Failed to delete blob " + hash + ": " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Adds a reference to an existing blob or inserts a new one. The new row
+     * stays locked until the object is in the store, so no other node can
+     * release it in between.
+     */
+    private MediaBlob commit(Path staged, String hash, long size, long crc32, String extension)
+            throws IOException {
+        MediaBlob blob = transactionTemplate.execute(status -> {
+            boolean inserted = mediaBlobRepository.insertOrIncrement(hash, extension, size, crc32) == 1;
+            MediaBlob stored = mediaBlobRepository.findById(hash)
+                    .orElseThrow(() -> new IllegalStateException("Media blob vanished: " + hash));
+            if (inserted) {
+                try {
+                    contentStore.putFile(stored.getStorageKey(), staged);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return stored;
+        });
+        Files.deleteIfExists(staged);
+        return blob;
+    }
+
+    private String extensionOf(String fileName) {
+        if (fileName == null) {
+            return null;
+        }
+        int dot = fileName.lastIndexOf('.');
+        if (dot < 0 || dot == fileName.length() - 1) {
+            return null;
+        }
+        String extension = fileName.substring(dot).toLowerCase();
+        return extension.matches("\\.[a-z0-9]{1,8}") ? extension : null;
+    }
+
+    private String hashOf(String publicPath) {
+        if (publicPath == null || !publicPath.startsWith(BLOB_URL_PREFIX)) {
+            return null;
+        }
+        return ContentKeys.blobHash(publicPath.substring(ContentKeys.PUBLIC_PREFIX.length()));
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // Orphaned file is harmless; it is never referenced
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.model.Course;
+import com.example.demo.model.MediaJob;
+import com.example.demo.model.Video;
+import com.example.demo.repository.CourseRepository;
+import com.example.demo.repository.MediaJobRepository;
+import com.example.demo.repository.VideoRepository;
+import com.example.demo.service.CatalogCache;
+import com.example.demo.service.CourseSyncService;
+import com.example.demo.service.MediaFingerprintService;
+import com.example.demo.service.MediaJobService;
+import com.example.demo.service.ThumbnailService;
+import com.example.demo.service.VideoProcessingService;
+import com.example.demo.storage.ContentKeys;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+public class MediaJobServiceImpl implements MediaJobService {
+
+    private static final String TYPE_PROCESS_VIDEO = "PROCESS_VIDEO";
+    private static final String TYPE_GENERATE_THUMBNAILS = "GENERATE_THUMBNAILS";
+    private static final String TYPE_FINGERPRINT_LEGACY = "FINGERPRINT_LEGACY";
+    // A RUNNING job not touched for this long is assumed to belong to a worker that died
+    private static final long STALE_RUNNING_MINUTES = 30;
+    private static final long BASE_BACKOFF_SECONDS = 10;
+    private static final long TOUCH_INTERVAL_MINUTES = 1;
+
+    private final MediaJobRepository mediaJobRepository;
+    private final VideoRepository videoRepository;
+    private final CourseRepository courseRepository;
+    private final VideoProcessingService videoProcessingService;
+    private final ThumbnailService thumbnailService;
+    private final MediaFingerprintService mediaFingerprintService;
+    private final CourseSyncService courseSyncService;
+    private final CatalogCache catalogCache;
+    private final int maxAttempts;
+    private final ThreadPoolExecutor executor;
+    private final TransactionTemplate transactionTemplate;
+    private final Set<Long> runningJobs = ConcurrentHashMap.newKeySet();
+    private volatile LocalDateTime lastTouch = LocalDateTime.MIN;
+
+    public MediaJobServiceImpl(MediaJobRepository mediaJobRepository, VideoRepository videoRepository,
+            CourseRepository courseRepository, VideoProcessingService videoProcessingService,
+            ThumbnailService thumbnailService, MediaFingerprintService mediaFingerprintService,
+            CourseSyncService courseSyncService, CatalogCache catalogCache, TransactionTemplate transactionTemplate,
+            @Value("${media.jobs.workers:2}") int workers,
+            @Value("${media.jobs.queue-capacity:16}") int queueCapacity,
+            @Value("${media.jobs.max-attempts:3}") int maxAttempts) {
+        this.mediaJobRepository = mediaJobRepository;
+        this.videoRepository = videoRepository;
+        this.courseRepository = courseRepository;
+        this.videoProcessingService = videoProcessingService;
+        this.thumbnailService = thumbnailService;
+        this.mediaFingerprintService = mediaFingerprintService;
+        this.courseSyncService = courseSyncService;
+        this.catalogCache = catalogCache;
+        this.transactionTemplate = transactionTemplate;
+        this.maxAttempts = maxAttempts;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "media-worker-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @Override
+    public MediaJob enqueueVideo(Video video, String stagedKey) {
+        MediaJob job = new MediaJob();
+        job.setType(TYPE_PROCESS_VIDEO);
+        job.setStatus("PENDING");
+        job.setVideoId(video.getId());
+        job.setCourseId(video.getCourse().getId());
+        job.setStagedKey(stagedKey);
+        job.setFileName(video.getFileName());
+        job.setAttempts(0);
+        job.setNextRunAt(LocalDateTime.now());
+        return mediaJobRepository.save(job);
+    }
+
+    @Override
+    public MediaJob enqueueThumbnails(Course course) {
+        return enqueue(TYPE_GENERATE_THUMBNAILS, course.getId());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void enqueueLegacyFingerprinting() {
+        if (mediaJobRepository.existsByTypeAndStatusIn(TYPE_FINGERPRINT_LEGACY, List.of("PENDING", "RUNNING"))) {
+            return;
+        }
+        if (mediaFingerprintService.hasLegacyPaths()) {
+            enqueue(TYPE_FINGERPRINT_LEGACY, null);
+        }
+    }
+
+    private MediaJob enqueue(String type, Long courseId) {
+        MediaJob job = new MediaJob();
+        job.setType(type);
+        job.setStatus("PENDING");
+        job.setCourseId(courseId);
+        job.setAttempts(0);
+        job.setNextRunAt(LocalDateTime.now());
+        return mediaJobRepository.save(job);
+    }
+
+    @Scheduled(fixedDelayString = "${media.jobs.poll-interval-ms:2000}")
+    public void dispatchDueJobs() {
+        LocalDateTime now = LocalDateTime.now();
+        if (!runningJobs.isEmpty() && lastTouch.isBefore(now.minusMinutes(TOUCH_INTERVAL_MINUTES))) {
+            mediaJobRepository.touch(List.copyOf(runningJobs), now);
+            lastTouch = now;
+        }
+        mediaJobRepository.requeueStale(now.minusMinutes(STALE_RUNNING_MINUTES));
+
+        int capacity = executor.getQueue().remainingCapacity();
+        if (capacity <= 0) {
+            return;
+        }
+        List<MediaJob> due = mediaJobRepository.findByStatusAndNextRunAtLessThanEqualOrderByNextRunAtAsc(
+                "PENDING", now, PageRequest.of(0, capacity));
+        for (MediaJob job : due) {
+            // The conditional update makes the claim safe when several nodes poll the same table
+            if (mediaJobRepository.claim(job.getId(), now) == 0) {
+                continue;
+            }
+            try {
+                executor.execute(() -> runJob(job.getId()));
+            } catch (RejectedExecutionException e) {
+                job.setStatus("PENDING");
+                mediaJobRepository.save(job);
+                return;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Jobs still running are picked up again once they go stale
+        executor.shutdownNow();
+    }
+
+    private void runJob(Long jobId) {
+        MediaJob job = mediaJobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            return;
+        }
+        runningJobs.add(jobId);
+        try {
+            switch (job.getType()) {
+                case TYPE_GENERATE_THUMBNAILS -> thumbnailService.generateDerivatives(job.getCourseId());
+                case TYPE_FINGERPRINT_LEGACY -> mediaFingerprintService.migrateLegacyPaths()
+                        .forEach(courseId -> enqueue(TYPE_GENERATE_THUMBNAILS, courseId));
+                default -> runVideoJob(job);
+            }
+            job.setStatus("DONE");
+            job.setLastError(null);
+            mediaJobRepository.save(job);
+            System.out.println("DEBUG_MEDIA_JOB: Finished " + job.getType() + " job " + job.getId());
+        } catch (Exception e) {
+            int attempts = job.getAttempts() + 1;
+            job.setAttempts(attempts);
+            String error = e.getClass().getSimpleName() + ": " + e.getMessage();
+            job.setLastError(error.length() > 1000 ? error.substring(0, 1000) : error);
+            boolean exhausted = attempts >= maxAttempts;
+            if (exhausted) {
+                job.setStatus("FAILED");
+            } else {
+                job.setStatus("PENDING");
+                job.setNextRunAt(LocalDateTime.now().plusSeconds(BASE_BACKOFF_SECONDS << (attempts - 1)));
+            }
+            if (job.getVideoId() != null) {
+                videoRepository.findById(job.getVideoId()).ifPresent(video -> {
+                    video.setProcessingStatus(exhausted ? "FAILED" : "PENDING");
+                    videoRepository.save(video);
+                });
+            }
+            mediaJobRepository.save(job);
+            System.out.println("DEBUG_MEDIA_JOB: Job " + job.getId() + " failed (attempt " + attempts + "): " + error);
+        } finally {
+            runningJobs.remove(jobId);
+        }
+    }
+
+    /**
+     * Each step can be repeated: the staged upload is only discarded once the
+     * blob hash is recorded with the video, and a rerun after that goes
+     * straight to the course updates.
+     */
+    private void runVideoJob(MediaJob job) throws IOException {
+        Video video = videoRepository.findById(job.getVideoId()).orElse(null);
+        if (video == null) {
+            // Course (and its videos) deleted while the job was queued
+            if (job.getStagedKey() != null) {
+                videoProcessingService.discardStaged(job.getStagedKey());
+            }
+            return;
+        }
+
+        if (job.getBlobHash() == null) {
+            video.setProcessingStatus("PROCESSING");
+            videoRepository.save(video);
+
+            videoProcessingService.process(video, job.getStagedKey());
+            job.setBlobHash(ContentKeys.blobHash(ContentKeys.fromPublicPath(video.getVideoPath())));
+            transactionTemplate.executeWithoutResult(status -> {
+                videoRepository.save(video);
+                mediaJobRepository.save(job);
+            });
+            videoProcessingService.discardStaged(job.getStagedKey());
+        }
+
+        video.setProcessingStatus("READY");
+        videoRepository.save(video);
+        updateCourseDuration(job.getCourseId());
+        courseSyncService.index(video.getVideoPath());
+    }
+
+    private void updateCourseDuration(Long courseId) {
+        String totalDuration = videoProcessingService.totalDuration(videoRepository.findByCourseId(courseId));
+        if (totalDuration != null) {
+            courseRepository.updateDuration(courseId, totalDuration);
+            catalogCache.evictCourse(courseId);
+        }
+    }
+}
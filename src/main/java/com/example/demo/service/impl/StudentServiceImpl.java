@@ -10,7 +10,6 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -63,12 +62,6 @@ public class StudentServiceImpl implements StudentService {
             throw new ResourceNotFoundException("Student not found with id: " + studentId);
         }
 
-        return enrollmentRepository.findByStudentId(studentId).stream()
-                .map(enrollment -> new StudentCourseResponse(
-                        enrollment.getCourse().getId(),
-                        enrollment.getCourse().getTitle(),
-                        enrollment.getProgressPercentage(),
-                        enrollment.getStatus()))
-                .collect(Collectors.toList());
+        return enrollmentRepository.findStudentCoursesByStudentId(studentId);
     }
 }
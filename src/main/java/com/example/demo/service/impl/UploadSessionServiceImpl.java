@@ -0,0 +1,188 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.dto.UploadSessionRequest;
+import com.example.demo.exception.ConflictException;
+import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.model.Course;
+import com.example.demo.model.UploadSession;
+import com.example.demo.model.Video;
+import com.example.demo.repository.CourseRepository;
+import com.example.demo.repository.UploadSessionRepository;
+import com.example.demo.repository.VideoRepository;
+import com.example.demo.service.MediaJobService;
+import com.example.demo.service.UploadSessionService;
+import com.example.demo.service.VideoProcessingService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+@Service
+@RequiredArgsConstructor
+public class UploadSessionServiceImpl implements UploadSessionService {
+
+    private final UploadSessionRepository uploadSessionRepository;
+    private final CourseRepository courseRepository;
+    private final VideoRepository videoRepository;
+    private final MediaJobService mediaJobService;
+    private final VideoProcessingService videoProcessingService;
+
+    // Kept beside the uploads directory so finalizing is a rename on the same volume, but outside the public tree
+    private static final String SESSION_DIR = "upload-sessions";
+    private static final long TRANSFER_CHUNK = 1024 * 1024;
+
+    private final ConcurrentMap<String, Object> sessionLocks = new ConcurrentHashMap<>();
+
+    @Override
+    public UploadSession createSession(UploadSessionRequest request) {
+        if (!courseRepository.existsById(request.getCourseId())) {
+            throw new ResourceNotFoundException("Course not found with id: " + request.getCourseId());
+        }
+        UploadSession session = new UploadSession();
+        session.setId(UUID.randomUUID().toString());
+        session.setCourseId(request.getCourseId());
+        session.setFileName(sanitizeFileName(request.getFileName()));
+        session.setTotalSize(request.getTotalSize());
+        session.setReceivedBytes(0L);
+        session.setStatus("ACTIVE");
+        try {
+            Files.createDirectories(Paths.get(SESSION_DIR));
+            Files.deleteIfExists(partFile(session.getId()));
+            Files.createFile(partFile(session.getId()));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to create upload session: " + e.getMessage(), e);
+        }
+        return uploadSessionRepository.save(session);
+    }
+
+    @Override
+    public UploadSession getSession(String sessionId) {
+        UploadSession session = findSession(sessionId);
+        if (!"ACTIVE".equals(session.getStatus())) {
+            return session;
+        }
+        synchronized (lockFor(sessionId)) {
+            return reconcile(findSession(sessionId));
+        }
+    }
+
+    @Override
+    public UploadSession appendChunk(String sessionId, long offset, InputStream data) {
+        synchronized (lockFor(sessionId)) {
+            UploadSession session = reconcile(findSession(sessionId));
+            if (!"ACTIVE".equals(session.getStatus())) {
+                throw new ConflictException("Upload session " + sessionId + " is already " + session.getStatus());
+            }
+            if (offset != session.getReceivedBytes()) {
+                throw new ConflictException("Expected offset " + session.getReceivedBytes() + " but got " + offset);
+            }
+
+            long position = offset;
+            try (FileChannel channel = FileChannel.open(partFile(sessionId), StandardOpenOption.WRITE);
+                    ReadableByteChannel source = Channels.newChannel(data)) {
+                long written;
+                while ((written = channel.transferFrom(source, position, TRANSFER_CHUNK)) > 0) {
+                    position += written;
+                    if (position > session.getTotalSize()) {
+                        channel.truncate(offset);
+                        throw new ConflictException("Chunk exceeds declared size of " + session.getTotalSize() + " bytes");
+                    }
+                }
+                // Bytes must be durable before the offset we report can move past them
+                channel.force(false);
+            } catch (IOException e) {
+                // Whatever reached the disk is kept; the client re-queries the offset and resumes from there
+                reconcile(session);
+                throw new RuntimeException("Failed to write chunk: " + e.getMessage(), e);
+            }
+
+            session.setReceivedBytes(position);
+            return uploadSessionRepository.save(session);
+        }
+    }
+
+    @Override
+    public Video finalizeSession(String sessionId) {
+        synchronized (lockFor(sessionId)) {
+            UploadSession session = reconcile(findSession(sessionId));
+            if ("COMPLETED".equals(session.getStatus())) {
+                return videoRepository.findById(session.getVideoId())
+                        .orElseThrow(() -> new ResourceNotFoundException("Video not found with id: " + session.getVideoId()));
+            }
+            if (!session.getReceivedBytes().equals(session.getTotalSize())) {
+                throw new ConflictException("Upload incomplete: received " + session.getReceivedBytes() + " of "
+                        + session.getTotalSize() + " bytes");
+            }
+            Course course = courseRepository.findById(session.getCourseId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Course not found with id: " + session.getCourseId()));
+
+            Video video = new Video();
+            video.setFileName(session.getFileName());
+            video.setProcessingStatus("PENDING");
+            video.setCourse(course);
+            Video savedVideo = videoRepository.save(video);
+
+            session.setStatus("COMPLETED");
+            session.setVideoId(savedVideo.getId());
+            uploadSessionRepository.save(session);
+            sessionLocks.remove(sessionId);
+
+            // Staged in the content store (a rename on the filesystem backend) so any node's workers can process it
+            mediaJobService.enqueueVideo(savedVideo, videoProcessingService.stage(partFile(sessionId)));
+            return savedVideo;
+        }
+    }
+
+    private UploadSession findSession(String sessionId) {
+        return uploadSessionRepository.findById(sessionId)
+                .orElseThrow(() -> new ResourceNotFoundException("Upload session not found with id: " + sessionId));
+    }
+
+    // The part file is the source of truth after a crash: bytes are appended in order and forced before the row moves on
+    private UploadSession reconcile(UploadSession session) {
+        if (!"ACTIVE".equals(session.getStatus())) {
+            return session;
+        }
+        try {
+            Path part = partFile(session.getId());
+            if (!Files.exists(part)) {
+                throw new ResourceNotFoundException("Upload data missing for session: " + session.getId());
+            }
+            long onDisk = Math.min(Files.size(part), session.getTotalSize());
+            if (onDisk != session.getReceivedBytes()) {
+                session.setReceivedBytes(onDisk);
+                return uploadSessionRepository.save(session);
+            }
+            return session;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read upload session: " + e.getMessage(), e);
+        }
+    }
+
+    private Object lockFor(String sessionId) {
+        return sessionLocks.computeIfAbsent(sessionId, id -> new Object());
+    }
+
+    private Path partFile(String sessionId) {
+        return Paths.get(SESSION_DIR, sessionId + ".part");
+    }
+
+    private String sanitizeFileName(String fileName) {
+        Path name = Paths.get(fileName).getFileName();
+        if (name == null || name.toString().isBlank()) {
+            throw new IllegalArgumentException("Invalid file name: " + fileName);
+        }
+        return name.toString();
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.demo.storage;
+
+public final class ContentKeys {
+
+    public static final String PUBLIC_PREFIX = "/uploads/";
+    public static final String BLOB_PREFIX = "blobs/";
+    // Uploads waiting for the media workers; never served
+    public static final String STAGING_PREFIX = "staging/";
+
+    private ContentKeys() {
+    }
+
+    public static String fromPublicPath(String publicPath) {
+        if (publicPath == null || !publicPath.startsWith(PUBLIC_PREFIX)) {
+            throw new IllegalArgumentException("Not an uploaded media path: " + publicPath);
+        }
+        return validate(publicPath.substring(PUBLIC_PREFIX.length()));
+    }
+
+    public static String toPublicPath(String key) {
+        return PUBLIC_PREFIX + key;
+    }
+
+    /**
+     * Content hash of a content-addressed blob key ("blobs/ab/<hash>.ext"),
+     * or null for any other key.
+     */
+    public static String blobHash(String key) {
+        if (key == null || !key.startsWith(BLOB_PREFIX)) {
+            return null;
+        }
+        String name = key.substring(key.lastIndexOf('/') + 1);
+        int dot = name.indexOf('.');
+        return dot >= 0 ? name.substring(0, dot) : name;
+    }
+
+    public static String validate(String key) {
+        if (key == null || key.isEmpty() || key.startsWith("/") || key.contains("\\")) {
+            throw new IllegalArgumentException("Invalid content key: " + key);
+        }
+        for (String segment : key.split("/")) {
+            if (segment.isEmpty() || segment.equals(".") || segment.equals("..")) {
+                throw new IllegalArgumentException("Invalid content key: " + key);
+            }
+        }
+        return key;
+    }
+}
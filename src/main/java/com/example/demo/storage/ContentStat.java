@@ -0,0 +1,13 @@
+package com.example.demo.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContentStat {
+    private long size;
+    private long lastModified; // epoch millis
+}
@@ -0,0 +1,42 @@
+package com.example.demo.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Storage for uploaded media, addressed by relative keys such as
+ * "blobs/ab/abcd....mp4". Keys map one-to-one onto the public "/uploads/"
+ * URLs stored on entities.
+ */
+public interface ContentStore {
+
+    void put(String key, InputStream content, long length) throws IOException;
+
+    /**
+     * Stores a local file under the key and consumes it. Backends on the same
+     * volume can override this with a rename.
+     */
+    default void putFile(String key, Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            put(key, in, Files.size(file));
+        }
+        Files.deleteIfExists(file);
+    }
+
+    InputStream getRange(String key, long start, long length) throws IOException;
+
+    boolean delete(String key) throws IOException;
+
+    Optional<ContentStat> stat(String key) throws IOException;
+
+    /**
+     * The backing file when the content lives on the local filesystem, so
+     * callers can use zero-copy transfers.
+     */
+    default Optional<Path> localPath(String key) {
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.demo.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.NoSuchFileException;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Heap-backed store for tests and local development; content is lost on restart.
+ */
+public class InMemoryContentStore implements ContentStore {
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    @Override
+    public void put(String key, InputStream content, long length) throws IOException {
+        ContentKeys.validate(key);
+        byte[] data = content.readAllBytes();
+        entries.put(key, new Entry(data, System.currentTimeMillis()));
+    }
+
+    @Override
+    public InputStream getRange(String key, long start, long length) throws IOException {
+        Entry entry = entries.get(ContentKeys.validate(key));
+        if (entry == null) {
+            throw new NoSuchFileException(key);
+        }
+        int from = (int) Math.min(start, entry.data.length);
+        int count = (int) Math.min(length, entry.data.length - from);
+        return new ByteArrayInputStream(entry.data, from, count);
+    }
+
+    @Override
+    public boolean delete(String key) {
+        return entries.remove(ContentKeys.validate(key)) != null;
+    }
+
+    @Override
+    public Optional<ContentStat> stat(String key) {
+        Entry entry = entries.get(ContentKeys.validate(key));
+        return entry == null ? Optional.empty()
+                : Optional.of(new ContentStat(entry.data.length, entry.lastModified));
+    }
+
+    private static final class Entry {
+        private final byte[] data;
+        private final long lastModified;
+
+        private Entry(byte[] data, long lastModified) {
+            this.data = data;
+            this.lastModified = lastModified;
+        }
+    }
+}
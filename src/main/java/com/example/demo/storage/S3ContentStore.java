@@ -0,0 +1,222 @@
+package com.example.demo.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Talks to any S3-compatible object store (AWS S3, MinIO, Ceph RGW) over
+ * plain HTTP with path-style URLs and AWS Signature Version 4, so no SDK is
+ * needed and a local MinIO works as a stand-in.
+ */
+public class S3ContentStore implements ContentStore {
+
+    private static final String UNSIGNED_PAYLOAD = "UNSIGNED-PAYLOAD";
+    private static final DateTimeFormatter AMZ_DATE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+
+    private final HttpClient httpClient;
+    private final String endpoint;
+    private final String bucket;
+    private final String region;
+    private final String accessKey;
+    private final String secretKey;
+
+    public S3ContentStore(String endpoint, String bucket, String region, String accessKey, String secretKey) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        this.endpoint = endpoint.endsWith("/") ? endpoint.substring(0, endpoint.length() - 1) : endpoint;
+        this.bucket = bucket;
+        this.region = region;
+        this.accessKey = accessKey;
+        this.secretKey = secretKey;
+    }
+
+    @Override
+    public void put(String key, InputStream content, long length) throws IOException {
+        // fromPublisher rejects a zero content length, so empty objects go up with no body at all
+        HttpRequest.BodyPublisher body = length == 0 ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.fromPublisher(HttpRequest.BodyPublishers.ofInputStream(() -> content),
+                        length);
+        HttpResponse<String> response = send(signed("PUT", key).PUT(body).build(),
+                HttpResponse.BodyHandlers.ofString());
+        expectSuccess(response, key);
+    }
+
+    @Override
+    public void putFile(String key, Path file) throws IOException {
+        HttpResponse<String> response = send(signed("PUT", key).PUT(HttpRequest.BodyPublishers.ofFile(file)).build(),
+                HttpResponse.BodyHandlers.ofString());
+        expectSuccess(response, key);
+        Files.deleteIfExists(file);
+    }
+
+    @Override
+    public InputStream getRange(String key, long start, long length) throws IOException {
+        if (length <= 0) {
+            return InputStream.nullInputStream();
+        }
+        HttpRequest request = signed("GET", key)
+                .header("Range", "bytes=" + start + "-" + (start + length - 1))
+                .GET().build();
+        HttpResponse<InputStream> response = send(request, HttpResponse.BodyHandlers.ofInputStream());
+        if (response.statusCode() == 404) {
+            response.body().close();
+            throw new NoSuchFileException(key);
+        }
+        if (response.statusCode() != 200 && response.statusCode() != 206) {
+            response.body().close();
+            throw new IOException("Object store returned " + response.statusCode() + " for " + key);
+        }
+        InputStream body = response.body();
+        if (response.statusCode() == 200) {
+            // Store ignored the Range header; skip to the requested window ourselves
+            body.skipNBytes(start);
+        }
+        return new BoundedInputStream(body, length);
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        HttpResponse<String> response = send(signed("DELETE", key).DELETE().build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() == 404) {
+            return false;
+        }
+        expectSuccess(response, key);
+        return true;
+    }
+
+    @Override
+    public Optional<ContentStat> stat(String key) throws IOException {
+        HttpRequest request = signed("HEAD", key).method("HEAD", HttpRequest.BodyPublishers.noBody()).build();
+        HttpResponse<Void> response = send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() == 404) {
+            return Optional.empty();
+        }
+        expectSuccess(response, key);
+        long size = response.headers().firstValueAsLong("Content-Length").orElse(0L);
+        long lastModified = response.headers().firstValue("Last-Modified")
+                .map(value -> ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli())
+                .orElse(0L);
+        return Optional.of(new ContentStat(size, lastModified));
+    }
+
+    private HttpRequest.Builder signed(String method, String key) {
+        String canonicalUri = "/" + encodePath(bucket) + "/" + encodePath(ContentKeys.validate(key));
+        URI uri = URI.create(endpoint + canonicalUri);
+        String host = uri.getPort() == -1 ? uri.getHost() : uri.getHost() + ":" + uri.getPort();
+
+        ZonedDateTime now = ZonedDateTime.now(ZoneOffset.UTC);
+        String amzDate = AMZ_DATE.format(now);
+        SortedMap<String, String> headers = new TreeMap<>();
+        headers.put("host", host);
+        headers.put("x-amz-content-sha256", UNSIGNED_PAYLOAD);
+        headers.put("x-amz-date", amzDate);
+        String canonicalRequest = canonicalRequest(method, canonicalUri, headers, UNSIGNED_PAYLOAD);
+        String signature = signature(secretKey, region, amzDate, canonicalRequest);
+
+        return HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofMinutes(10))
+                .header("x-amz-date", amzDate)
+                .header("x-amz-content-sha256", UNSIGNED_PAYLOAD)
+                .header("Authorization", "AWS4-HMAC-SHA256 Credential=" + accessKey + "/" + scope(amzDate, region)
+                        + ", SignedHeaders=" + String.join(";", headers.keySet()) + ", Signature=" + signature);
+    }
+
+    /** Headers are keyed by lowercase name; the query string is always empty here. */
+    static String canonicalRequest(String method, String canonicalUri, SortedMap<String, String> headers,
+            String payloadHash) {
+        StringBuilder request = new StringBuilder(method).append('\n')
+                .append(canonicalUri).append('\n')
+                .append('\n');
+        headers.forEach((name, value) -> request.append(name).append(':').append(value.trim()).append('\n'));
+        return request.append('\n')
+                .append(String.join(";", headers.keySet())).append('\n')
+                .append(payloadHash)
+                .toString();
+    }
+
+    static String signature(String secretKey, String region, String amzDate, String canonicalRequest) {
+        String stringToSign = "AWS4-HMAC-SHA256\n" + amzDate + "\n" + scope(amzDate, region) + "\n"
+                + sha256Hex(canonicalRequest);
+        byte[] signingKey = hmac(("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8), amzDate.substring(0, 8));
+        signingKey = hmac(signingKey, region);
+        signingKey = hmac(signingKey, "s3");
+        signingKey = hmac(signingKey, "aws4_request");
+        return HexFormat.of().formatHex(hmac(signingKey, stringToSign));
+    }
+
+    private static String scope(String amzDate, String region) {
+        return amzDate.substring(0, 8) + "/" + region + "/s3/aws4_request";
+    }
+
+    private <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler) throws IOException {
+        try {
+            return httpClient.send(request, handler);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while calling object store");
+        }
+    }
+
+    private void expectSuccess(HttpResponse<?> response, String key) throws IOException {
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("Object store returned " + response.statusCode() + " for " + key);
+        }
+    }
+
+    static String encodePath(String path) {
+        StringBuilder encoded = new StringBuilder();
+        for (byte b : path.getBytes(StandardCharsets.UTF_8)) {
+            char c = (char) (b & 0xff);
+            if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_' || c == '.' || c == '~' || c == '/') {
+                encoded.append(c);
+            } else {
+                encoded.append('%').append(String.format("%02X", b & 0xff));
+            }
+        }
+        return encoded.toString();
+    }
+
+    static String sha256Hex(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static byte[] hmac(byte[] key, String data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.demo;
+
+import com.example.demo.model.Course;
+import com.example.demo.model.Instructor;
+import com.example.demo.model.Student;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Runs the whole application against a throwaway MySQL, since the schema
+ * the tests rely on (unique keys, native upserts) is MySQL's. Skipped where
+ * Docker is not available. Every subclass shares the one container and so
+ * the one Spring context; tests create their own rows and do not clean up.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.demo.SqlStatementCounter",
+        "media.store.type=memory",
+        "progress.journal.dir=target/progress-journal" })
+@AutoConfigureMockMvc
+@Testcontainers(disabledWithoutDocker = true)
+public abstract class MySqlIntegrationTest {
+
+    @ServiceConnection
+    static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+    static {
+        MYSQL.start();
+    }
+
+    /** An unsaved instructor whose email is unique to {@code tag}. */
+    protected static Instructor newInstructor(String tag) {
+        Instructor instructor = new Instructor();
+        instructor.setName("Instructor " + tag);
+        instructor.setEmail("instructor-" + tag + "@example.com");
+        instructor.setPhone("9000000000");
+        instructor.setSpecialization("Mathematics");
+        instructor.setPassword("secret");
+        return instructor;
+    }
+
+    /** An unsaved Class 8 student whose email is unique to {@code tag}. */
+    protected static Student newStudent(String tag) {
+        Student student = new Student();
+        student.setName("Student " + tag);
+        student.setEmail("student-" + tag + "@example.com");
+        student.setPhone("9000000001");
+        student.setVillage("Village");
+        student.setPassword("secret");
+        student.setClassLevel("Class 8");
+        return student;
+    }
+
+    /** An unsaved Published course. */
+    protected static Course newCourse(Instructor instructor, String title) {
+        Course course = new Course();
+        course.setTitle(title);
+        course.setDescription("Description of " + title);
+        course.setClassLevel("Class 8");
+        course.setCategory("Mathematics");
+        course.setStatus("Published");
+        course.setInstructor(instructor);
+        return course;
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.demo.controller;
+
+import com.example.demo.MySqlIntegrationTest;
+import com.example.demo.SqlStatementCounter;
+import com.example.demo.dto.CursorPage;
+import com.example.demo.model.Course;
+import com.example.demo.model.Enrollment;
+import com.example.demo.model.Instructor;
+import com.example.demo.model.Student;
+import com.example.demo.repository.CourseRepository;
+import com.example.demo.repository.EnrollmentRepository;
+import com.example.demo.repository.InstructorRepository;
+import com.example.demo.repository.StudentRepository;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Course lists read through projections: 500 courses cost the same number
+ * of statements as one, rather than one more per course for its instructor.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CourseListQueryCountTest extends MySqlIntegrationTest {
+
+    private static final int COURSES = 500;
+    private static final int PAGE_SIZE = 100;
+    // The owner's existence check plus the list itself
+    private static final int MAX_STATEMENTS = 2;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private InstructorRepository instructorRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    private Long instructorId;
+    private Long studentId;
+
+    @BeforeAll
+    void seed() {
+        String tag = UUID.randomUUID().toString().substring(0, 8);
+        Instructor instructor = instructorRepository.save(newInstructor(tag));
+        instructorId = instructor.getId();
+        Student student = studentRepository.save(newStudent(tag));
+        studentId = student.getId();
+
+        List<Course> courses = new ArrayList<>();
+        for (int i = 0; i < COURSES; i++) {
+            courses.add(newCourse(instructor, "Course " + i));
+        }
+        List<Enrollment> enrollments = new ArrayList<>();
+        for (Course course : courseRepository.saveAll(courses)) {
+            Enrollment enrollment = new Enrollment();
+            enrollment.setStudent(student);
+            enrollment.setCourse(course);
+            enrollments.add(enrollment);
+        }
+        enrollmentRepository.saveAll(enrollments);
+    }
+
+    @Test
+    void studentCourseSummariesTakeOneQuery() throws Exception {
+        SqlStatementCounter.reset();
+        mockMvc.perform(get("/api/students/{studentId}/courses", studentId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(COURSES))
+                .andExpect(jsonPath("$[0].instructorName").exists());
+        assertThat(SqlStatementCounter.count()).isLessThanOrEqualTo(MAX_STATEMENTS);
+    }
+
+    @Test
+    void studentMyCoursesTakeOneQuery() throws Exception {
+        SqlStatementCounter.reset();
+        mockMvc.perform(get("/api/students/{id}/my-courses", studentId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(COURSES));
+        assertThat(SqlStatementCounter.count()).isLessThanOrEqualTo(MAX_STATEMENTS);
+    }
+
+    @Test
+    void instructorCoursePagesTakeOneQueryEach() throws Exception {
+        int seen = 0;
+        String cursor = null;
+        do {
+            MockHttpServletRequestBuilder request = get("/api/instructors/{instructorId}/courses", instructorId)
+                    .param("limit", String.valueOf(PAGE_SIZE));
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            SqlStatementCounter.reset();
+            MvcResult result = mockMvc.perform(request).andExpect(status().isOk()).andReturn();
+            assertThat(SqlStatementCounter.count()).isLessThanOrEqualTo(MAX_STATEMENTS);
+            List<Object> page = JsonPath.read(result.getResponse().getContentAsString(), "$");
+            seen += page.size();
+            cursor = result.getResponse().getHeader(CursorPage.NEXT_CURSOR_HEADER);
+        } while (cursor != null);
+        assertThat(seen).isEqualTo(COURSES);
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.demo.controller;
+
+import com.example.demo.MySqlIntegrationTest;
+import com.example.demo.model.Course;
+import com.example.demo.model.Enrollment;
+import com.example.demo.model.Instructor;
+import com.example.demo.model.Student;
+import com.example.demo.repository.CourseRepository;
+import com.example.demo.repository.EnrollmentRepository;
+import com.example.demo.repository.InstructorRepository;
+import com.example.demo.repository.NotificationRepository;
+import com.example.demo.repository.StudentRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Many enroll requests for the same student and course, released at once,
+ * leave one enrollment: one request answers 201, the rest 200, and the
+ * instructor is notified once.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EnrollmentConcurrencyTest extends MySqlIntegrationTest {
+
+    private static final int REQUESTS = 200;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private InstructorRepository instructorRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    private String tag;
+    private Instructor instructor;
+
+    @BeforeAll
+    void seed() {
+        tag = UUID.randomUUID().toString().substring(0, 8);
+        instructor = instructorRepository.save(newInstructor(tag));
+    }
+
+    @Test
+    void parallelEnrollsCreateOneEnrollment() throws Exception {
+        Course course = courseRepository.save(newCourse(instructor, "Concurrent " + tag));
+        Student student = studentRepository.save(newStudent(tag + "-concurrent"));
+
+        List<Integer> statuses = enrollInParallel(student.getId(), course.getId());
+
+        assertThat(statuses).filteredOn(status -> status == 201).hasSize(1);
+        assertThat(statuses).filteredOn(status -> status == 200).hasSize(REQUESTS - 1);
+        assertThat(enrollmentRepository.countByCourseId(course.getId())).isEqualTo(1);
+        assertThat(notificationRepository.findByUserIdOrderByCreatedAtDesc(instructor.getId()))
+                .filteredOn(notification -> notification.getMessage().endsWith(course.getTitle()))
+                .hasSize(1);
+    }
+
+    @Test
+    void parallelEnrollsReactivateADroppedEnrollmentOnce() throws Exception {
+        Course course = courseRepository.save(newCourse(instructor, "Dropped " + tag));
+        Student student = studentRepository.save(newStudent(tag + "-dropped"));
+        String body = "{\"studentId\":" + student.getId() + ",\"courseId\":" + course.getId() + "}";
+        mockMvc.perform(post("/api/enrollments/enroll").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated());
+        Enrollment enrollment = enrollmentRepository.findByStudentIdAndCourseId(student.getId(), course.getId())
+                .orElseThrow();
+        enrollment.setProgressPercentage(40.0);
+        enrollmentRepository.save(enrollment);
+        mockMvc.perform(put("/api/enrollments/{enrollmentId}/drop", enrollment.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("DROPPED"));
+
+        List<Integer> statuses = enrollInParallel(student.getId(), course.getId());
+
+        assertThat(statuses).containsOnly(200).hasSize(REQUESTS);
+        assertThat(enrollmentRepository.countByCourseId(course.getId())).isEqualTo(1);
+        Enrollment reactivated = enrollmentRepository.findById(enrollment.getId()).orElseThrow();
+        assertThat(reactivated.getStatus()).isEqualTo("ENROLLED");
+        assertThat(reactivated.getProgressPercentage()).isEqualTo(40.0);
+        // The first enrollment and the one reactivation
+        assertThat(notificationRepository.findByUserIdOrderByCreatedAtDesc(instructor.getId()))
+                .filteredOn(notification -> notification.getMessage().endsWith(course.getTitle()))
+                .hasSize(2);
+    }
+
+    private List<Integer> enrollInParallel(Long studentId, Long courseId) throws Exception {
+        String body = "{\"studentId\":" + studentId + ",\"courseId\":" + courseId + "}";
+        ExecutorService executor = Executors.newFixedThreadPool(REQUESTS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> responses = new ArrayList<>();
+            for (int i = 0; i < REQUESTS; i++) {
+                responses.add(executor.submit(() -> {
+                    start.await();
+                    return mockMvc.perform(post("/api/enrollments/enroll")
+                            .contentType(MediaType.APPLICATION_JSON).content(body))
+                            .andReturn().getResponse().getStatus();
+                }));
+            }
+            start.countDown();
+            List<Integer> statuses = new ArrayList<>();
+            for (Future<Integer> response : responses) {
+                statuses.add(response.get(2, TimeUnit.MINUTES));
+            }
+            return statuses;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.demo.controller;
+
+import com.example.demo.MySqlIntegrationTest;
+import com.example.demo.SqlStatementCounter;
+import com.example.demo.dto.CursorPage;
+import com.example.demo.model.Course;
+import com.example.demo.model.Enrollment;
+import com.example.demo.model.Instructor;
+import com.example.demo.model.Student;
+import com.example.demo.repository.CourseRepository;
+import com.example.demo.repository.EnrollmentRepository;
+import com.example.demo.repository.InstructorRepository;
+import com.example.demo.repository.StudentRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Enrollment endpoints stay within a fixed number of SQL statements however
+ * many rows they return: 20 courses with 25 students each, 500 enrollments.
+ * Going over a bound means a read path went back to per-row selects.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EnrollmentQueryCountTest extends MySqlIntegrationTest {
+
+    private static final int COURSES = 20;
+    private static final int STUDENTS = 25;
+    // The owner's existence check plus the list itself
+    private static final int MAX_LIST_STATEMENTS = 2;
+    // Upsert, re-read with student and course, the course's instructor and the instructor's notification
+    private static final int MAX_ENROLL_STATEMENTS = 4;
+    // Upsert and re-read only: nothing is recorded or notified twice
+    private static final int MAX_REPEAT_ENROLL_STATEMENTS = 2;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private InstructorRepository instructorRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    private String tag;
+    private Long instructorId;
+    private Long courseId;
+    private Long studentId;
+
+    @BeforeAll
+    void seed() {
+        tag = UUID.randomUUID().toString().substring(0, 8);
+        Instructor instructor = instructorRepository.save(newInstructor(tag));
+        instructorId = instructor.getId();
+        List<Course> courses = new ArrayList<>();
+        for (int i = 0; i < COURSES; i++) {
+            courses.add(newCourse(instructor, "Course " + i));
+        }
+        courses = courseRepository.saveAll(courses);
+        courseId = courses.get(0).getId();
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            students.add(newStudent(tag + "-" + i));
+        }
+        students = studentRepository.saveAll(students);
+        studentId = students.get(0).getId();
+
+        List<Enrollment> enrollments = new ArrayList<>();
+        for (Course course : courses) {
+            for (Student student : students) {
+                Enrollment enrollment = new Enrollment();
+                enrollment.setStudent(student);
+                enrollment.setCourse(course);
+                enrollments.add(enrollment);
+            }
+        }
+        enrollmentRepository.saveAll(enrollments);
+    }
+
+    @Test
+    void studentEnrollments() throws Exception {
+        assertListStatements(get("/api/enrollments/student/{studentId}", studentId), COURSES);
+        assertListStatements(get("/api/students/{studentId}/enrollments", studentId), COURSES);
+    }
+
+    @Test
+    void courseEnrollments() throws Exception {
+        assertListStatements(get("/api/enrollments/courses/{courseId}", courseId), STUDENTS);
+    }
+
+    @Test
+    void instructorRoster() throws Exception {
+        assertListStatements(get("/api/instructors/{instructorId}/students", instructorId), COURSES * STUDENTS);
+    }
+
+    @Test
+    void allEnrollmentPages() throws Exception {
+        String cursor = null;
+        int pages = 0;
+        do {
+            MockHttpServletRequestBuilder request = get("/api/enrollments").param("limit", "200");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            SqlStatementCounter.reset();
+            MvcResult result = mockMvc.perform(request).andExpect(status().isOk()).andReturn();
+            assertThat(SqlStatementCounter.count()).isLessThanOrEqualTo(MAX_LIST_STATEMENTS);
+            cursor = result.getResponse().getHeader(CursorPage.NEXT_CURSOR_HEADER);
+            pages++;
+        } while (cursor != null);
+        assertThat(pages).isGreaterThanOrEqualTo(COURSES * STUDENTS / 200);
+    }
+
+    @Test
+    void enroll() throws Exception {
+        Student student = studentRepository.save(newStudent(tag + "-new"));
+        String body = "{\"studentId\":" + student.getId() + ",\"courseId\":" + courseId + "}";
+
+        SqlStatementCounter.reset();
+        mockMvc.perform(post("/api/enrollments/enroll").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated());
+        assertThat(SqlStatementCounter.count()).isLessThanOrEqualTo(MAX_ENROLL_STATEMENTS);
+
+        SqlStatementCounter.reset();
+        mockMvc.perform(post("/api/enrollments/enroll").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk());
+        assertThat(SqlStatementCounter.count()).isLessThanOrEqualTo(MAX_REPEAT_ENROLL_STATEMENTS);
+    }
+
+    private void assertListStatements(MockHttpServletRequestBuilder request, int rows) throws Exception {
+        SqlStatementCounter.reset();
+        MvcResult result = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(rows))
+                .andReturn();
+        assertThat(SqlStatementCounter.count())
+                .as("statements for %s", result.getRequest().getRequestURI())
+                .isLessThanOrEqualTo(MAX_LIST_STATEMENTS);
+    }
+}
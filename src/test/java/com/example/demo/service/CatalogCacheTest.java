@@ -0,0 +1,98 @@
+package com.example.demo.service;
+
+import com.example.demo.cache.LocalCacheInvalidationBus;
+import com.example.demo.model.Course;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two catalog caches on one {@link LocalCacheInvalidationBus} stand in for
+ * two nodes. No transaction is active, so every eviction is applied and
+ * published at once.
+ */
+class CatalogCacheTest {
+
+    private final LocalCacheInvalidationBus bus = new LocalCacheInvalidationBus();
+    private final CatalogCache nodeA = new CatalogCache(bus, 100, 100, 100);
+    private final CatalogCache nodeB = new CatalogCache(bus, 100, 100, 100);
+
+    @Test
+    void evictionOnOneNodeReachesTheOther() {
+        AtomicInteger loads = new AtomicInteger();
+        Function<Long, Course> loader = id -> {
+            loads.incrementAndGet();
+            return course(id, "Title " + loads.get());
+        };
+        nodeA.course(1L, loader);
+        nodeB.course(1L, loader);
+        assertThat(nodeB.course(1L, loader).getTitle()).isEqualTo("Title 2");
+        assertThat(loads).hasValue(2);
+
+        nodeA.evictCourse(1L);
+
+        assertThat(nodeB.course(1L, loader).getTitle()).isEqualTo("Title 3");
+        assertThat(nodeA.course(1L, loader).getTitle()).isEqualTo("Title 4");
+        assertThat(loads).hasValue(4);
+    }
+
+    @Test
+    void loadRacingAnInvalidationIsNotCached() {
+        // The write on node A lands while node B is still reading the old row
+        Course stale = nodeB.course(1L, id -> {
+            nodeA.evictCourse(id);
+            return course(id, "Old title");
+        });
+        assertThat(stale.getTitle()).isEqualTo("Old title");
+
+        Course fresh = nodeB.course(1L, id -> course(id, "New title"));
+
+        assertThat(fresh.getTitle()).isEqualTo("New title");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void leastRecentlyUsedEntryIsEvictedAndCounted() {
+        CatalogCache cache = new CatalogCache(bus, 2, 2, 2);
+        AtomicInteger loads = new AtomicInteger();
+        Function<Long, Course> loader = id -> {
+            loads.incrementAndGet();
+            return course(id, "Course " + id);
+        };
+
+        cache.course(1L, loader);
+        cache.course(2L, loader);
+        cache.course(1L, loader); // 1 is now more recent than 2
+        cache.course(3L, loader); // evicts 2
+        cache.course(1L, loader);
+        assertThat(loads).hasValue(3);
+        cache.course(2L, loader); // loaded again, evicting 3
+        assertThat(loads).hasValue(4);
+
+        Map<String, Object> stats = (Map<String, Object>) cache.stats().get(CatalogCache.COURSES);
+        assertThat(stats)
+                .containsEntry("size", 2)
+                .containsEntry("maxEntries", 2)
+                .containsEntry("hits", 2L)
+                .containsEntry("misses", 4L)
+                .containsEntry("evictions", 2L)
+                .containsEntry("invalidations", 0L);
+        assertThat((double) stats.get("hitRate")).isEqualTo(2.0 / 6);
+
+        cache.evictCourse(1L);
+        stats = (Map<String, Object>) cache.stats().get(CatalogCache.COURSES);
+        // Applied locally and again when the bus delivers it back to this cache
+        assertThat(stats).containsEntry("size", 1).containsEntry("invalidations", 2L);
+    }
+
+    private static Course course(Long id, String title) {
+        Course course = new Course();
+        course.setId(id);
+        course.setTitle(title);
+        return course;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Course;
+import jakarta.persistence.Column;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Derivative dimensions and sizes, and the placeholder bound. The payload
+ * comparison against camera originals is ThumbnailPayloadBenchmark under
+ * src/jmh.
+ */
+class ThumbnailServiceTest {
+
+    private static final String PNG_PREFIX = "data:image/png;base64,";
+
+    private final ThumbnailService thumbnails = new ThumbnailService(null, null, null, null);
+    private final Random random = new Random(42);
+
+    @Test
+    void derivativesKeepTheAspectRatio() {
+        BufferedImage source = photo(1200, 900);
+
+        assertThat(size(thumbnails.scaleToWidth(source, ThumbnailService.SMALL_WIDTH))).isEqualTo("160x120");
+        assertThat(size(thumbnails.scaleToWidth(source, ThumbnailService.MEDIUM_WIDTH))).isEqualTo("320x240");
+        assertThat(size(thumbnails.scaleToWidth(source, ThumbnailService.LARGE_WIDTH))).isEqualTo("640x480");
+    }
+
+    @Test
+    void smallSourcesAreNeverUpscaled() {
+        assertThat(size(thumbnails.scaleToWidth(photo(100, 50), ThumbnailService.LARGE_WIDTH))).isEqualTo("100x50");
+    }
+
+    @Test
+    void derivativeSizesFollowTheirWidth() throws IOException {
+        byte[] original = jpeg(photo(1600, 1200));
+        BufferedImage source = thumbnails.decode(new ByteArrayInputStream(original), ThumbnailService.LARGE_WIDTH * 2);
+
+        byte[] small = thumbnails.encodeJpeg(thumbnails.scaleToWidth(source, ThumbnailService.SMALL_WIDTH));
+        byte[] medium = thumbnails.encodeJpeg(thumbnails.scaleToWidth(source, ThumbnailService.MEDIUM_WIDTH));
+        byte[] large = thumbnails.encodeJpeg(thumbnails.scaleToWidth(source, ThumbnailService.LARGE_WIDTH));
+
+        assertThat(ImageIO.read(new ByteArrayInputStream(large)).getWidth()).isEqualTo(ThumbnailService.LARGE_WIDTH);
+        assertThat(small.length).isLessThan(medium.length);
+        assertThat(medium.length).isLessThan(large.length);
+        assertThat(large.length).isLessThan(original.length / 4);
+    }
+
+    @Test
+    void decodeSubsamplesButKeepsEnoughPixels() throws IOException {
+        byte[] original = jpeg(photo(2600, 1950));
+
+        BufferedImage decoded = thumbnails.decode(new ByteArrayInputStream(original), ThumbnailService.LARGE_WIDTH * 2);
+
+        assertThat(decoded.getType()).isEqualTo(BufferedImage.TYPE_INT_RGB);
+        assertThat(decoded.getWidth()).isBetween(ThumbnailService.LARGE_WIDTH * 2, 2600 / 2);
+    }
+
+    @Test
+    void placeholderFitsTheColumnAtAnyAspectRatio() throws Exception {
+        int column = Course.class.getDeclaredField("thumbnailPlaceholder").getAnnotation(Column.class).length();
+        int[][] sizes = { { 1200, 900 }, { 900, 1200 }, { 1080, 1920 }, { 400, 4000 }, { 4000, 400 }, { 1, 2000 } };
+        for (int[] size : sizes) {
+            // Pure noise is the worst case for PNG compression
+            BufferedImage source = noise(size[0], size[1]);
+
+            String placeholder = thumbnails.placeholder(source);
+
+            assertThat(placeholder).as("%dx%d", size[0], size[1]).startsWith(PNG_PREFIX);
+            assertThat(placeholder.length()).as("%dx%d", size[0], size[1]).isLessThanOrEqualTo(column);
+            BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(
+                    Base64.getDecoder().decode(placeholder.substring(PNG_PREFIX.length()))));
+            assertThat(decoded.getWidth()).isBetween(1, 16);
+            assertThat(decoded.getHeight()).isBetween(1, 16);
+        }
+    }
+
+    // Gradient with a little sensor-like noise, so the JPEG sizes behave like a photo's
+    private BufferedImage photo(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int red = 255 * x / width;
+                int green = 255 * y / height;
+                int noise = random.nextInt(17) - 8;
+                image.setRGB(x, y, (clamp(red + noise) << 16) | (clamp(green + noise) << 8) | clamp(128 + noise));
+            }
+        }
+        return image;
+    }
+
+    private BufferedImage noise(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, random.nextInt(0x1000000));
+            }
+        }
+        return image;
+    }
+
+    private static byte[] jpeg(BufferedImage image) throws IOException {
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", encoded);
+        return encoded.toByteArray();
+    }
+
+    private static String size(BufferedImage image) {
+        return image.getWidth() + "x" + image.getHeight();
+    }
+
+    private static int clamp(int value) {
+        return Math.max(0, Math.min(255, value));
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.demo.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Behaviour every {@link ContentStore} backend must share. Each backend gets a
+ * subclass; the S3 store needs a live endpoint and is only covered for signing.
+ */
+abstract class ContentStoreContractTest {
+
+    private static final String KEY = "blobs/ab/abcdef.mp4";
+    private static final byte[] DATA = "0123456789abcdefghij".getBytes(StandardCharsets.US_ASCII);
+
+    @TempDir
+    Path tempDir;
+
+    ContentStore store;
+
+    abstract ContentStore createStore() throws IOException;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        store = createStore();
+    }
+
+    @Test
+    void putThenReadWholeAndRanges() throws IOException {
+        store.put(KEY, new ByteArrayInputStream(DATA), DATA.length);
+
+        assertThat(read(KEY, 0, DATA.length)).isEqualTo(DATA);
+        assertThat(read(KEY, 5, 4)).isEqualTo("5678".getBytes(StandardCharsets.US_ASCII));
+        // A window running past the end stops at the last byte
+        assertThat(read(KEY, 18, 10)).isEqualTo("ij".getBytes(StandardCharsets.US_ASCII));
+        assertThat(read(KEY, DATA.length, 10)).isEmpty();
+    }
+
+    @Test
+    void putReplacesExistingContent() throws IOException {
+        store.put(KEY, new ByteArrayInputStream(DATA), DATA.length);
+        byte[] replacement = "replaced".getBytes(StandardCharsets.US_ASCII);
+
+        store.put(KEY, new ByteArrayInputStream(replacement), replacement.length);
+
+        assertThat(read(KEY, 0, 100)).isEqualTo(replacement);
+        assertThat(store.stat(KEY)).map(ContentStat::getSize).contains((long) replacement.length);
+    }
+
+    @Test
+    void emptyContentIsStored() throws IOException {
+        store.put(KEY, InputStream.nullInputStream(), 0);
+
+        assertThat(store.stat(KEY)).map(ContentStat::getSize).contains(0L);
+        assertThat(read(KEY, 0, 10)).isEmpty();
+    }
+
+    @Test
+    void statReportsSizeAndModificationTime() throws IOException {
+        long before = System.currentTimeMillis() - 2000;
+        store.put(KEY, new ByteArrayInputStream(DATA), DATA.length);
+
+        Optional<ContentStat> stat = store.stat(KEY);
+
+        assertThat(stat).isPresent();
+        assertThat(stat.get().getSize()).isEqualTo(DATA.length);
+        assertThat(stat.get().getLastModified()).isGreaterThanOrEqualTo(before);
+    }
+
+    @Test
+    void missingKeyIsAbsent() throws IOException {
+        assertThat(store.stat(KEY)).isEmpty();
+        assertThat(store.delete(KEY)).isFalse();
+        assertThatThrownBy(() -> store.getRange(KEY, 0, 10)).isInstanceOf(NoSuchFileException.class);
+    }
+
+    @Test
+    void deleteRemovesContent() throws IOException {
+        store.put(KEY, new ByteArrayInputStream(DATA), DATA.length);
+
+        assertThat(store.delete(KEY)).isTrue();
+
+        assertThat(store.stat(KEY)).isEmpty();
+        assertThat(store.delete(KEY)).isFalse();
+    }
+
+    @Test
+    void putFileStoresAndConsumesTheFile() throws IOException {
+        Path upload = Files.write(tempDir.resolve("upload.part"), DATA);
+
+        store.putFile(KEY, upload);
+
+        assertThat(upload).doesNotExist();
+        assertThat(read(KEY, 0, DATA.length)).isEqualTo(DATA);
+    }
+
+    @Test
+    void everyOperationRejectsInvalidKeys() {
+        for (String key : new String[] { "", "/blobs/a.mp4", "blobs/../../etc/passwd", "blobs//a.mp4",
+                "blobs/./a.mp4", "blobs\\a.mp4" }) {
+            assertThatThrownBy(() -> store.put(key, new ByteArrayInputStream(DATA), DATA.length))
+                    .as("put %s", key).isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> store.getRange(key, 0, 1))
+                    .as("getRange %s", key).isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> store.stat(key))
+                    .as("stat %s", key).isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> store.delete(key))
+                    .as("delete %s", key).isInstanceOf(IllegalArgumentException.class);
+        }
+        assertThatThrownBy(() -> store.getRange(null, 0, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    byte[] read(String key, long start, long length) throws IOException {
+        try (InputStream in = store.getRange(key, start, length)) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.demo.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FileSystemContentStoreTest extends ContentStoreContractTest {
+
+    private Path root;
+
+    @Override
+    ContentStore createStore() throws IOException {
+        root = Files.createDirectories(tempDir.resolve("content"));
+        return new FileSystemContentStore(root);
+    }
+
+    @Test
+    void putLeavesOnlyTheTargetBehind() throws IOException {
+        store.put("blobs/ab/abcdef.mp4", new ByteArrayInputStream(new byte[4096]), 4096);
+
+        assertThat(files()).containsExactly(root.resolve("blobs/ab/abcdef.mp4"));
+    }
+
+    @Test
+    void failedPutKeepsThePreviousContentAndNoTempFile() throws IOException {
+        byte[] original = "original".getBytes(StandardCharsets.US_ASCII);
+        store.put("blobs/ab/abcdef.mp4", new ByteArrayInputStream(original), original.length);
+        InputStream broken = new SequenceInputStream(new ByteArrayInputStream(new byte[1024]), new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Client went away");
+            }
+        });
+
+        assertThatThrownBy(() -> store.put("blobs/ab/abcdef.mp4", broken, 2048))
+                .isInstanceOf(IOException.class)
+                .hasMessage("Client went away");
+
+        // The half-written upload never replaced the target, and its temp file is gone
+        assertThat(read("blobs/ab/abcdef.mp4", 0, 100)).isEqualTo(original);
+        assertThat(files()).containsExactly(root.resolve("blobs/ab/abcdef.mp4"));
+    }
+
+    @Test
+    void putFileOnTheSameVolumeIsARename() throws IOException {
+        Path upload = Files.write(tempDir.resolve("upload.part"), new byte[] { 1, 2, 3 });
+        Object fileKey = Files.readAttributes(upload, BasicFileAttributes.class).fileKey();
+
+        store.putFile("staging/upload.mp4", upload);
+
+        Path target = root.resolve("staging/upload.mp4");
+        assertThat(upload).doesNotExist();
+        assertThat(target).hasBinaryContent(new byte[] { 1, 2, 3 });
+        if (fileKey != null) {
+            assertThat(Files.readAttributes(target, BasicFileAttributes.class).fileKey()).isEqualTo(fileKey);
+        }
+    }
+
+    @Test
+    void localPathStaysUnderTheRoot() {
+        assertThat(store.localPath("blobs/ab/abcdef.mp4")).contains(root.resolve("blobs/ab/abcdef.mp4"));
+        assertThatThrownBy(() -> store.localPath("../outside.mp4")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private List<Path> files() throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            return files.filter(Files::isRegularFile).toList();
+        }
+    }
+}
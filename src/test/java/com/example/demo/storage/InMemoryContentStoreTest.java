@@ -0,0 +1,9 @@
+package com.example.demo.storage;
+
+class InMemoryContentStoreTest extends ContentStoreContractTest {
+
+    @Override
+    ContentStore createStore() {
+        return new InMemoryContentStore();
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.demo.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The GET Object and PUT Object examples from the AWS "Signature Calculations
+ * for the Authorization Header" page of the S3 API reference.
+ */
+class S3ContentStoreSigningTest {
+
+    private static final String SECRET_KEY = "wJalrXUtnFEMI/K7MDENG/bPxRfiCYEXAMPLEKEY";
+    private static final String AMZ_DATE = "20130524T000000Z";
+    private static final String EMPTY_SHA256 = "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855";
+
+    @Test
+    void getObjectExample() {
+        SortedMap<String, String> headers = new TreeMap<>();
+        headers.put("host", "examplebucket.s3.amazonaws.com");
+        headers.put("range", "bytes=0-9");
+        headers.put("x-amz-content-sha256", EMPTY_SHA256);
+        headers.put("x-amz-date", AMZ_DATE);
+
+        String canonicalRequest = S3ContentStore.canonicalRequest("GET", "/test.txt", headers, EMPTY_SHA256);
+
+        assertThat(canonicalRequest).isEqualTo("GET\n"
+                + "/test.txt\n"
+                + "\n"
+                + "host:examplebucket.s3.amazonaws.com\n"
+                + "range:bytes=0-9\n"
+                + "x-amz-content-sha256:" + EMPTY_SHA256 + "\n"
+                + "x-amz-date:20130524T000000Z\n"
+                + "\n"
+                + "host;range;x-amz-content-sha256;x-amz-date\n"
+                + EMPTY_SHA256);
+        assertThat(S3ContentStore.sha256Hex(canonicalRequest))
+                .isEqualTo("7344ae5b7ee6c3e7e6b0fe0640412a37625d1fbfff95c48bbb2dc43964946972");
+        assertThat(S3ContentStore.signature(SECRET_KEY, "us-east-1", AMZ_DATE, canonicalRequest))
+                .isEqualTo("f0e8bdb87c964420e857bd35b5d6ed310bd44f0170aba48dd91039c6036bdb41");
+    }
+
+    @Test
+    void putObjectExample() {
+        String payloadHash = S3ContentStore.sha256Hex("Welcome to Amazon S3.");
+        SortedMap<String, String> headers = new TreeMap<>();
+        headers.put("date", "Fri, 24 May 2013 00:00:00 GMT");
+        headers.put("host", "examplebucket.s3.amazonaws.com");
+        headers.put("x-amz-content-sha256", payloadHash);
+        headers.put("x-amz-date", AMZ_DATE);
+        headers.put("x-amz-storage-class", "REDUCED_REDUNDANCY");
+
+        String canonicalUri = "/" + S3ContentStore.encodePath("test$file.text");
+        String canonicalRequest = S3ContentStore.canonicalRequest("PUT", canonicalUri, headers, payloadHash);
+
+        assertThat(payloadHash).isEqualTo("44ce7dd67c959e0d3524ffac1771dfbba87d2b6b4b4e99e42034a8b803f8b072");
+        assertThat(canonicalUri).isEqualTo("/test%24file.text");
+        assertThat(S3ContentStore.signature(SECRET_KEY, "us-east-1", AMZ_DATE, canonicalRequest))
+                .isEqualTo("98ad721746da40c64f1a55b78f14c238d841ea1380cd77a1b5971af0ece108bd");
+    }
+
+    @Test
+    void keysKeepTheirSlashesAndEscapeEverythingElse() {
+        assertThat(S3ContentStore.encodePath("blobs/ab/a b+c~d.mp4")).isEqualTo("blobs/ab/a%20b%2Bc~d.mp4");
+        assertThat(S3ContentStore.encodePath("staging/é.mp4")).isEqualTo("staging/%C3%A9.mp4");
+    }
+}